@@ -0,0 +1,46 @@
+package org.apache.catalina.mapper;
+
+import org.apache.coyote.Request;
+import org.apache.coyote.http11.Http11InputBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Handler lookup for the routes of the application, and for a path that
+ * falls through to the static resources.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MapperBenchmark {
+
+    @Param({"GET /login", "POST /login", "GET /register", "GET /css/styles.css"})
+    public String requestLine;
+
+    private Mapper mapper;
+    private Request request;
+
+    @Setup
+    public void setUp() {
+        mapper = Mapper.scan("com.techcourse");
+        request = new Request(10);
+        final String head = requestLine + " HTTP/1.1\r\nHost: localhost\r\n\r\n";
+        new Http11InputBuffer(8 * 1024).parseRequestHead(ByteBuffer.wrap(head.getBytes(StandardCharsets.US_ASCII)),
+                request);
+    }
+
+    @Benchmark
+    public HandlerMethod map() {
+        return mapper.map(request);
+    }
+}
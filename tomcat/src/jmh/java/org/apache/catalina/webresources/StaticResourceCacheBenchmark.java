@@ -0,0 +1,41 @@
+package org.apache.catalina.webresources;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup of a cached static resource and of a path that has none.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class StaticResourceCacheBenchmark {
+
+    private StaticResourceCache resourceCache;
+
+    @Setup
+    public void setUp() {
+        resourceCache = new StaticResourceCache();
+        // 첫 조회에서 파일을 읽어 캐시에 올려 둔다.
+        resourceCache.getResource("/index.html").orElseThrow();
+        resourceCache.getResource("/nothing.html");
+    }
+
+    @Benchmark
+    public Optional<CachedResource> hit() {
+        return resourceCache.getResource("/index.html");
+    }
+
+    @Benchmark
+    public Optional<CachedResource> miss() {
+        return resourceCache.getResource("/nothing.html");
+    }
+}
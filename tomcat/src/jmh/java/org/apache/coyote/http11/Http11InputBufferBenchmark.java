@@ -0,0 +1,78 @@
+package org.apache.coyote.http11;
+
+import org.apache.coyote.Request;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of a request head as a browser sends it, and of one with
+ * percent-encoded path and query.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class Http11InputBufferBenchmark {
+
+    private static final String BROWSER_HEAD = String.join("\r\n",
+            "GET /index.html HTTP/1.1",
+            "Host: localhost:8080",
+            "Connection: keep-alive",
+            "User-Agent: Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/126.0",
+            "Accept: text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8",
+            "Accept-Encoding: gzip, deflate, br",
+            "Accept-Language: ko-KR,ko;q=0.9,en-US;q=0.8",
+            "Cookie: JSESSIONID=6d2f1c0e-4b3a-4d7e-9a61-0f1e2d3c4b5a",
+            "",
+            "");
+    private static final String ENCODED_HEAD = String.join("\r\n",
+            "GET /search/%ED%99%8D%EA%B8%B8%EB%8F%99?q=%EC%9E%90%EB%B0%94&page=2 HTTP/1.1",
+            "Host: localhost:8080",
+            "",
+            "");
+
+    private Http11InputBuffer inputBuffer;
+    private Request request;
+    private ByteBuffer browserHead;
+    private ByteBuffer encodedHead;
+
+    @Setup
+    public void setUp() {
+        inputBuffer = new Http11InputBuffer(8 * 1024);
+        request = new Request(100);
+        browserHead = ByteBuffer.wrap(BROWSER_HEAD.getBytes(StandardCharsets.US_ASCII));
+        encodedHead = ByteBuffer.wrap(ENCODED_HEAD.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Benchmark
+    public boolean parseBrowserHead() {
+        return parse(browserHead);
+    }
+
+    /**
+     * Parsing followed by reading the values a handler typically asks for.
+     */
+    @Benchmark
+    public void parseAndReadEncodedHead(final Blackhole blackhole) {
+        blackhole.consume(parse(encodedHead));
+        blackhole.consume(request.getRequestURI());
+        blackhole.consume(request.getQueryString());
+        blackhole.consume(request.getHeader("Host"));
+    }
+
+    private boolean parse(final ByteBuffer head) {
+        head.rewind();
+        request.recycle();
+        inputBuffer.recycle();
+        return inputBuffer.parseRequestHead(head, request);
+    }
+}
@@ -0,0 +1,45 @@
+package org.apache.coyote.http11;
+
+import org.apache.coyote.HttpStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of a typical static resource response head into the output
+ * buffer, flushed to a stream that discards it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class Http11OutputBufferBenchmark {
+
+    private Http11OutputBuffer outputBuffer;
+
+    @Setup
+    public void setUp() {
+        outputBuffer = new Http11OutputBuffer(OutputStream.nullOutputStream(), null, 8 * 1024);
+    }
+
+    @Benchmark
+    public long writeResponseHead() throws IOException {
+        outputBuffer.sendStatus(HttpStatus.OK);
+        outputBuffer.sendContentType("text/html;charset=utf-8");
+        outputBuffer.sendContentLength(5_621);
+        outputBuffer.sendHeader("Cache-Control", "no-cache");
+        outputBuffer.sendHeader("ETag", "W/\"5621-1718000000000\"");
+        outputBuffer.sendHeader("Last-Modified", "Mon, 10 Jun 2024 06:13:20 GMT");
+        outputBuffer.sendDate();
+        outputBuffer.endHeaders();
+        outputBuffer.flush();
+        return outputBuffer.getBytesWritten();
+    }
+}
@@ -0,0 +1,89 @@
+package org.apache.coyote.http11;
+
+import com.techcourse.db.InMemoryUserRepository;
+import jakarta.servlet.http.HttpSession;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One connection served end to end by {@link Http11Processor#process}: the
+ * request is read from an {@link InMemorySocket}, dispatched, and the
+ * response is written back, with the buffers, session and static resource
+ * lookups of a real connection.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class Http11ProcessorBenchmark {
+
+    /**
+     * <ul>
+     * <li><code>home</code>: a @ResponseBody handler</li>
+     * <li><code>index</code>: a static resource from the cache</li>
+     * <li><code>login</code>: GET /login without a session, which serves the
+     *     login page</li>
+     * <li><code>loggedIn</code>: GET /login of a logged-in user, which looks
+     *     up the session and redirects</li>
+     * </ul>
+     */
+    @Param({"home", "index", "login", "loggedIn"})
+    public String scenario;
+
+    private Http11Protocol protocol;
+    private InMemorySocket socket;
+
+    @Setup
+    public void setUp() {
+        protocol = new Http11Protocol();
+        protocol.start();
+        socket = new InMemorySocket(request().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @TearDown
+    public void tearDown() {
+        protocol.stop();
+    }
+
+    @Benchmark
+    public long process() {
+        socket.reset();
+        new Http11Processor(socket, protocol).process(socket);
+        return socket.getBytesWritten();
+    }
+
+    private String request() {
+        return switch (scenario) {
+            case "home" -> head("GET / HTTP/1.1");
+            case "index" -> head("GET /index.html HTTP/1.1");
+            case "login" -> head("GET /login HTTP/1.1");
+            case "loggedIn" -> head("GET /login HTTP/1.1", "Cookie: JSESSIONID=" + loggedInSessionId());
+            default -> throw new IllegalArgumentException("Unknown scenario: " + scenario);
+        };
+    }
+
+    private String loggedInSessionId() {
+        final HttpSession session = protocol.getSessionManager().createSession();
+        session.setAttribute("user", InMemoryUserRepository.findByAccount("gugu").orElseThrow());
+        return session.getId();
+    }
+
+    private static String head(final String requestLine, final String... headers) {
+        final var head = new StringBuilder(requestLine).append("\r\n")
+                .append("Host: localhost:8080\r\n")
+                .append("Accept-Encoding: gzip, deflate, br\r\n");
+        for (final String header : headers) {
+            head.append(header).append("\r\n");
+        }
+        return head.append("\r\n").toString();
+    }
+}
@@ -0,0 +1,97 @@
+package org.apache.coyote.http11;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+
+/**
+ * Socket that replays the same request bytes on every connection and counts
+ * the response bytes instead of keeping them, so a benchmark measures the
+ * processor rather than the test double.
+ */
+class InMemorySocket extends Socket {
+
+    private final byte[] request;
+    private final ReplayInputStream inputStream;
+    private final CountingOutputStream outputStream;
+
+    InMemorySocket(final byte[] request) {
+        this.request = request;
+        this.inputStream = new ReplayInputStream();
+        this.outputStream = new CountingOutputStream();
+    }
+
+    /**
+     * Rewinds the request for the next connection.
+     */
+    void reset() {
+        inputStream.position = 0;
+        outputStream.count = 0;
+    }
+
+    long getBytesWritten() {
+        return outputStream.count;
+    }
+
+    @Override
+    public InetAddress getInetAddress() {
+        return InetAddress.getLoopbackAddress();
+    }
+
+    @Override
+    public int getPort() {
+        return 8080;
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return inputStream;
+    }
+
+    @Override
+    public OutputStream getOutputStream() {
+        return outputStream;
+    }
+
+    private final class ReplayInputStream extends InputStream {
+
+        private int position;
+
+        @Override
+        public int read() {
+            return position < request.length ? request[position++] & 0xFF : -1;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) {
+            if (position >= request.length) {
+                return -1;
+            }
+            final int read = Math.min(len, request.length - position);
+            System.arraycopy(request, position, b, off, read);
+            position += read;
+            return read;
+        }
+
+        @Override
+        public void close() {
+            // 다음 연결에서 다시 읽어야 하므로 닫지 않는다.
+        }
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(final int b) {
+            count++;
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) {
+            count += len;
+        }
+    }
+}
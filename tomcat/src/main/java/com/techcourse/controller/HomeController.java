@@ -0,0 +1,17 @@
+package com.techcourse.controller;
+
+import org.apache.catalina.annotation.Controller;
+import org.apache.catalina.annotation.RequestMapping;
+import org.apache.catalina.annotation.ResponseBody;
+import org.apache.coyote.Request;
+import org.apache.coyote.Response;
+
+@Controller
+public class HomeController {
+
+    @ResponseBody
+    @RequestMapping("/")
+    public String home(final Request request, final Response response) {
+        return "Hello world!";
+    }
+}
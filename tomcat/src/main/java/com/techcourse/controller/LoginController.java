@@ -0,0 +1,57 @@
+package com.techcourse.controller;
+
+import com.techcourse.db.InMemoryUserRepository;
+import com.techcourse.model.User;
+import jakarta.servlet.http.HttpSession;
+import org.apache.catalina.annotation.Controller;
+import org.apache.catalina.annotation.RequestMapping;
+import org.apache.coyote.Request;
+import org.apache.coyote.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Optional;
+
+@Controller
+public class LoginController {
+
+    private static final Logger log = LoggerFactory.getLogger(LoginController.class);
+
+    private static final String USER_ATTRIBUTE = "user";
+
+    /**
+     * 이미 로그인한 사용자는 로그인 페이지 대신 메인 페이지로 보낸다.
+     */
+    @RequestMapping("/login")
+    public String loginPage(final Request request, final Response response) {
+        final HttpSession session = request.getSession(false);
+        if (session != null && session.getAttribute(USER_ATTRIBUTE) != null) {
+            return "redirect:/index.html";
+        }
+        return "/login.html";
+    }
+
+    /**
+     * 폼으로 받은 계정으로 로그인한다. 성공하면 메인 페이지로, 실패하면 401 페이지로 보낸다.
+     */
+    @RequestMapping(value = "/login", method = "POST")
+    public String login(final Request request, final Response response) {
+        final String account = request.getParameter("account");
+        final String password = request.getParameter("password");
+        final Optional<User> user = Optional.ofNullable(account)
+                .flatMap(InMemoryUserRepository::findByAccount)
+                .filter(found -> found.checkPassword(password));
+        if (user.isEmpty()) {
+            log.atInfo().log("login failed: {}", account);
+            return "redirect:/401.html";
+        }
+        log.atInfo().log("user: {}", user.get());
+        // 세션 고정 공격을 막기 위해 로그인할 때마다 새 세션을 만든다.
+        final HttpSession previous = request.getSession(false);
+        if (previous != null) {
+            previous.invalidate();
+        }
+        request.getSession(true).setAttribute(USER_ATTRIBUTE, user.get());
+        return "redirect:/index.html";
+    }
+}
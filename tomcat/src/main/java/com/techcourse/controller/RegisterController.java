@@ -0,0 +1,42 @@
+package com.techcourse.controller;
+
+import com.techcourse.db.InMemoryUserRepository;
+import com.techcourse.model.User;
+import org.apache.catalina.annotation.Controller;
+import org.apache.catalina.annotation.RequestMapping;
+import org.apache.coyote.Request;
+import org.apache.coyote.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+@Controller
+public class RegisterController {
+
+    private static final Logger log = LoggerFactory.getLogger(RegisterController.class);
+
+    @RequestMapping("/register")
+    public String registerPage(final Request request, final Response response) {
+        return "/register.html";
+    }
+
+    /**
+     * 폼으로 받은 정보로 회원을 등록한다. 값이 빠졌거나 이미 있는 계정이면 가입 페이지로 되돌린다.
+     */
+    @RequestMapping(value = "/register", method = "POST")
+    public String register(final Request request, final Response response) {
+        final String account = request.getParameter("account");
+        final String password = request.getParameter("password");
+        final String email = request.getParameter("email");
+        if (isBlank(account) || isBlank(password) || isBlank(email)
+                || InMemoryUserRepository.findByAccount(account).isPresent()) {
+            return "redirect:/register.html";
+        }
+        InMemoryUserRepository.save(new User(account, password, email));
+        log.atInfo().log("registered: {}", account);
+        return "redirect:/index.html";
+    }
+
+    private boolean isBlank(final String value) {
+        return value == null || value.isBlank();
+    }
+}
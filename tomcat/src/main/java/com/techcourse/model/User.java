@@ -1,6 +1,10 @@
 package com.techcourse.model;
 
-public class User {
+import java.io.Serializable;
+
+public class User implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private final Long id;
     private final String account;
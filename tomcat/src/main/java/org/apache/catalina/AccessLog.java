@@ -0,0 +1,37 @@
+package org.apache.catalina;
+
+import org.apache.coyote.Request;
+import org.apache.coyote.Response;
+
+/**
+ * Intended for use by a connector to record the requests it has served.
+ * Implementations are called on the request thread once the response has
+ * been written, so they must not block it.
+ */
+public interface AccessLog {
+
+    /**
+     * Add the request/response to the access log using the specified
+     * processing time.
+     *
+     * @param request  Request (associated with the response) to log
+     * @param response Response (associated with the request) to log
+     * @param time     Time taken to process the request/response in
+     *                 nanoseconds
+     */
+    void log(Request request, Response response, long time);
+
+    /**
+     * Prepare the access log for use, for example by starting a background
+     * writer.
+     */
+    default void start() {
+    }
+
+    /**
+     * Write out the records logged so far and release the resources of the
+     * access log.
+     */
+    default void stop() {
+    }
+}
@@ -31,6 +31,18 @@ public interface Manager {
      */
     void add(HttpSession session);
 
+    /**
+     * Construct and return a new session object, based on the default
+     * settings specified by this Manager's properties, and add it to the set
+     * of active Sessions. The session id is generated by this Manager.
+     *
+     * @exception IllegalStateException if a new session cannot be
+     *  instantiated for any reason
+     *
+     * @return An empty Session object
+     */
+    HttpSession createSession();
+
     /**
      * Return the active Session, associated with this Manager, with the
      * specified session id (if any); otherwise return <code>null</code>.
@@ -0,0 +1,19 @@
+package org.apache.catalina.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a class whose {@link RequestMapping} methods handle requests. The
+ * class is found by scanning its package once at startup and must have a
+ * public no-argument constructor; one instance serves every request, so it
+ * must be thread-safe.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Controller {
+}
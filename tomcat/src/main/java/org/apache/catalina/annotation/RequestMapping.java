@@ -0,0 +1,33 @@
+package org.apache.catalina.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Maps requests with the given method and path to a method of a
+ * {@link Controller}.
+ * <p>
+ * The method must be public and take an {@link org.apache.coyote.Request}
+ * and an {@link org.apache.coyote.Response}. It returns the view to render:
+ * <ul>
+ * <li><code>redirect:</code> followed by a location sends a redirect.
+ * <li>Any other value is the path of a static resource to send.
+ * </ul>
+ * A method that is also annotated with {@link ResponseBody} returns the body
+ * of the response instead.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface RequestMapping {
+
+    /**
+     * @return the raw request path, compared as is with the request
+     */
+    String value();
+
+    String method() default "GET";
+}
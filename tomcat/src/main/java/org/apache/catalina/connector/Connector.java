@@ -1,13 +1,24 @@
 package org.apache.catalina.connector;
 
-import org.apache.coyote.http11.Http11Processor;
+import org.apache.coyote.http11.Http11Protocol;
+import org.apache.tomcat.util.net.NioChannel;
+import org.apache.tomcat.util.net.Poller;
+import org.apache.tomcat.util.threads.TaskQueue;
+import org.apache.tomcat.util.threads.TaskThreadFactory;
+import org.apache.tomcat.util.threads.ThreadPoolExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
-import java.net.ServerSocket;
+import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 public class Connector implements Runnable {
 
@@ -15,35 +26,149 @@ public class Connector implements Runnable {
 
     private static final int DEFAULT_PORT = 8080;
     private static final int DEFAULT_ACCEPT_COUNT = 100;
+    private static final int DEFAULT_MAX_THREADS = 200;
+    private static final int DEFAULT_MIN_SPARE_THREADS = 10;
+    private static final int DEFAULT_MAX_QUEUE_SIZE = Integer.MAX_VALUE;
+    private static final long THREAD_KEEP_ALIVE_SECONDS = 60L;
+    private static final int DEFAULT_POLLER_THREAD_COUNT = Math.min(2, Runtime.getRuntime().availableProcessors());
 
-    private final ServerSocket serverSocket;
-    private boolean stopped;
+    private final ServerSocketChannel serverSocketChannel;
+    private final IoMode ioMode;
+    private final ThreadMode threadMode;
+    private final Http11Protocol protocol;
+    private final ExecutorService executor;
+    private final Poller[] pollers;
+    private int nextPoller;
+    private volatile boolean stopped;
 
     public Connector() {
         this(DEFAULT_PORT, DEFAULT_ACCEPT_COUNT);
     }
 
+    public Connector(final Http11Protocol protocol) {
+        this(DEFAULT_PORT, DEFAULT_ACCEPT_COUNT, DEFAULT_MAX_THREADS, DEFAULT_MIN_SPARE_THREADS, DEFAULT_MAX_QUEUE_SIZE,
+                IoMode.BLOCKING, ThreadMode.PLATFORM, protocol);
+    }
+
     public Connector(final int port, final int acceptCount) {
-        this.serverSocket = createServerSocket(port, acceptCount);
+        this(port, acceptCount, DEFAULT_MAX_THREADS, DEFAULT_MIN_SPARE_THREADS, DEFAULT_MAX_QUEUE_SIZE);
+    }
+
+    public Connector(final int port, final int acceptCount, final int maxThreads, final int minSpareThreads,
+                     final int maxQueueSize) {
+        this(port, acceptCount, maxThreads, minSpareThreads, maxQueueSize, IoMode.BLOCKING);
+    }
+
+    public Connector(final int port, final int acceptCount, final int maxThreads, final int minSpareThreads,
+                     final int maxQueueSize, final IoMode ioMode) {
+        this(port, acceptCount, maxThreads, minSpareThreads, maxQueueSize, ioMode, ThreadMode.PLATFORM,
+                new Http11Protocol());
+    }
+
+    /**
+     * 요청마다 가상 스레드를 하나씩 만들어 처리하는 커넥터를 만든다. 대부분의 시간을
+     * 소켓 I/O 에서 대기하는 연결이 많을 때 플랫폼 스레드 풀 대신 사용한다.
+     */
+    public Connector(final int port, final int acceptCount, final ThreadMode threadMode,
+                     final Http11Protocol protocol) {
+        this(port, acceptCount, DEFAULT_MAX_THREADS, DEFAULT_MIN_SPARE_THREADS, DEFAULT_MAX_QUEUE_SIZE,
+                IoMode.BLOCKING, threadMode, protocol);
+    }
+
+    /**
+     * @param maxThreads      스레드 풀의 최대 스레드 수. {@link ThreadMode#PLATFORM} 에서만 쓴다.
+     * @param minSpareThreads 미리 띄워 두는 스레드 수. {@link ThreadMode#PLATFORM} 에서만 쓴다.
+     * @param maxQueueSize    워커를 기다릴 수 있는 연결 수. {@link ThreadMode#PLATFORM} 에서만 쓴다.
+     * @throws IllegalArgumentException {@link ThreadMode#VIRTUAL} 을 {@link IoMode#BLOCKING} 이 아닌
+     *                                  방식과 함께 요청한 경우
+     */
+    public Connector(final int port, final int acceptCount, final int maxThreads, final int minSpareThreads,
+                     final int maxQueueSize, final IoMode ioMode, final ThreadMode threadMode,
+                     final Http11Protocol protocol) {
+        // Poller 가 이미 유휴 연결에 스레드를 쓰지 않으므로 가상 스레드와 함께 쓸 이유가 없다.
+        if (threadMode == ThreadMode.VIRTUAL && ioMode != IoMode.BLOCKING) {
+            throw new IllegalArgumentException("Virtual threads are only supported with IoMode.BLOCKING, not "
+                    + ioMode);
+        }
+        this.serverSocketChannel = createServerSocketChannel(port, acceptCount);
+        this.ioMode = ioMode;
+        this.threadMode = threadMode;
+        this.protocol = protocol;
+        this.executor = threadMode == ThreadMode.VIRTUAL
+                ? createVirtualThreadExecutor()
+                : createExecutor(maxThreads, minSpareThreads, maxQueueSize);
+        this.pollers = createPollers();
         this.stopped = false;
+        registerGauges();
     }
 
-    private ServerSocket createServerSocket(final int port, final int acceptCount) {
+    private ServerSocketChannel createServerSocketChannel(final int port, final int acceptCount) {
         try {
             final int checkedPort = checkPort(port);
             final int checkedAcceptCount = checkAcceptCount(acceptCount);
-            return new ServerSocket(checkedPort, checkedAcceptCount);
+            final var channel = ServerSocketChannel.open();
+            channel.bind(new InetSocketAddress(checkedPort), checkedAcceptCount);
+            return channel;
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
     }
 
+    private ThreadPoolExecutor createExecutor(final int maxThreads, final int minSpareThreads, final int maxQueueSize) {
+        final int checkedMaxThreads = checkMaxThreads(maxThreads);
+        final int checkedMinSpareThreads = checkMinSpareThreads(minSpareThreads, checkedMaxThreads);
+        final var taskQueue = new TaskQueue(checkMaxQueueSize(maxQueueSize));
+        final var threadFactory = new TaskThreadFactory(threadMode.threadNamePrefix(ioMode, getLocalPort()), true);
+        final var threadPoolExecutor = new ThreadPoolExecutor(checkedMinSpareThreads, checkedMaxThreads,
+                THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, taskQueue, threadFactory,
+                (task, rejectedBy) -> {
+                    // 스레드 생성에 실패했더라도 큐에 자리가 남아 있다면 큐에 넣는다.
+                    if (!taskQueue.force(task)) {
+                        throw new RejectedExecutionException("Work queue full.");
+                    }
+                });
+        threadPoolExecutor.prestartAllCoreThreads();
+        return threadPoolExecutor;
+    }
+
+    private ExecutorService createVirtualThreadExecutor() {
+        final var threadFactory = Thread.ofVirtual()
+                .name(threadMode.threadNamePrefix(ioMode, getLocalPort()), 1)
+                .factory();
+        return Executors.newThreadPerTaskExecutor(threadFactory);
+    }
+
+    private Poller[] createPollers() {
+        if (ioMode != IoMode.NIO) {
+            return new Poller[0];
+        }
+        final var created = new Poller[DEFAULT_POLLER_THREAD_COUNT];
+        for (int i = 0; i < created.length; i++) {
+            created[i] = new Poller(executor, protocol.getKeepAliveTimeout());
+        }
+        return created;
+    }
+
+    private void registerGauges() {
+        // 가상 스레드 실행기는 큐도 스레드 수 제한도 없으므로 0 으로 보인다.
+        protocol.getMetrics().registerGauge("connector_queued_sockets", "Connections waiting for a worker",
+                () -> executor instanceof ThreadPoolExecutor pool ? pool.getQueue().size() : 0);
+        protocol.getMetrics().registerGauge("connector_worker_threads", "Threads in the worker pool",
+                () -> executor instanceof ThreadPoolExecutor pool ? pool.getPoolSize() : 0);
+    }
+
     public void start() {
-        var thread = new Thread(this);
+        protocol.start();
+        for (int i = 0; i < pollers.length; i++) {
+            var pollerThread = new Thread(pollers[i], ioMode.threadNamePrefix(getLocalPort()) + "Poller-" + i);
+            pollerThread.setDaemon(true);
+            pollerThread.start();
+        }
+        var thread = new Thread(this, ioMode.threadNamePrefix(getLocalPort()) + "Acceptor");
         thread.setDaemon(true);
         thread.start();
         stopped = false;
-        log.info("Web Application Server started {} port.", serverSocket.getLocalPort());
+        log.info("Web Application Server started {} port.", getLocalPort());
     }
 
     @Override
@@ -56,27 +181,77 @@ public class Connector implements Runnable {
 
     private void connect() {
         try {
-            process(serverSocket.accept());
+            process(serverSocketChannel.accept());
         } catch (IOException e) {
-            log.error(e.getMessage(), e);
+            if (!stopped) {
+                log.error(e.getMessage(), e);
+            }
         }
     }
 
-    private void process(final Socket connection) {
-        if (connection == null) {
+    private void process(final SocketChannel channel) throws IOException {
+        if (channel == null) {
+            return;
+        }
+        channel.socket().setTcpNoDelay(protocol.isTcpNoDelay());
+        if (ioMode == IoMode.NIO) {
+            channel.configureBlocking(false);
+            var processor = protocol.createProcessor(channel.socket());
+            nextPoller().register(new NioChannel(channel, processor, protocol.getBufferPool(),
+                    protocol.getMaxHttpHeaderSize()));
             return;
         }
-        var processor = new Http11Processor(connection);
-        new Thread(processor).start();
+        process(channel.socket());
     }
 
-    public void stop() {
+    private Poller nextPoller() {
+        // accept 는 Acceptor 스레드 하나에서만 호출되므로 동기화가 필요 없다.
+        nextPoller = (nextPoller + 1) % pollers.length;
+        return pollers[nextPoller];
+    }
+
+    private void process(final Socket connection) {
+        var processor = protocol.createProcessor(connection);
+        try {
+            executor.execute(processor);
+        } catch (RejectedExecutionException e) {
+            // 작업 큐가 가득 차면 연결을 받아들이지 않고 바로 닫는다.
+            log.warn("Worker queue is full, closing connection from {}", connection.getRemoteSocketAddress());
+            closeQuietly(connection);
+            processor.recycle();
+        }
+    }
+
+    /**
+     * 종료 훅과 main 스레드가 함께 호출할 수 있으므로 한 번만 멈춘다.
+     */
+    public synchronized void stop() {
+        if (stopped) {
+            return;
+        }
         stopped = true;
         try {
-            serverSocket.close();
+            serverSocketChannel.close();
         } catch (IOException e) {
             log.error(e.getMessage(), e);
         }
+        for (Poller poller : pollers) {
+            poller.destroy();
+        }
+        executor.shutdown();
+        protocol.stop();
+    }
+
+    private int getLocalPort() {
+        return serverSocketChannel.socket().getLocalPort();
+    }
+
+    private void closeQuietly(final Socket connection) {
+        try {
+            connection.close();
+        } catch (IOException e) {
+            log.debug(e.getMessage(), e);
+        }
     }
 
     private int checkPort(final int port) {
@@ -92,4 +267,22 @@ public class Connector implements Runnable {
     private int checkAcceptCount(final int acceptCount) {
         return Math.max(acceptCount, DEFAULT_ACCEPT_COUNT);
     }
+
+    private int checkMaxThreads(final int maxThreads) {
+        if (maxThreads < 1) {
+            return DEFAULT_MAX_THREADS;
+        }
+        return maxThreads;
+    }
+
+    private int checkMinSpareThreads(final int minSpareThreads, final int maxThreads) {
+        return Math.min(Math.max(minSpareThreads, 0), maxThreads);
+    }
+
+    private int checkMaxQueueSize(final int maxQueueSize) {
+        if (maxQueueSize < 1) {
+            return DEFAULT_MAX_QUEUE_SIZE;
+        }
+        return maxQueueSize;
+    }
 }
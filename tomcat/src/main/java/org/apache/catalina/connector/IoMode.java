@@ -0,0 +1,28 @@
+package org.apache.catalina.connector;
+
+/**
+ * How a {@link Connector} waits for data on accepted connections.
+ */
+public enum IoMode {
+
+    /**
+     * A worker thread blocks on each connection's socket streams.
+     */
+    BLOCKING("bio"),
+
+    /**
+     * Poller threads wait on a selector and hand only readable connections to
+     * worker threads, so idle connections do not occupy a thread.
+     */
+    NIO("nio");
+
+    private final String threadNamePrefix;
+
+    IoMode(final String threadNamePrefix) {
+        this.threadNamePrefix = threadNamePrefix;
+    }
+
+    String threadNamePrefix(final int port) {
+        return "http-" + threadNamePrefix + "-" + port + "-";
+    }
+}
@@ -0,0 +1,30 @@
+package org.apache.catalina.connector;
+
+/**
+ * Which threads a {@link Connector} runs its connections on.
+ */
+public enum ThreadMode {
+
+    /**
+     * A bounded pool of platform worker threads with a bounded queue of
+     * waiting connections.
+     */
+    PLATFORM("exec-"),
+
+    /**
+     * A new virtual thread for every connection. A virtual thread blocked on
+     * socket I/O does not hold a platform thread, so there is no pool to
+     * size; only {@link IoMode#BLOCKING} is supported.
+     */
+    VIRTUAL("virt-");
+
+    private final String threadNameSuffix;
+
+    ThreadMode(final String threadNameSuffix) {
+        this.threadNameSuffix = threadNameSuffix;
+    }
+
+    String threadNamePrefix(final IoMode ioMode, final int port) {
+        return ioMode.threadNamePrefix(port) + threadNameSuffix;
+    }
+}
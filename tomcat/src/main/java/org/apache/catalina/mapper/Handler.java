@@ -0,0 +1,17 @@
+package org.apache.catalina.mapper;
+
+import org.apache.coyote.Request;
+import org.apache.coyote.Response;
+
+/**
+ * Handles the requests mapped to it by a {@link Mapper}.
+ */
+@FunctionalInterface
+public interface Handler {
+
+    /**
+     * @return the view to render, or the response body if the handler was
+     *         declared with {@link org.apache.catalina.annotation.ResponseBody}
+     */
+    String handle(Request request, Response response);
+}
@@ -0,0 +1,56 @@
+package org.apache.catalina.mapper;
+
+import org.apache.coyote.Request;
+import org.apache.coyote.Response;
+
+/**
+ * A {@link Handler} together with the request method and path it is mapped
+ * to.
+ */
+public final class HandlerMethod {
+
+    private final String method;
+    private final String path;
+    private final Handler handler;
+    private final boolean responseBody;
+    // 요청마다 지표의 이름으로 쓰이므로 미리 만들어 둔다.
+    private final String name;
+
+    public HandlerMethod(final String method, final String path, final Handler handler) {
+        this(method, path, handler, false);
+    }
+
+    /**
+     * @param responseBody whether the handler returns the response body rather
+     *                     than a view
+     */
+    public HandlerMethod(final String method, final String path, final Handler handler,
+                         final boolean responseBody) {
+        this.method = method;
+        this.path = path;
+        this.handler = handler;
+        this.responseBody = responseBody;
+        this.name = method + " " + path;
+    }
+
+    public String handle(final Request request, final Response response) {
+        return handler.handle(request, response);
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public boolean isResponseBody() {
+        return responseBody;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,358 @@
+package org.apache.catalina.mapper;
+
+import org.apache.catalina.annotation.Controller;
+import org.apache.catalina.annotation.RequestMapping;
+import org.apache.catalina.annotation.ResponseBody;
+import org.apache.coyote.Request;
+import org.apache.coyote.Response;
+import org.reflections.Reflections;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable router that maps the method and path of a request to the
+ * {@link HandlerMethod} that handles it.
+ * <p>
+ * Paths are compiled into a radix trie when the mapper is built. Besides
+ * literal paths a route may contain variables such as
+ * <code>/users/{id}</code>, each matching one non-empty path segment, and end
+ * with <code>/**</code> to match any number of remaining segments. When
+ * several routes match, literal segments win over variables, and variables
+ * win over <code>/**</code>.
+ * <p>
+ * A lookup walks the trie over the raw path bytes of the request buffer. The
+ * positions of the variables are recorded in the {@link Request} and the
+ * values are only decoded if the handler asks for them, so matching creates
+ * no objects.
+ */
+public final class Mapper {
+
+    private static final String REQUEST_MAPPING_SIGNATURE = "public String name(Request, Response)";
+    private static final MethodType HANDLER_TYPE = MethodType.methodType(String.class, Request.class, Response.class);
+    private static final String WILDCARD_SUFFIX = "/**";
+
+    private final Node root;
+    private final int size;
+
+    /**
+     * @throws IllegalStateException if a path is not a valid route or two
+     *                               handlers are mapped to the same method
+     *                               and path
+     */
+    public Mapper(final Collection<HandlerMethod> handlers) {
+        this.root = new Node(new byte[0]);
+        this.size = handlers.size();
+        for (final HandlerMethod handler : handlers) {
+            add(handler);
+        }
+    }
+
+    /**
+     * Builds a mapper from the {@link RequestMapping} methods of every
+     * {@link Controller} in the package and its subpackages.
+     *
+     * @throws IllegalStateException if a controller cannot be created or a
+     *                               mapping is invalid
+     */
+    public static Mapper scan(final String basePackage) {
+        final List<Class<?>> controllers = new ArrayList<>(
+                new Reflections(basePackage).getTypesAnnotatedWith(Controller.class));
+        // 매핑이 겹칠 때 항상 같은 오류가 나도록 순서를 정한다.
+        controllers.sort(Comparator.comparing(Class::getName));
+        final List<HandlerMethod> handlers = new ArrayList<>();
+        for (final Class<?> controller : controllers) {
+            final Object instance = instantiate(controller);
+            for (final Method method : controller.getDeclaredMethods()) {
+                final RequestMapping mapping = method.getAnnotation(RequestMapping.class);
+                if (mapping != null) {
+                    handlers.add(new HandlerMethod(mapping.method(), mapping.value(), toHandler(instance, method),
+                            method.isAnnotationPresent(ResponseBody.class)));
+                }
+            }
+        }
+        return new Mapper(handlers);
+    }
+
+    /**
+     * @return the handler of the request, or <code>null</code> if no route
+     *         matches its method and path. A <code>HEAD</code> request
+     *         without a route of its own is mapped to the <code>GET</code>
+     *         route of the path.
+     */
+    public HandlerMethod map(final Request request) {
+        final Route route = match(root, request, 0, request.getRequestURILength(), 0);
+        if (route == null) {
+            return null;
+        }
+        request.setPathVariableNames(route.variableNames());
+        return route.handler();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param node          node whose label has just been matched
+     * @param position      index in the request path after the label
+     * @param variableIndex number of variables captured so far
+     */
+    private static Route match(final Node node, final Request request, final int position, final int length,
+                               final int variableIndex) {
+        if (position == length) {
+            final Route route = node.findRoute(node.routes, request);
+            if (route != null) {
+                return route;
+            }
+        } else {
+            final byte next = request.getRequestURIByte(position);
+            final Node child = node.findChild(next);
+            if (child != null && child.labelMatches(request, position, length)) {
+                final Route route = match(child, request, position + child.label.length, length, variableIndex);
+                if (route != null) {
+                    return route;
+                }
+            }
+            // 변수는 빈 값이 될 수 없으므로 다음 바이트가 '/' 이면 건너뛴다.
+            if (node.variableChild != null && next != '/') {
+                int end = position + 1;
+                while (end < length && request.getRequestURIByte(end) != '/') {
+                    end++;
+                }
+                request.setPathVariable(variableIndex, position, end);
+                final Route route = match(node.variableChild, request, end, length, variableIndex + 1);
+                if (route != null) {
+                    return route;
+                }
+            }
+        }
+        if (node.wildcardRoutes.length > 0 && (position == length || request.getRequestURIByte(position) == '/')) {
+            return node.findRoute(node.wildcardRoutes, request);
+        }
+        return null;
+    }
+
+    private void add(final HandlerMethod handler) {
+        final String path = handler.getPath();
+        if (!path.startsWith("/") || !path.chars().allMatch(c -> c > ' ' && c < 0x7F)) {
+            throw new IllegalStateException("Invalid path of mapping " + handler);
+        }
+        final boolean wildcard = path.endsWith(WILDCARD_SUFFIX);
+        final String pattern = wildcard ? path.substring(0, path.length() - WILDCARD_SUFFIX.length()) : path;
+        final List<String> variableNames = new ArrayList<>();
+        Node node = root;
+        int literalStart = 0;
+        int i = 0;
+        while (i < pattern.length()) {
+            final char c = pattern.charAt(i);
+            if (c == '*' || c == '}') {
+                throw new IllegalStateException("Invalid path of mapping " + handler);
+            }
+            if (c != '{') {
+                i++;
+                continue;
+            }
+            final int close = pattern.indexOf('}', i);
+            // 변수는 경로 세그먼트 하나 전체여야 한다.
+            if (pattern.charAt(i - 1) != '/' || close < 0 || close == i + 1
+                    || (close + 1 < pattern.length() && pattern.charAt(close + 1) != '/')) {
+                throw new IllegalStateException("Invalid path variable in mapping " + handler);
+            }
+            final String name = pattern.substring(i + 1, close);
+            if (variableNames.contains(name) || variableNames.size() == Request.MAX_PATH_VARIABLES) {
+                throw new IllegalStateException("Invalid path variable " + name + " in mapping " + handler);
+            }
+            variableNames.add(name);
+            node = insertLiteral(node, pattern.substring(literalStart, i));
+            if (node.variableChild == null) {
+                node.variableChild = new Node(new byte[0]);
+            }
+            node = node.variableChild;
+            i = close + 1;
+            literalStart = i;
+        }
+        node = insertLiteral(node, pattern.substring(literalStart));
+        final var route = new Route(handler, variableNames.toArray(new String[0]));
+        if (wildcard) {
+            node.wildcardRoutes = node.addRoute(node.wildcardRoutes, route);
+        } else {
+            node.routes = node.addRoute(node.routes, route);
+        }
+    }
+
+    /**
+     * @return the node reached by following the literal from the node,
+     *         splitting or adding nodes as needed
+     */
+    private static Node insertLiteral(Node node, final String literal) {
+        final byte[] bytes = literal.getBytes(StandardCharsets.US_ASCII);
+        int position = 0;
+        while (position < bytes.length) {
+            final Node child = node.findChild(bytes[position]);
+            if (child == null) {
+                final var added = new Node(Arrays.copyOfRange(bytes, position, bytes.length));
+                node.addChild(added);
+                return added;
+            }
+            int common = 0;
+            while (common < child.label.length && position + common < bytes.length
+                    && child.label[common] == bytes[position + common]) {
+                common++;
+            }
+            if (common < child.label.length) {
+                child.split(common);
+            }
+            node = child;
+            position += common;
+        }
+        return node;
+    }
+
+    private static Object instantiate(final Class<?> controller) {
+        try {
+            return controller.getConstructor().newInstance();
+        } catch (NoSuchMethodException | InstantiationException | IllegalAccessException e) {
+            throw new IllegalStateException("Controller " + controller.getName()
+                    + " needs a public no-argument constructor", e);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("Failed to create controller " + controller.getName(), e.getCause());
+        }
+    }
+
+    private static Handler toHandler(final Object instance, final Method method) {
+        if (!Modifier.isPublic(method.getModifiers()) || Modifier.isStatic(method.getModifiers())
+                || !HANDLER_TYPE.equals(MethodType.methodType(method.getReturnType(), method.getParameterTypes()))
+                || method.getExceptionTypes().length > 0) {
+            throw new IllegalStateException(method + " must be declared as " + REQUEST_MAPPING_SIGNATURE);
+        }
+        final MethodHandle handle;
+        try {
+            // 요청마다 리플렉션 검사를 하지 않도록 시작할 때 인스턴스에 묶어 둔다.
+            handle = MethodHandles.publicLookup().unreflect(method).bindTo(instance);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot access " + method, e);
+        }
+        return (request, response) -> {
+            try {
+                return (String) handle.invokeExact(request, response);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                // 검사 예외를 선언한 메서드는 등록하지 않으므로 일어나지 않는다.
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+
+    private record Route(HandlerMethod handler, String[] variableNames) {
+    }
+
+    /**
+     * Node of the trie. The fields are only modified while the mapper is
+     * being built.
+     */
+    private static final class Node {
+
+        private byte[] label;
+        private byte[] childFirstBytes;
+        private Node[] children;
+        private Node variableChild;
+        private Route[] routes;
+        private Route[] wildcardRoutes;
+
+        private Node(final byte[] label) {
+            this.label = label;
+            this.childFirstBytes = new byte[0];
+            this.children = new Node[0];
+            this.routes = new Route[0];
+            this.wildcardRoutes = new Route[0];
+        }
+
+        private Node findChild(final byte firstByte) {
+            for (int i = 0; i < childFirstBytes.length; i++) {
+                if (childFirstBytes[i] == firstByte) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        private boolean labelMatches(final Request request, final int position, final int length) {
+            if (length - position < label.length) {
+                return false;
+            }
+            for (int i = 1; i < label.length; i++) {
+                if (request.getRequestURIByte(position + i) != label[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private Route findRoute(final Route[] candidates, final Request request) {
+            for (final Route route : candidates) {
+                if (request.methodEquals(route.handler().getMethod())) {
+                    return route;
+                }
+            }
+            // HEAD 는 GET 과 같은 헤더를 돌려줘야 하므로 HEAD 핸들러가 없으면 GET 핸들러로 처리한다. (RFC 9110 9.3.2)
+            if (request.methodEquals("HEAD")) {
+                for (final Route route : candidates) {
+                    if ("GET".equals(route.handler().getMethod())) {
+                        return route;
+                    }
+                }
+            }
+            return null;
+        }
+
+        private void addChild(final Node child) {
+            childFirstBytes = Arrays.copyOf(childFirstBytes, childFirstBytes.length + 1);
+            childFirstBytes[childFirstBytes.length - 1] = child.label[0];
+            children = Arrays.copyOf(children, children.length + 1);
+            children[children.length - 1] = child;
+        }
+
+        private Route[] addRoute(final Route[] existing, final Route route) {
+            for (final Route mapped : existing) {
+                if (mapped.handler().getMethod().equals(route.handler().getMethod())) {
+                    throw new IllegalStateException("Ambiguous mapping " + route.handler() + " and "
+                            + mapped.handler());
+                }
+            }
+            final Route[] added = Arrays.copyOf(existing, existing.length + 1);
+            added[existing.length] = route;
+            return added;
+        }
+
+        /**
+         * Keeps the first <code>length</code> bytes of the label and moves the
+         * rest, together with everything below this node, to a new child.
+         */
+        private void split(final int length) {
+            final var rest = new Node(Arrays.copyOfRange(label, length, label.length));
+            rest.childFirstBytes = childFirstBytes;
+            rest.children = children;
+            rest.variableChild = variableChild;
+            rest.routes = routes;
+            rest.wildcardRoutes = wildcardRoutes;
+            label = Arrays.copyOf(label, length);
+            childFirstBytes = new byte[]{rest.label[0]};
+            children = new Node[]{rest};
+            variableChild = null;
+            routes = new Route[0];
+            wildcardRoutes = new Route[0];
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package org.apache.catalina.session;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Stores serialized sessions in a single append-only log file.
+ * <p>
+ * Every save appends a record and every removal appends a tombstone, so
+ * passivating a session costs one sequential write no matter how many
+ * sessions are stored. An in-memory index maps each session id to its latest
+ * record together with its expiry time, which lets expired sessions be
+ * dropped without reading them. When superseded records take up more space
+ * than the live ones the log is compacted into a new file.
+ * <p>
+ * The index is rebuilt by scanning the log when the store is opened, so the
+ * stored sessions survive a restart of the server. A record cut short by a
+ * crash is discarded.
+ */
+public class FileStore {
+
+    private static final Logger log = LoggerFactory.getLogger(FileStore.class);
+
+    private static final String LOG_FILE_NAME = "sessions.log";
+    private static final String COMPACT_FILE_NAME = "sessions.log.compact";
+    private static final byte SAVE = 1;
+    private static final byte REMOVE = 2;
+    // recordLength(4) + type(1) + expiryTime(8) + idLength(1)
+    private static final int RECORD_HEADER_SIZE = 14;
+    private static final long MIN_COMPACT_SIZE = 1024 * 1024;
+
+    private final Path directory;
+    private final Map<String, Entry> index;
+    private FileChannel channel;
+    private long position;
+    private long liveSize;
+
+    public FileStore(final Path directory) {
+        this.directory = directory;
+        this.index = new HashMap<>();
+    }
+
+    /**
+     * Opens the log, creating it if needed, and rebuilds the index from it.
+     */
+    public synchronized void open() throws IOException {
+        if (channel != null) {
+            return;
+        }
+        Files.createDirectories(directory);
+        channel = FileChannel.open(directory.resolve(LOG_FILE_NAME),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        index.clear();
+        liveSize = 0;
+        position = replay();
+        if (position < channel.size()) {
+            log.atWarn().log("Discarding {} bytes of incomplete session records", channel.size() - position);
+            channel.truncate(position);
+        }
+        log.atInfo().log("Opened session store {} with {} sessions", directory, index.size());
+    }
+
+    public synchronized void close() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        channel.force(false);
+        channel.close();
+        channel = null;
+    }
+
+    /**
+     * @return the serialized session, or <code>null</code> if there is none
+     *         or it expired before <code>now</code>
+     */
+    public synchronized byte[] load(final String id, final long now) throws IOException {
+        checkOpen();
+        final Entry entry = index.get(id);
+        if (entry == null || entry.expiryTime() <= now) {
+            return null;
+        }
+        final ByteBuffer data = ByteBuffer.allocate(entry.length());
+        while (data.hasRemaining()) {
+            if (channel.read(data, entry.offset() + data.position()) < 0) {
+                throw new IOException("Session record of " + id + " is truncated");
+            }
+        }
+        return data.array();
+    }
+
+    /**
+     * @param expiryTime time in milliseconds after which the session no longer
+     *                   needs to be kept
+     */
+    public synchronized void save(final String id, final long expiryTime, final byte[] data) throws IOException {
+        checkOpen();
+        final long dataOffset = append(SAVE, id, expiryTime, data);
+        final Entry previous = index.put(id, new Entry(dataOffset, data.length, expiryTime));
+        liveSize += recordSize(id, data.length);
+        if (previous != null) {
+            liveSize -= recordSize(id, previous.length());
+        }
+    }
+
+    public synchronized void remove(final String id) throws IOException {
+        checkOpen();
+        final Entry previous = index.remove(id);
+        if (previous == null) {
+            return;
+        }
+        liveSize -= recordSize(id, previous.length());
+        append(REMOVE, id, 0, new byte[0]);
+    }
+
+    /**
+     * Forgets the sessions that expired before <code>now</code> and compacts
+     * the log if most of it is no longer needed.
+     */
+    public synchronized void processExpires(final long now) throws IOException {
+        checkOpen();
+        final var iterator = index.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final var entry = iterator.next();
+            if (entry.getValue().expiryTime() <= now) {
+                // 만료된 세션은 어차피 읽지 않으므로 tombstone 없이 색인에서만 지운다.
+                // 재시작하면 다시 읽히지만 만료 시각 때문에 곧바로 버려진다.
+                liveSize -= recordSize(entry.getKey(), entry.getValue().length());
+                iterator.remove();
+            }
+        }
+        if (position > MIN_COMPACT_SIZE && position - liveSize > liveSize) {
+            compact();
+        }
+    }
+
+    public synchronized int getSize() {
+        return index.size();
+    }
+
+    /**
+     * @return the size in bytes of the log file, including superseded records
+     */
+    public synchronized long getLogSize() {
+        return position;
+    }
+
+    private long replay() throws IOException {
+        final ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        final ByteBuffer idBuffer = ByteBuffer.allocate(255);
+        long offset = 0;
+        final long size = channel.size();
+        while (offset + RECORD_HEADER_SIZE <= size) {
+            header.clear();
+            readFully(header, offset);
+            header.flip();
+            final int recordLength = header.getInt();
+            final byte type = header.get();
+            final long expiryTime = header.getLong();
+            final int idLength = header.get() & 0xFF;
+            final int dataLength = recordLength - (RECORD_HEADER_SIZE - Integer.BYTES) - idLength;
+            if ((type != SAVE && type != REMOVE) || dataLength < 0
+                    || offset + Integer.BYTES + recordLength > size) {
+                break;
+            }
+            idBuffer.clear().limit(idLength);
+            readFully(idBuffer, offset + RECORD_HEADER_SIZE);
+            final String id = new String(idBuffer.array(), 0, idLength, StandardCharsets.US_ASCII);
+            final Entry previous;
+            if (type == SAVE) {
+                previous = index.put(id, new Entry(offset + RECORD_HEADER_SIZE + idLength, dataLength, expiryTime));
+                liveSize += recordSize(id, dataLength);
+            } else {
+                previous = index.remove(id);
+            }
+            if (previous != null) {
+                liveSize -= recordSize(id, previous.length());
+            }
+            offset += Integer.BYTES + recordLength;
+        }
+        return offset;
+    }
+
+    private long append(final byte type, final String id, final long expiryTime, final byte[] data)
+            throws IOException {
+        final byte[] idBytes = id.getBytes(StandardCharsets.US_ASCII);
+        if (idBytes.length > 255) {
+            throw new IllegalArgumentException("Session id is too long: " + id);
+        }
+        final ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + idBytes.length + data.length);
+        record.putInt(record.capacity() - Integer.BYTES)
+                .put(type)
+                .putLong(expiryTime)
+                .put((byte) idBytes.length)
+                .put(idBytes)
+                .put(data)
+                .flip();
+        final long recordOffset = position;
+        writeFully(channel, record, recordOffset);
+        position += record.capacity();
+        return recordOffset + RECORD_HEADER_SIZE + idBytes.length;
+    }
+
+    private void compact() throws IOException {
+        final Path compactFile = directory.resolve(COMPACT_FILE_NAME);
+        final Map<String, Entry> compacted = new HashMap<>();
+        long compactedPosition = 0;
+        try (final FileChannel target = FileChannel.open(compactFile, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (final var entry : index.entrySet()) {
+                final String id = entry.getKey();
+                final Entry current = entry.getValue();
+                final long recordOffset = current.offset() - RECORD_HEADER_SIZE - id.length();
+                final ByteBuffer record = ByteBuffer.allocate(recordSize(id, current.length()));
+                readFully(record, recordOffset);
+                record.flip();
+                writeFully(target, record, compactedPosition);
+                compacted.put(id, new Entry(compactedPosition + RECORD_HEADER_SIZE + id.length(),
+                        current.length(), current.expiryTime()));
+                compactedPosition += record.capacity();
+            }
+            target.force(false);
+        }
+        channel.close();
+        Files.move(compactFile, directory.resolve(LOG_FILE_NAME), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(directory.resolve(LOG_FILE_NAME), StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        log.atDebug().log("Compacted session store from {} to {} bytes", position, compactedPosition);
+        index.clear();
+        index.putAll(compacted);
+        position = compactedPosition;
+        liveSize = compactedPosition;
+    }
+
+    private void readFully(final ByteBuffer buffer, final long offset) throws IOException {
+        final int start = buffer.position();
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position() - start) < 0) {
+                throw new IOException("Unexpected end of session store");
+            }
+        }
+    }
+
+    private static void writeFully(final FileChannel target, final ByteBuffer buffer, final long offset)
+            throws IOException {
+        while (buffer.hasRemaining()) {
+            target.write(buffer, offset + buffer.position());
+        }
+    }
+
+    private static int recordSize(final String id, final int dataLength) {
+        return RECORD_HEADER_SIZE + id.length() + dataLength;
+    }
+
+    private void checkOpen() {
+        if (channel == null) {
+            throw new IllegalStateException("Session store " + directory + " is not open");
+        }
+    }
+
+    private record Entry(long offset, int length, long expiryTime) {
+    }
+}
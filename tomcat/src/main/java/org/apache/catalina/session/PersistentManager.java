@@ -0,0 +1,278 @@
+package org.apache.catalina.session;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link StandardManager} that keeps only the recently used sessions in
+ * memory and passivates the others to a {@link FileStore}.
+ * <p>
+ * A session is swapped out when it has been idle for longer than
+ * <code>maxIdleSwap</code> seconds, or when there are more than
+ * <code>maxActiveSessions</code> sessions in memory, in which case the least
+ * recently used ones go first. {@link #findSession(String)} swaps a stored
+ * session back in, and only one copy of a session exists at a time: it is
+ * removed from the store when it is loaded.
+ * <p>
+ * Only the classes accepted by the session filter are deserialized: by
+ * default the common value types of <code>java.lang</code>,
+ * <code>java.util</code> and <code>java.time</code> and the model classes of
+ * the application. A stored session holding any other class is not restored.
+ * <p>
+ * Stopping the manager writes every session in memory to the store, so the
+ * sessions are still there after the server is started again.
+ */
+public class PersistentManager extends StandardManager {
+
+    private static final Logger log = LoggerFactory.getLogger(PersistentManager.class);
+
+    private static final int DEFAULT_MAX_ACTIVE_SESSIONS = 10_000;
+    private static final int DEFAULT_MAX_IDLE_SWAP = 5 * 60;
+    // 유휴 세션을 찾으려면 메모리의 세션을 모두 훑어야 하므로 틱마다 하지 않는다.
+    private static final int PROCESS_PERSISTENCE_FREQUENCY = 60;
+    private static final String DEFAULT_SESSION_FILTER = "maxdepth=20;maxrefs=10000;maxbytes=1048576;"
+            + "java.lang.*;java.util.*;java.time.*;com.techcourse.model.*;!*";
+
+    private final FileStore store;
+    private final int maxActiveSessions;
+    private final int maxIdleSwap;
+    private final ObjectInputFilter sessionFilter;
+    private final Map<String, CompletableFuture<StandardSession>> swapIns;
+    private int processCount;
+
+    public PersistentManager(final Path directory) {
+        this(directory, DEFAULT_MAX_INACTIVE_INTERVAL, DEFAULT_TICK_MILLIS, DEFAULT_MAX_ACTIVE_SESSIONS,
+                DEFAULT_MAX_IDLE_SWAP);
+    }
+
+    /**
+     * @param directory         directory of the session store
+     * @param maxActiveSessions maximum number of sessions kept in memory;
+     *                          <code>-1</code> means unlimited
+     * @param maxIdleSwap       seconds a session may stay unused before it is
+     *                          swapped out; <code>-1</code> means never
+     */
+    public PersistentManager(final Path directory, final int maxInactiveInterval, final long tickMillis,
+                             final int maxActiveSessions, final int maxIdleSwap) {
+        this(directory, maxInactiveInterval, tickMillis, maxActiveSessions, maxIdleSwap, DEFAULT_SESSION_FILTER);
+    }
+
+    /**
+     * @param sessionFilter pattern of the classes that may be deserialized
+     *                      when a session is loaded, in the syntax of
+     *                      {@link ObjectInputFilter.Config#createFilter(String)}
+     */
+    public PersistentManager(final Path directory, final int maxInactiveInterval, final long tickMillis,
+                             final int maxActiveSessions, final int maxIdleSwap, final String sessionFilter) {
+        super(maxInactiveInterval, tickMillis);
+        this.store = new FileStore(directory);
+        this.maxActiveSessions = checkLimit(maxActiveSessions, DEFAULT_MAX_ACTIVE_SESSIONS);
+        this.maxIdleSwap = checkLimit(maxIdleSwap, DEFAULT_MAX_IDLE_SWAP);
+        this.sessionFilter = ObjectInputFilter.Config.createFilter(sessionFilter);
+        this.swapIns = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Opens the session store and starts expiring sessions.
+     */
+    @Override
+    public synchronized void start() {
+        try {
+            store.open();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        super.start();
+    }
+
+    /**
+     * Stops expiring sessions and writes every session in memory to the store.
+     */
+    @Override
+    public synchronized void stop() {
+        super.stop();
+        unload();
+        try {
+            store.close();
+        } catch (IOException e) {
+            log.atError().log("Failed to close the session store", e);
+        }
+    }
+
+    /**
+     * @return the session in memory, or else the one swapped back in from the
+     *         store, or <code>null</code> if neither exists
+     */
+    @Override
+    public StandardSession findSession(final String id) {
+        final StandardSession session = super.findSession(id);
+        if (session != null || id == null) {
+            return session;
+        }
+        // 같은 세션을 동시에 찾는 요청은 먼저 온 요청이 저장소에서 읽어 올 때까지 기다렸다가 그 결과를 쓴다.
+        // 파일 I/O 는 세션 맵의 잠금 밖에서 하므로 다른 세션의 조회를 막지 않는다.
+        final var loading = new CompletableFuture<StandardSession>();
+        final CompletableFuture<StandardSession> inProgress = swapIns.putIfAbsent(id, loading);
+        if (inProgress != null) {
+            return inProgress.join();
+        }
+        try {
+            StandardSession loaded = super.findSession(id);
+            if (loaded == null) {
+                loaded = swapIn(id);
+            }
+            loading.complete(loaded);
+            return loaded;
+        } catch (RuntimeException e) {
+            loading.completeExceptionally(e);
+            throw e;
+        } finally {
+            swapIns.remove(id, loading);
+        }
+    }
+
+    public int getStoredSessions() {
+        return store.getSize();
+    }
+
+    @Override
+    void processExpires(final long now) {
+        super.processExpires(now);
+        processMaxActiveSwaps();
+        if (++processCount % PROCESS_PERSISTENCE_FREQUENCY != 0) {
+            return;
+        }
+        processMaxIdleSwaps(now);
+        try {
+            store.processExpires(now);
+        } catch (IOException e) {
+            log.atError().log("Failed to expire stored sessions", e);
+        }
+    }
+
+    void processMaxIdleSwaps(final long now) {
+        if (maxIdleSwap < 0) {
+            return;
+        }
+        final long maxIdleMillis = maxIdleSwap * 1000L;
+        for (final StandardSession session : sessions.values()) {
+            if (now - session.getLastAccessedTimeInternal() >= maxIdleMillis) {
+                swapOut(session);
+            }
+        }
+    }
+
+    void processMaxActiveSwaps() {
+        if (maxActiveSessions < 0) {
+            return;
+        }
+        final int excess = sessions.size() - maxActiveSessions;
+        if (excess <= 0) {
+            return;
+        }
+        final List<StandardSession> leastRecentlyUsed = new ArrayList<>(sessions.values());
+        leastRecentlyUsed.sort(Comparator.comparingLong(StandardSession::getLastAccessedTimeInternal));
+        for (int i = 0; i < excess && i < leastRecentlyUsed.size(); i++) {
+            swapOut(leastRecentlyUsed.get(i));
+        }
+    }
+
+    private StandardSession swapIn(final String id) {
+        try {
+            final byte[] data = store.load(id, System.currentTimeMillis());
+            if (data == null) {
+                return null;
+            }
+            final StandardSession session = deserialize(data);
+            // 맵에 넣은 뒤에 지우면 그 사이에 다시 swap out 된 세션을 지울 수 있으므로 먼저 지운다.
+            store.remove(id);
+            sessions.put(id, session);
+            schedule(session);
+            log.atDebug().log("session {} swapped in", id);
+            return session;
+        } catch (IOException | ClassNotFoundException e) {
+            log.atWarn().log("Failed to load session {}", id, e);
+            return null;
+        }
+    }
+
+    private void swapOut(final StandardSession session) {
+        final String id = session.getId();
+        if (sessions.get(id) != session || !session.isValid()) {
+            return;
+        }
+        // 직렬화와 파일 I/O 는 세션 맵의 잠금 밖에서 한다. 그 사이 세션이 무효화되어 맵에서 빠졌다면
+        // 저장한 사본이 다시 살아나지 않도록 지운다.
+        if (!save(session)) {
+            return;
+        }
+        if (sessions.remove(id, session)) {
+            log.atDebug().log("session {} swapped out", id);
+            return;
+        }
+        try {
+            store.remove(id);
+        } catch (IOException e) {
+            log.atWarn().log("Failed to remove session {}", id, e);
+        }
+    }
+
+    private void unload() {
+        final long now = System.currentTimeMillis();
+        int saved = 0;
+        for (final StandardSession session : sessions.values()) {
+            if (session.isValid() && session.getExpiryTime() > now && save(session)) {
+                saved++;
+            }
+        }
+        sessions.clear();
+        log.atInfo().log("Saved {} sessions to the session store", saved);
+    }
+
+    private boolean save(final StandardSession session) {
+        try {
+            store.save(session.getId(), session.getExpiryTime(), serialize(session));
+            return true;
+        } catch (IOException e) {
+            log.atWarn().log("Failed to save session {}", session.getId(), e);
+            return false;
+        }
+    }
+
+    private byte[] serialize(final StandardSession session) throws IOException {
+        final var bytes = new ByteArrayOutputStream();
+        try (final var stream = new ObjectOutputStream(bytes)) {
+            session.writeObjectData(stream);
+        }
+        return bytes.toByteArray();
+    }
+
+    private StandardSession deserialize(final byte[] data) throws IOException, ClassNotFoundException {
+        try (final var stream = new ObjectInputStream(new ByteArrayInputStream(data))) {
+            stream.setObjectInputFilter(sessionFilter);
+            return StandardSession.readObjectData(this, stream);
+        }
+    }
+
+    private int checkLimit(final int limit, final int defaultValue) {
+        if (limit == 0 || limit < -1) {
+            return defaultValue;
+        }
+        return limit;
+    }
+}
@@ -0,0 +1,63 @@
+package org.apache.catalina.session;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.HexFormat;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Generates session ids from cryptographically strong random bytes.
+ * <p>
+ * A {@link SecureRandom} serializes the threads sharing it, so the generator
+ * keeps a lock-free pool of them: a thread takes one, uses it and puts it
+ * back, and only creates a new one when the pool is empty. The pool therefore
+ * grows to the number of threads that generate ids at the same time.
+ */
+public class SessionIdGenerator {
+
+    private static final int DEFAULT_SESSION_ID_LENGTH = 16;
+    private static final String SECURE_RANDOM_ALGORITHM = "DRBG";
+
+    private final Queue<SecureRandom> randoms;
+    private final int sessionIdLength;
+
+    public SessionIdGenerator() {
+        this(DEFAULT_SESSION_ID_LENGTH);
+    }
+
+    /**
+     * @param sessionIdLength number of random bytes in a session id
+     */
+    public SessionIdGenerator(final int sessionIdLength) {
+        this.randoms = new ConcurrentLinkedQueue<>();
+        this.sessionIdLength = sessionIdLength;
+    }
+
+    /**
+     * @return new session id of <code>2 * sessionIdLength</code> upper case
+     *         hex digits
+     */
+    public String generateSessionId() {
+        final byte[] bytes = new byte[sessionIdLength];
+        SecureRandom random = randoms.poll();
+        if (random == null) {
+            random = createSecureRandom();
+        }
+        try {
+            random.nextBytes(bytes);
+        } finally {
+            randoms.offer(random);
+        }
+        return HexFormat.of().withUpperCase().formatHex(bytes);
+    }
+
+    private SecureRandom createSecureRandom() {
+        // 기본 NativePRNG 는 모든 인스턴스가 하나의 전역 잠금을 공유하므로 인스턴스마다 잠금을 갖는 DRBG 를 쓴다.
+        try {
+            return SecureRandom.getInstance(SECURE_RANDOM_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            return new SecureRandom();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package org.apache.catalina.session;
+
+import jakarta.servlet.http.HttpSession;
+import org.apache.catalina.Manager;
+import org.apache.tomcat.util.threads.TaskThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory {@link Manager} that can be used concurrently by every request
+ * thread without a global lock.
+ * <p>
+ * Idle sessions are expired with a {@link TimingWheel} instead of scanning
+ * every session periodically. Accessing a session only records the time; a
+ * session is scheduled once for its expiry time, and when it comes due after
+ * having been accessed in the meantime it is simply scheduled again for its
+ * new expiry time. Sessions are handed to the expiring thread through a
+ * lock-free queue, so the wheel itself is touched by that thread only.
+ */
+public class StandardManager implements Manager {
+
+    private static final Logger log = LoggerFactory.getLogger(StandardManager.class);
+
+    static final int DEFAULT_MAX_INACTIVE_INTERVAL = 30 * 60;
+    static final long DEFAULT_TICK_MILLIS = 1000;
+    private static final long STOP_TIMEOUT_MILLIS = 10_000;
+
+    protected final Map<String, StandardSession> sessions;
+    private final Queue<StandardSession> scheduleQueue;
+    private final TimingWheel<StandardSession> timingWheel;
+    private final SessionIdGenerator sessionIdGenerator;
+    private final int maxInactiveInterval;
+    private final long tickMillis;
+    private ScheduledExecutorService expirer;
+
+    public StandardManager() {
+        this(DEFAULT_MAX_INACTIVE_INTERVAL, DEFAULT_TICK_MILLIS);
+    }
+
+    /**
+     * @param maxInactiveInterval default number of seconds a session may stay
+     *                            unused before it expires
+     * @param tickMillis          resolution of the expiry in milliseconds
+     */
+    public StandardManager(final int maxInactiveInterval, final long tickMillis) {
+        this.sessions = new ConcurrentHashMap<>();
+        this.scheduleQueue = new ConcurrentLinkedQueue<>();
+        this.timingWheel = new TimingWheel<>(tickMillis, System.currentTimeMillis());
+        this.sessionIdGenerator = new SessionIdGenerator();
+        this.maxInactiveInterval = maxInactiveInterval;
+        this.tickMillis = tickMillis;
+    }
+
+    /**
+     * Starts the background thread that expires idle sessions.
+     */
+    public synchronized void start() {
+        if (expirer != null) {
+            return;
+        }
+        expirer = Executors.newSingleThreadScheduledExecutor(new TaskThreadFactory("session-expirer-", true));
+        expirer.scheduleWithFixedDelay(this::backgroundProcess, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (expirer == null) {
+            return;
+        }
+        // 저장소에 쓰는 중에 인터럽트되면 FileChannel 이 닫히므로 shutdownNow 대신 끝나기를 기다린다.
+        expirer.shutdown();
+        try {
+            if (!expirer.awaitTermination(STOP_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                log.atWarn().log("Session expirer did not stop within {} ms", STOP_TIMEOUT_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        expirer = null;
+    }
+
+    @Override
+    public StandardSession createSession() {
+        while (true) {
+            final var session = new StandardSession(this, sessionIdGenerator.generateSessionId(),
+                    maxInactiveInterval);
+            // 128 비트 난수가 겹칠 일은 없지만 겹치면 다른 id 로 다시 만든다.
+            if (sessions.putIfAbsent(session.getId(), session) == null) {
+                schedule(session);
+                return session;
+            }
+        }
+    }
+
+    @Override
+    public void add(final HttpSession session) {
+        final StandardSession standardSession = (StandardSession) session;
+        sessions.put(session.getId(), standardSession);
+        schedule(standardSession);
+    }
+
+    /**
+     * @return the session, or <code>null</code> if there is none or it has
+     *         expired even though the expiring thread has not removed it yet
+     */
+    @Override
+    public StandardSession findSession(final String id) {
+        if (id == null) {
+            return null;
+        }
+        final StandardSession session = sessions.get(id);
+        if (session == null) {
+            return null;
+        }
+        if (session.getExpiryTime() <= System.currentTimeMillis()) {
+            expire(session);
+            return null;
+        }
+        return session;
+    }
+
+    @Override
+    public void remove(final HttpSession session) {
+        sessions.remove(session.getId(), session);
+    }
+
+    public int getActiveSessions() {
+        return sessions.size();
+    }
+
+    /**
+     * Expires the sessions that have been idle for longer than their maximum
+     * inactive interval. Called periodically by the background thread.
+     */
+    public void backgroundProcess() {
+        try {
+            processExpires(System.currentTimeMillis());
+        } catch (RuntimeException e) {
+            // 예외로 스케줄이 멈추지 않도록 기록만 한다.
+            log.atError().log("Failed to expire sessions", e);
+        }
+    }
+
+    void processExpires(final long now) {
+        StandardSession session;
+        while ((session = scheduleQueue.poll()) != null) {
+            timingWheel.schedule(session, session.getExpiryTime());
+        }
+        timingWheel.advance(now, due -> {
+            // 무효화되었거나 더 이상 메모리에 없는 세션은 예약만 남아 있는 것이다.
+            if (!due.isValid() || sessions.get(due.getId()) != due) {
+                return;
+            }
+            final long expiryTime = due.getExpiryTime();
+            if (expiryTime <= now) {
+                expire(due);
+                return;
+            }
+            // 예약한 뒤에 다시 사용된 세션이므로 새 만료 시각에 다시 예약한다.
+            timingWheel.schedule(due, expiryTime);
+        });
+    }
+
+    protected void schedule(final StandardSession session) {
+        if (session.getExpiryTime() != Long.MAX_VALUE) {
+            scheduleQueue.offer(session);
+        }
+    }
+
+    protected void expire(final StandardSession session) {
+        if (sessions.remove(session.getId(), session)) {
+            session.expire();
+            log.atDebug().log("session {} expired", session.getId());
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package org.apache.catalina.session;
+
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.http.HttpSession;
+import jakarta.servlet.http.HttpSessionContext;
+import org.apache.catalina.Manager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Standard implementation of {@link HttpSession}. Attributes may be read and
+ * written by concurrent requests of the same client.
+ */
+public class StandardSession implements HttpSession {
+
+    private static final Logger log = LoggerFactory.getLogger(StandardSession.class);
+
+    private final Manager manager;
+    private final String id;
+    private final long creationTime;
+    private final Map<String, Object> attributes;
+    private volatile long lastAccessedTime;
+    private volatile int maxInactiveInterval;
+    private volatile boolean isNew;
+    private volatile boolean valid;
+
+    /**
+     * @param maxInactiveInterval seconds the session may stay unused before it
+     *                            expires; zero or less means never
+     */
+    public StandardSession(final Manager manager, final String id, final int maxInactiveInterval) {
+        this(manager, id, System.currentTimeMillis(), maxInactiveInterval, true);
+    }
+
+    private StandardSession(final Manager manager, final String id, final long creationTime,
+                            final int maxInactiveInterval, final boolean isNew) {
+        this.manager = manager;
+        this.id = id;
+        this.creationTime = creationTime;
+        this.attributes = new ConcurrentHashMap<>();
+        this.lastAccessedTime = creationTime;
+        this.maxInactiveInterval = maxInactiveInterval;
+        this.isNew = isNew;
+        this.valid = true;
+    }
+
+    /**
+     * Reads a session written by {@link #writeObjectData(ObjectOutputStream)}.
+     */
+    static StandardSession readObjectData(final Manager manager, final ObjectInputStream stream)
+            throws IOException, ClassNotFoundException {
+        final String id = stream.readUTF();
+        final long creationTime = stream.readLong();
+        final long lastAccessedTime = stream.readLong();
+        final int maxInactiveInterval = stream.readInt();
+        final boolean isNew = stream.readBoolean();
+        final var session = new StandardSession(manager, id, creationTime, maxInactiveInterval, isNew);
+        session.lastAccessedTime = lastAccessedTime;
+        final int attributeCount = stream.readInt();
+        for (int i = 0; i < attributeCount; i++) {
+            final String name = stream.readUTF();
+            session.attributes.put(name, stream.readObject());
+        }
+        return session;
+    }
+
+    /**
+     * Writes the state of the session so that it can be restored later, for
+     * example after a restart. Attributes whose values are not
+     * {@link Serializable} are left out.
+     */
+    void writeObjectData(final ObjectOutputStream stream) throws IOException {
+        stream.writeUTF(id);
+        stream.writeLong(creationTime);
+        stream.writeLong(lastAccessedTime);
+        stream.writeInt(maxInactiveInterval);
+        stream.writeBoolean(isNew);
+        final List<Map.Entry<String, Object>> serializable = new ArrayList<>();
+        for (final var attribute : attributes.entrySet()) {
+            if (attribute.getValue() instanceof Serializable) {
+                serializable.add(attribute);
+            } else {
+                log.atDebug().log("Not persisting non-serializable attribute {} of session {}",
+                        attribute.getKey(), id);
+            }
+        }
+        stream.writeInt(serializable.size());
+        for (final var attribute : serializable) {
+            stream.writeUTF(attribute.getKey());
+            stream.writeObject(attribute.getValue());
+        }
+    }
+
+    /**
+     * Records that a request of the client used this session.
+     */
+    public void access() {
+        lastAccessedTime = System.currentTimeMillis();
+        isNew = false;
+    }
+
+    public boolean isValid() {
+        return valid;
+    }
+
+    /**
+     * @return the last time the session was accessed, even if it is no
+     *         longer valid
+     */
+    long getLastAccessedTimeInternal() {
+        return lastAccessedTime;
+    }
+
+    /**
+     * @return time in milliseconds at which the session expires unless it is
+     *         accessed again, or {@link Long#MAX_VALUE} if it never expires
+     */
+    long getExpiryTime() {
+        final int interval = maxInactiveInterval;
+        if (interval <= 0) {
+            return Long.MAX_VALUE;
+        }
+        return lastAccessedTime + interval * 1000L;
+    }
+
+    /**
+     * Invalidates the session without removing it from the manager, which
+     * already did so.
+     */
+    void expire() {
+        valid = false;
+        attributes.clear();
+    }
+
+    @Override
+    public long getCreationTime() {
+        checkValid();
+        return creationTime;
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public long getLastAccessedTime() {
+        checkValid();
+        return lastAccessedTime;
+    }
+
+    @Override
+    public ServletContext getServletContext() {
+        return null;
+    }
+
+    @Override
+    public void setMaxInactiveInterval(final int interval) {
+        this.maxInactiveInterval = interval;
+    }
+
+    @Override
+    public int getMaxInactiveInterval() {
+        return maxInactiveInterval;
+    }
+
+    @Override
+    @Deprecated
+    public HttpSessionContext getSessionContext() {
+        return null;
+    }
+
+    @Override
+    public Object getAttribute(final String name) {
+        checkValid();
+        if (name == null) {
+            return null;
+        }
+        return attributes.get(name);
+    }
+
+    @Override
+    @Deprecated
+    public Object getValue(final String name) {
+        return getAttribute(name);
+    }
+
+    @Override
+    public Enumeration<String> getAttributeNames() {
+        checkValid();
+        return Collections.enumeration(attributes.keySet());
+    }
+
+    @Override
+    @Deprecated
+    public String[] getValueNames() {
+        checkValid();
+        return attributes.keySet().toArray(new String[0]);
+    }
+
+    @Override
+    public void setAttribute(final String name, final Object value) {
+        checkValid();
+        if (name == null) {
+            throw new IllegalArgumentException("Attribute name must not be null");
+        }
+        // null 값을 저장하는 것은 속성을 지우는 것과 같다. (Servlet 명세)
+        if (value == null) {
+            attributes.remove(name);
+            return;
+        }
+        attributes.put(name, value);
+    }
+
+    @Override
+    @Deprecated
+    public void putValue(final String name, final Object value) {
+        setAttribute(name, value);
+    }
+
+    @Override
+    public void removeAttribute(final String name) {
+        checkValid();
+        if (name != null) {
+            attributes.remove(name);
+        }
+    }
+
+    @Override
+    @Deprecated
+    public void removeValue(final String name) {
+        removeAttribute(name);
+    }
+
+    @Override
+    public void invalidate() {
+        checkValid();
+        manager.remove(this);
+        expire();
+    }
+
+    @Override
+    public boolean isNew() {
+        checkValid();
+        return isNew;
+    }
+
+    private void checkValid() {
+        if (!valid) {
+            throw new IllegalStateException("Session " + id + " has already been invalidated");
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package org.apache.catalina.session;
+
+import java.util.ArrayDeque;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel (Varghese and Lauck) that schedules elements by
+ * deadline in O(1) and finds the due ones without scanning the others.
+ * <p>
+ * Every level has the same number of slots. A slot of level <i>n</i> spans
+ * <code>wheelSize^n</code> ticks; when the lower level completes a turn, the
+ * next slot of the level above is cascaded down. Deadlines beyond the top
+ * level are parked in its farthest slot and scheduled again when it fires.
+ * <p>
+ * Not thread safe; it is driven by a single thread.
+ *
+ * @param <E> type of the scheduled elements
+ */
+class TimingWheel<E> {
+
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 3;
+    private static final long MAX_TICKS = (1L << (WHEEL_BITS * LEVELS)) - 1;
+
+    private final long tickMillis;
+    private final long startTime;
+    private final ArrayDeque<Entry<E>>[][] slots;
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    TimingWheel(final long tickMillis, final long startTime) {
+        this.tickMillis = tickMillis;
+        this.startTime = startTime;
+        this.slots = new ArrayDeque[LEVELS][WHEEL_SIZE];
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < WHEEL_SIZE; slot++) {
+                slots[level][slot] = new ArrayDeque<>();
+            }
+        }
+        this.currentTick = 0;
+        this.size = 0;
+    }
+
+    /**
+     * @param deadline time in milliseconds at or after which the element is
+     *                 due. It fires at the first tick not before it.
+     */
+    void schedule(final E element, final long deadline) {
+        // 이번 틱의 칸은 이미 처리했으므로 적어도 다음 틱에 배치한다.
+        add(new Entry<>(element, deadline), 1);
+        size++;
+    }
+
+    /**
+     * Advances the wheel to the given time and passes every element whose
+     * deadline has been reached to the consumer.
+     */
+    void advance(final long now, final Consumer<E> expired) {
+        final long targetTick = (now - startTime) / tickMillis;
+        while (currentTick < targetTick) {
+            currentTick++;
+            cascade();
+            final ArrayDeque<Entry<E>> due = slots[0][(int) (currentTick & WHEEL_MASK)];
+            Entry<E> entry;
+            while ((entry = due.poll()) != null) {
+                if (entry.deadline <= now) {
+                    size--;
+                    expired.accept(entry.element);
+                } else {
+                    // 최상위 단계보다 먼 마감 시각은 아직 남아 있으므로 다시 넣는다.
+                    add(entry, 1);
+                }
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void add(final Entry<E> entry, final long minTicks) {
+        final long deadlineTick = Math.ceilDiv(entry.deadline - startTime, tickMillis);
+        final long ticks = Math.min(Math.max(deadlineTick - currentTick, minTicks), MAX_TICKS);
+        final long expiryTick = currentTick + ticks;
+        int level = 0;
+        while (level < LEVELS - 1 && ticks >= 1L << (WHEEL_BITS * (level + 1))) {
+            level++;
+        }
+        final int slot = (int) ((expiryTick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+        slots[level][slot].add(entry);
+    }
+
+    /**
+     * 아래 단계가 한 바퀴를 돌 때마다 위 단계의 다음 칸을 풀어 아래 단계에 다시 배치한다.
+     * 높은 단계부터 풀어야 내려온 항목이 같은 틱에 한 번 더 내려갈 수 있다.
+     */
+    private void cascade() {
+        for (int level = LEVELS - 1; level > 0; level--) {
+            final long levelMask = (1L << (WHEEL_BITS * level)) - 1;
+            if ((currentTick & levelMask) != 0) {
+                continue;
+            }
+            final ArrayDeque<Entry<E>> slot = slots[level][(int) ((currentTick >>> (WHEEL_BITS * level)) & WHEEL_MASK)];
+            Entry<E> entry;
+            while ((entry = slot.poll()) != null) {
+                // 이번 틱이 마감인 항목은 바로 뒤에 처리할 0 단계의 현재 칸으로 내려간다.
+                add(entry, 0);
+            }
+        }
+    }
+
+    private static final class Entry<E> {
+
+        private final E element;
+        private final long deadline;
+
+        private Entry(final E element, final long deadline) {
+            this.element = element;
+            this.deadline = deadline;
+        }
+    }
+}
@@ -1,18 +1,30 @@
 package org.apache.catalina.startup;
 
 import org.apache.catalina.connector.Connector;
+import org.apache.catalina.session.PersistentManager;
+import org.apache.catalina.valves.AsyncFileAccessLog;
+import org.apache.coyote.http11.Http11Protocol;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.nio.file.Path;
 
 public class Tomcat {
 
     private static final Logger log = LoggerFactory.getLogger(Tomcat.class);
+    private static final Path SESSION_DIRECTORY = Path.of("work", "sessions");
+    private static final Path ACCESS_LOG_DIRECTORY = Path.of("logs");
 
     public void start() {
-        var connector = new Connector();
+        // 재시작해도 로그인이 풀리지 않도록 세션을 디스크에 저장하는 매니저를 사용한다.
+        var protocol = new Http11Protocol();
+        protocol.setSessionManager(new PersistentManager(SESSION_DIRECTORY));
+        protocol.setAccessLog(new AsyncFileAccessLog(ACCESS_LOG_DIRECTORY));
+        var connector = new Connector(protocol);
         connector.start();
+        // SIGTERM 이나 Ctrl-C 로 끝나도 세션을 저장하고 접근 로그를 비우도록 커넥터를 멈춘다.
+        Runtime.getRuntime().addShutdownHook(new Thread(connector::stop, "shutdown-hook"));
 
         try {
             // make the application wait until we press any key.
@@ -0,0 +1,27 @@
+package org.apache.catalina.valves;
+
+/**
+ * Slot of an {@link AccessLogRingBuffer}. The fields are copied from the
+ * request and response on the request thread, because both are recycled as
+ * soon as the response has been written.
+ */
+class AccessLogEntry {
+
+    String remoteAddr;
+    long timestamp;
+    String method;
+    String requestURI;
+    String queryString;
+    String protocol;
+    int status;
+    long bytesWritten;
+    long time;
+
+    void clear() {
+        remoteAddr = null;
+        method = null;
+        requestURI = null;
+        queryString = null;
+        protocol = null;
+    }
+}
@@ -0,0 +1,93 @@
+package org.apache.catalina.valves;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded multi-producer, single-consumer queue of preallocated
+ * {@link AccessLogEntry} slots.
+ * <p>
+ * A producer claims a sequence number with a compare-and-set, fills the slot
+ * of that sequence and publishes it. The consumer reads slots in sequence
+ * order up to the first one that is not published yet, then hands the slots
+ * back by advancing its own sequence. No thread ever waits for another: when
+ * every slot is in use {@link #claim()} fails and the caller drops its record.
+ */
+class AccessLogRingBuffer {
+
+    private final AccessLogEntry[] entries;
+    private final int mask;
+    // 슬롯마다 마지막으로 발행된 시퀀스. 생산자가 쓰기를 마쳤는지 소비자가 이것으로 안다.
+    private final AtomicLongArray published;
+    private final AtomicLong claimed;
+    private volatile long consumed;
+
+    /**
+     * @param capacity number of slots, rounded up to a power of two
+     */
+    AccessLogRingBuffer(final int capacity) {
+        final int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.entries = new AccessLogEntry[size];
+        for (int i = 0; i < size; i++) {
+            entries[i] = new AccessLogEntry();
+        }
+        this.mask = size - 1;
+        this.published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            published.set(i, -1L);
+        }
+        this.claimed = new AtomicLong();
+        this.consumed = 0L;
+    }
+
+    /**
+     * @return the claimed sequence, or <code>-1</code> if every slot is in use
+     */
+    long claim() {
+        while (true) {
+            final long sequence = claimed.get();
+            if (sequence - consumed >= entries.length) {
+                return -1L;
+            }
+            if (claimed.compareAndSet(sequence, sequence + 1)) {
+                return sequence;
+            }
+        }
+    }
+
+    AccessLogEntry get(final long sequence) {
+        return entries[(int) sequence & mask];
+    }
+
+    /**
+     * Makes the slot of a claimed sequence visible to the consumer.
+     */
+    void publish(final long sequence) {
+        published.set((int) sequence & mask, sequence);
+    }
+
+    /**
+     * Passes the published entries, in order, to <code>consumer</code>. Only
+     * one thread may drain the buffer. The entries must not be used after the
+     * consumer returns.
+     *
+     * @return number of entries consumed
+     */
+    int drain(final Consumer<AccessLogEntry> consumer, final int maxEntries) {
+        long next = consumed;
+        int drained = 0;
+        while (drained < maxEntries && published.get((int) next & mask) == next) {
+            consumer.accept(entries[(int) next & mask]);
+            next++;
+            drained++;
+        }
+        // 처리를 마친 뒤에 소비 위치를 옮겨야 생산자가 슬롯을 다시 쓴다.
+        consumed = next;
+        return drained;
+    }
+
+    int capacity() {
+        return entries.length;
+    }
+}
@@ -0,0 +1,337 @@
+package org.apache.catalina.valves;
+
+import org.apache.catalina.AccessLog;
+import org.apache.coyote.Request;
+import org.apache.coyote.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * {@link AccessLog} that writes one line per request to a file that rolls
+ * over every day, named <code>access_log.yyyy-MM-dd.txt</code>.
+ * <p>
+ * Request threads only copy a few fields into a slot of a lock-free
+ * {@link AccessLogRingBuffer}; a background thread formats the records and
+ * writes them in batches. If the writer falls so far behind that every slot
+ * is taken, new records are dropped and counted instead of making the request
+ * thread wait. A record that cannot be formatted or written is counted as
+ * failed and the writer moves on to the next one.
+ * <p>
+ * Lines use the common log format followed by the processing time in
+ * milliseconds. The byte count includes the response head. The request path
+ * is logged as it was received, without decoding <code>%xx</code> escapes,
+ * and quotes, backslashes, control characters and non-ASCII bytes in the
+ * request line are escaped, so a request cannot forge a line or a field.
+ * A request rejected before its head could be parsed is logged with
+ * <code>"-"</code> as its request line:
+ * <pre>
+ * 127.0.0.1 - - [17/Oct/2026:10:15:32 +0900] "GET /index.html HTTP/1.1" 200 5120 3
+ * </pre>
+ */
+public class AsyncFileAccessLog implements AccessLog {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncFileAccessLog.class);
+
+    private static final String PREFIX = "access_log.";
+    private static final String SUFFIX = ".txt";
+    private static final int DEFAULT_CAPACITY = 8 * 1024;
+    private static final int BATCH_SIZE = 512;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter
+            .ofPattern("dd/MMM/yyyy:HH:mm:ss Z", Locale.US);
+
+    private final Path directory;
+    private final ZoneId zone;
+    private final AccessLogRingBuffer ringBuffer;
+    private final LongAdder droppedCount;
+    private final Consumer<AccessLogEntry> appender;
+    private volatile long writtenCount;
+    private volatile long failedCount;
+    private volatile boolean running;
+    private Thread writer;
+
+    // 아래는 writer 스레드만 사용한다.
+    private final StringBuilder lines;
+    private int pendingCount;
+    private FileChannel channel;
+    private LocalDate fileDate;
+    private long nextRollover;
+    private long timestampSecond;
+    private String timestamp;
+
+    public AsyncFileAccessLog(final Path directory) {
+        this(directory, DEFAULT_CAPACITY, ZoneId.systemDefault());
+    }
+
+    /**
+     * @param capacity number of records that can wait for the writer, rounded
+     *                 up to a power of two
+     * @param zone     time zone of the timestamps and of the daily rollover
+     */
+    public AsyncFileAccessLog(final Path directory, final int capacity, final ZoneId zone) {
+        this.directory = directory;
+        this.zone = zone;
+        this.ringBuffer = new AccessLogRingBuffer(capacity < 1 ? DEFAULT_CAPACITY : capacity);
+        this.droppedCount = new LongAdder();
+        this.appender = this::append;
+        this.lines = new StringBuilder();
+        this.timestampSecond = Long.MIN_VALUE;
+    }
+
+    @Override
+    public void log(final Request request, final Response response, final long time) {
+        final long sequence = ringBuffer.claim();
+        if (sequence < 0) {
+            droppedCount.increment();
+            return;
+        }
+        final AccessLogEntry entry = ringBuffer.get(sequence);
+        entry.remoteAddr = request.getRemoteAddr();
+        entry.timestamp = System.currentTimeMillis();
+        if (request.hasRequestLine()) {
+            entry.method = request.getMethod();
+            entry.requestURI = request.getRawRequestURI();
+            entry.queryString = request.getQueryString();
+            entry.protocol = request.getProtocol();
+        }
+        entry.status = response.getStatus().getCode();
+        entry.bytesWritten = response.getBytesWritten();
+        entry.time = time;
+        ringBuffer.publish(sequence);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        writer = Thread.ofPlatform()
+                .name("access-log-writer")
+                .daemon(true)
+                .start(this::run);
+    }
+
+    /**
+     * Stops the writer after it has written every record logged so far.
+     */
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer = null;
+    }
+
+    /**
+     * @return number of records dropped because the writer fell behind
+     */
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    /**
+     * @return number of records written to the file
+     */
+    public long getWrittenCount() {
+        return writtenCount;
+    }
+
+    /**
+     * @return number of records lost because they could not be formatted or
+     *         the file could not be opened or written
+     */
+    public long getFailedCount() {
+        return failedCount;
+    }
+
+    /**
+     * @return the file that records of <code>date</code> are written to
+     */
+    public Path getFile(final LocalDate date) {
+        return directory.resolve(PREFIX + date + SUFFIX);
+    }
+
+    private void run() {
+        while (running) {
+            if (drain() == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        // 멈추기 전에 남은 기록을 모두 쓴다.
+        while (drain() > 0) {
+            // 비울 때까지 반복한다.
+        }
+        closeFile();
+        nextRollover = 0L;
+    }
+
+    private int drain() {
+        final int drained = ringBuffer.drain(appender, BATCH_SIZE);
+        if (drained > 0) {
+            writeLines();
+        }
+        return drained;
+    }
+
+    private void append(final AccessLogEntry entry) {
+        int lineStart = lines.length();
+        try {
+            if (entry.timestamp >= nextRollover) {
+                writeLines();
+                rollover(entry.timestamp);
+                lineStart = lines.length();
+            }
+            appendLine(entry);
+            pendingCount++;
+        } catch (RuntimeException e) {
+            // writer 가 멈추면 버퍼가 차서 이후 기록이 모두 버려지므로 이 기록만 버리고 계속한다.
+            lines.setLength(Math.min(lineStart, lines.length()));
+            failedCount++;
+            log.atError().log("Failed to format access log record", e);
+        } finally {
+            entry.clear();
+        }
+    }
+
+    private void appendLine(final AccessLogEntry entry) {
+        lines.append(entry.remoteAddr == null ? "-" : entry.remoteAddr)
+                .append(" - - [")
+                .append(formatTimestamp(entry.timestamp))
+                .append("] \"");
+        appendRequestLine(entry);
+        lines.append("\" ")
+                .append(entry.status)
+                .append(' ');
+        if (entry.bytesWritten > 0) {
+            lines.append(entry.bytesWritten);
+        } else {
+            lines.append('-');
+        }
+        lines.append(' ')
+                .append(TimeUnit.NANOSECONDS.toMillis(entry.time))
+                .append('\n');
+    }
+
+    private void appendRequestLine(final AccessLogEntry entry) {
+        if (entry.method == null) {
+            // 헤드를 해석하기 전에 거절한 요청은 요청 줄을 알 수 없다.
+            lines.append('-');
+            return;
+        }
+        appendEscaped(entry.method);
+        lines.append(' ');
+        appendEscaped(entry.requestURI);
+        if (entry.queryString != null) {
+            lines.append('?');
+            appendEscaped(entry.queryString);
+        }
+        lines.append(' ');
+        appendEscaped(entry.protocol);
+    }
+
+    /**
+     * 요청 줄은 클라이언트가 보낸 그대로이므로 따옴표로 필드를 끊거나 줄을 위조하지 못하도록
+     * Apache httpd 처럼 <code>\"</code>, <code>\\</code>, <code>\xhh</code> 로 바꿔 쓴다.
+     */
+    private void appendEscaped(final String value) {
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                lines.append('\\').append(c);
+            } else if (c < 0x20 || c >= 0x7f) {
+                lines.append("\\x").append(HEX_DIGITS[(c >> 4) & 0xf]).append(HEX_DIGITS[c & 0xf]);
+            } else {
+                lines.append(c);
+            }
+        }
+    }
+
+    private String formatTimestamp(final long millis) {
+        final long second = millis / 1000;
+        if (second != timestampSecond) {
+            timestampSecond = second;
+            timestamp = TIMESTAMP_FORMAT.format(Instant.ofEpochSecond(second).atZone(zone));
+        }
+        return timestamp;
+    }
+
+    private void rollover(final long millis) {
+        final LocalDate date = Instant.ofEpochMilli(millis).atZone(zone).toLocalDate();
+        nextRollover = date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+        if (date.equals(fileDate) && channel != null) {
+            return;
+        }
+        closeFile();
+        try {
+            Files.createDirectories(directory);
+            channel = FileChannel.open(getFile(date), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+            fileDate = date;
+        } catch (IOException e) {
+            // 다음 기록에서 다시 열어 본다.
+            nextRollover = 0L;
+            log.atError().log("Failed to open access log {}", getFile(date), e);
+        }
+    }
+
+    private void writeLines() {
+        if (lines.isEmpty()) {
+            return;
+        }
+        final ByteBuffer bytes = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+        final int count = pendingCount;
+        lines.setLength(0);
+        pendingCount = 0;
+        if (channel == null) {
+            failedCount += count;
+            return;
+        }
+        try {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            writtenCount += count;
+        } catch (IOException e) {
+            failedCount += count;
+            log.atError().log("Failed to write access log", e);
+        }
+    }
+
+    private void closeFile() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.atWarn().log("Failed to close access log", e);
+        }
+        channel = null;
+    }
+}
@@ -0,0 +1,180 @@
+package org.apache.catalina.webresources;
+
+import org.apache.tomcat.util.http.FastHttpDateFormat;
+
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Static resource held by {@link StaticResourceCache}. Everything a response
+ * needs is computed once when the resource is loaded.
+ * <p>
+ * Small resources keep their content in memory. Large resources only keep
+ * their metadata and are sent from the file, see {@link #isFileBacked()}.
+ */
+public class CachedResource {
+
+    private static final int VERSION_LENGTH = 16;
+
+    private final String path;
+    private final byte[] content;
+    private final Path file;
+    private final long contentLength;
+    private final String contentType;
+    private final String eTag;
+    private final String version;
+    private final long lastModified;
+    private final String lastModifiedHttpDate;
+    private final Map<ContentEncoding, byte[]> encodedContents;
+    private final Map<ContentEncoding, String> encodedETags;
+
+    public CachedResource(final String path, final byte[] content, final String contentType, final String eTag,
+                          final long lastModified) {
+        this(path, content, null, content.length, contentType, eTag, lastModified);
+    }
+
+    public CachedResource(final String path, final Path file, final long contentLength, final String contentType,
+                          final String eTag, final long lastModified) {
+        this(path, null, file, contentLength, contentType, eTag, lastModified);
+    }
+
+    private CachedResource(final String path, final byte[] content, final Path file, final long contentLength,
+                           final String contentType, final String eTag, final long lastModified) {
+        this.path = path;
+        this.content = content;
+        this.file = file;
+        this.contentLength = contentLength;
+        this.contentType = contentType;
+        this.eTag = eTag;
+        // ETag 은 내용의 해시이므로 따옴표를 벗겨 URL 에 넣을 버전으로 쓴다.
+        this.version = eTag.length() > 2 ? eTag.substring(1, Math.min(eTag.length() - 1, VERSION_LENGTH + 1)) : "";
+        // HTTP 날짜는 초 단위까지만 표현하므로 비교할 때 어긋나지 않도록 미리 잘라 둔다.
+        this.lastModified = lastModified - lastModified % 1000;
+        this.lastModifiedHttpDate = FastHttpDateFormat.formatDate(this.lastModified);
+        this.encodedContents = new EnumMap<>(ContentEncoding.class);
+        this.encodedETags = new EnumMap<>(ContentEncoding.class);
+    }
+
+    /**
+     * 캐시에 올리기 전에만 호출한다. 이후에는 읽기만 하므로 잠금 없이 공유된다.
+     */
+    void addEncodedContent(final ContentEncoding encoding, final byte[] encodedContent) {
+        encodedContents.put(encoding, encodedContent);
+        addEncoding(encoding);
+    }
+
+    /**
+     * 미리 압축해 두지 않고 보낼 때마다 압축하는 표현을 등록한다.
+     */
+    void addEncoding(final ContentEncoding encoding) {
+        // 표현마다 바이트가 다르므로 강한 ETag 도 달라야 한다.
+        encodedETags.put(encoding, eTag.substring(0, eTag.length() - 1) + "-" + encoding.getToken() + "\"");
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * @return the resource bytes, or <code>null</code> for a file backed
+     *         resource. Shared by every request, so callers must not modify
+     *         the array.
+     */
+    public byte[] getContent() {
+        return content;
+    }
+
+    /**
+     * @return whether the content is not held in memory and has to be sent
+     *         from {@link #getFile()}
+     */
+    public boolean isFileBacked() {
+        return content == null;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    /**
+     * @return strong entity tag derived from the content, including the quotes
+     */
+    public String getETag() {
+        return eTag;
+    }
+
+    /**
+     * @return whether the resource can be sent in at least one
+     *         {@link ContentEncoding}
+     */
+    public boolean isCompressible() {
+        return !encodedETags.isEmpty();
+    }
+
+    public boolean supportsEncoding(final ContentEncoding encoding) {
+        return encodedETags.containsKey(encoding);
+    }
+
+    /**
+     * @return the content in the given coding, or <code>null</code> if it is
+     *         not stored in that coding. File backed resources are encoded
+     *         while they are sent.
+     */
+    public byte[] getContent(final ContentEncoding encoding) {
+        return encodedContents.get(encoding);
+    }
+
+    /**
+     * @return entity tag of the content in the given coding
+     */
+    public String getETag(final ContentEncoding encoding) {
+        return encodedETags.getOrDefault(encoding, eTag);
+    }
+
+    /**
+     * @return short content hash used in versioned URLs, see
+     *         {@link StaticResourceCache#getVersionedPath(String)}
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * @return modification time of the file in epoch milliseconds, truncated to
+     *         whole seconds
+     */
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * @return {@link #getLastModified()} formatted for the
+     *         <code>Last-Modified</code> header
+     */
+    public String getLastModifiedHttpDate() {
+        return lastModifiedHttpDate;
+    }
+
+    /**
+     * @return number of content bytes this entry occupies in the cache
+     */
+    long getWeight() {
+        if (content == null) {
+            return 0;
+        }
+        long weight = content.length;
+        for (byte[] encodedContent : encodedContents.values()) {
+            weight += encodedContent.length;
+        }
+        return weight;
+    }
+}
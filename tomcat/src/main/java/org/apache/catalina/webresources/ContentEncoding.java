@@ -0,0 +1,55 @@
+package org.apache.catalina.webresources;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Content codings a {@link CachedResource} can be stored in besides the
+ * identity coding.
+ */
+public enum ContentEncoding {
+
+    GZIP("gzip"),
+    DEFLATE("deflate"),
+    ;
+
+    private final String token;
+
+    ContentEncoding(final String token) {
+        this.token = token;
+    }
+
+    /**
+     * @return value of the <code>Content-Encoding</code> header
+     */
+    public String getToken() {
+        return token;
+    }
+
+    byte[] encode(final byte[] content) {
+        final var encoded = new ByteArrayOutputStream(content.length / 2);
+        try (final OutputStream outputStream = newOutputStream(encoded)) {
+            outputStream.write(content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return encoded.toByteArray();
+    }
+
+    /**
+     * @return stream that encodes everything written to it into the given
+     *         stream. Closing it finishes the encoding and closes the given
+     *         stream as well.
+     */
+    public OutputStream newOutputStream(final OutputStream outputStream) throws IOException {
+        if (this == GZIP) {
+            return new GZIPOutputStream(outputStream);
+        }
+        // HTTP 의 deflate 는 zlib 형식(RFC 1950)이며 DeflaterOutputStream 의 기본 형식과 같다.
+        return new DeflaterOutputStream(outputStream);
+    }
+}
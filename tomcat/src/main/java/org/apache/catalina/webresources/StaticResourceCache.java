@@ -0,0 +1,452 @@
+package org.apache.catalina.webresources;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory cache of the static resources served from the <code>static/</code>
+ * directory of the class path, keyed by request path.
+ * <p>
+ * The cache is bounded by the total size of the cached content and evicts the
+ * least recently used entries first. Resources from the sendfile size on are
+ * never held in memory: only their metadata is cached and the content is sent
+ * from the file. Smaller resources are cached with their content unless they
+ * exceed the object size limit, in which case they are loaded on every
+ * request. Paths that do not exist are remembered in a separate, small LRU
+ * set, so repeated 404s do not touch the file system either, and requests
+ * for random paths cannot evict cached resources.
+ * <p>
+ * Text content of at least the compression size is also kept in every
+ * {@link ContentEncoding}. File backed text is encoded while it is sent.
+ * <p>
+ * Every resource can also be requested under a versioned path such as
+ * <code>/resources/{version}/css/styles.css</code>, where the version is a
+ * hash of the content. Such a path always denotes the same bytes, so it can be
+ * cached by browsers forever. References to local assets in HTML pages are
+ * rewritten to their versioned paths when the page is loaded.
+ */
+public class StaticResourceCache {
+
+    private static final Logger log = LoggerFactory.getLogger(StaticResourceCache.class);
+
+    private static final long DEFAULT_MAX_SIZE = 10L * 1024 * 1024;
+    private static final long DEFAULT_SENDFILE_SIZE = 48L * 1024;
+    private static final int DEFAULT_COMPRESSION_MIN_SIZE = 2048;
+    private static final String DEFAULT_BASE = "static";
+    // 존재하지 않는 경로는 요청하는 쪽이 마음대로 만들 수 있으므로 개수를 따로 제한한다.
+    private static final int MAX_NOT_FOUND_ENTRIES = 1024;
+    private static final int ETAG_DIGEST_BYTES = 16;
+    private static final String VERSIONED_PREFIX = "/resources/";
+    private static final Pattern ASSET_REFERENCE = Pattern.compile("(href|src)=\"([^\"#?:]+)\"");
+
+    private static final Map<String, String> CONTENT_TYPES = Map.ofEntries(
+            Map.entry("html", "text/html;charset=utf-8"),
+            Map.entry("htm", "text/html;charset=utf-8"),
+            Map.entry("css", "text/css"),
+            Map.entry("js", "text/javascript"),
+            Map.entry("json", "application/json"),
+            Map.entry("svg", "image/svg+xml"),
+            Map.entry("png", "image/png"),
+            Map.entry("jpg", "image/jpeg"),
+            Map.entry("jpeg", "image/jpeg"),
+            Map.entry("gif", "image/gif"),
+            Map.entry("ico", "image/x-icon"),
+            Map.entry("webp", "image/webp"),
+            Map.entry("woff", "font/woff"),
+            Map.entry("woff2", "font/woff2"),
+            Map.entry("pdf", "application/pdf"),
+            Map.entry("xml", "application/xml"),
+            Map.entry("map", "application/json"),
+            Map.entry("txt", "text/plain;charset=utf-8")
+    );
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+
+    private final String base;
+    private final long maxSize;
+    private final long objectMaxSize;
+    private final long sendfileSize;
+    private final int compressionMinSize;
+    private final LinkedHashMap<String, CachedResource> entries;
+    private final LinkedHashMap<String, Boolean> notFound;
+    private final ReentrantLock lock;
+    private long size;
+
+    private final LongAdder hitCount;
+    private final LongAdder missCount;
+    private final LongAdder evictionCount;
+
+    public StaticResourceCache() {
+        this(DEFAULT_BASE, DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param base    class path directory the request paths are resolved against
+     * @param maxSize maximum total size in bytes of the cached content. A
+     *                single resource may use at most a twentieth of it.
+     */
+    public StaticResourceCache(final String base, final long maxSize) {
+        this(base, maxSize, maxSize / 20);
+    }
+
+    /**
+     * @param objectMaxSize maximum size in bytes of a single cached resource
+     */
+    public StaticResourceCache(final String base, final long maxSize, final long objectMaxSize) {
+        this(base, maxSize, objectMaxSize, DEFAULT_SENDFILE_SIZE);
+    }
+
+    /**
+     * @param sendfileSize minimum size in bytes from which a resource is sent
+     *                     straight from its file instead of being held in
+     *                     memory
+     */
+    public StaticResourceCache(final String base, final long maxSize, final long objectMaxSize,
+                               final long sendfileSize) {
+        this(base, maxSize, objectMaxSize, sendfileSize, DEFAULT_COMPRESSION_MIN_SIZE);
+    }
+
+    /**
+     * @param compressionMinSize minimum size in bytes from which text content
+     *                           is also stored compressed
+     */
+    public StaticResourceCache(final String base, final long maxSize, final long objectMaxSize,
+                               final long sendfileSize, final int compressionMinSize) {
+        this.base = base;
+        this.maxSize = maxSize;
+        this.objectMaxSize = Math.min(objectMaxSize, maxSize);
+        this.sendfileSize = sendfileSize;
+        this.compressionMinSize = compressionMinSize;
+        this.entries = new LinkedHashMap<>(64, 0.75f, true);
+        this.notFound = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Boolean> eldest) {
+                return size() > MAX_NOT_FOUND_ENTRIES;
+            }
+        };
+        this.lock = new ReentrantLock();
+        this.size = 0;
+        this.hitCount = new LongAdder();
+        this.missCount = new LongAdder();
+        this.evictionCount = new LongAdder();
+    }
+
+    /**
+     * @param path request path such as <code>/css/styles.css</code>. A path
+     *             that does not start with <code>/</code> or contains a
+     *             <code>..</code> segment is never found.
+     */
+    public Optional<CachedResource> getResource(final String path) {
+        if (!isValidPath(path)) {
+            return Optional.empty();
+        }
+        lock.lock();
+        try {
+            final CachedResource cached = entries.get(path);
+            if (cached != null || notFound.get(path) != null) {
+                hitCount.increment();
+                return Optional.ofNullable(cached);
+            }
+        } finally {
+            lock.unlock();
+        }
+        missCount.increment();
+        final CachedResource loaded = load(path);
+        if (loaded == null) {
+            putNotFound(path);
+            return Optional.empty();
+        }
+        if (loaded.isFileBacked() || loaded.getContentLength() <= objectMaxSize) {
+            put(path, loaded);
+        }
+        return Optional.of(loaded);
+    }
+
+    /**
+     * @return <code>true</code> if the path has the form
+     *         <code>/resources/{version}/...</code>
+     */
+    public static boolean isVersionedPath(final String path) {
+        return path.startsWith(VERSIONED_PREFIX);
+    }
+
+    /**
+     * Resolves a versioned path. The resource is only found while its content
+     * still matches the version in the path.
+     *
+     * @param path request path such as
+     *             <code>/resources/1a2b3c4d5e6f7a8b/css/styles.css</code>
+     */
+    public Optional<CachedResource> getVersionedResource(final String path) {
+        if (!isVersionedPath(path)) {
+            return Optional.empty();
+        }
+        final int slash = path.indexOf('/', VERSIONED_PREFIX.length());
+        if (slash < 0) {
+            return Optional.empty();
+        }
+        final String version = path.substring(VERSIONED_PREFIX.length(), slash);
+        return getResource(path.substring(slash))
+                .filter(resource -> resource.getVersion().equals(version));
+    }
+
+    /**
+     * @param path request path such as <code>/css/styles.css</code>
+     * @return versioned path of the resource, or empty if it does not exist
+     */
+    public Optional<String> getVersionedPath(final String path) {
+        return getResource(path)
+                .map(resource -> VERSIONED_PREFIX + resource.getVersion() + path);
+    }
+
+    /**
+     * 요청 경로는 디코딩된 값이므로 <code>%2e%2e</code> 도 여기서는 <code>..</code> 이다.
+     * 클래스 패스에서 base 디렉터리 밖의 파일을 읽지 않도록 상위 디렉터리로 가는 경로를 거절한다.
+     */
+    private boolean isValidPath(final String path) {
+        if (!path.startsWith("/")) {
+            return false;
+        }
+        for (final String segment : path.split("/")) {
+            if ("..".equals(segment)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void putNotFound(final String path) {
+        lock.lock();
+        try {
+            notFound.put(path, Boolean.TRUE);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void put(final String path, final CachedResource resource) {
+        final long weight = weightOf(path, resource);
+        lock.lock();
+        try {
+            final CachedResource previous = entries.put(path, resource);
+            if (previous != null) {
+                // 다른 스레드가 먼저 같은 자원을 올려 두었다.
+                size -= weightOf(path, previous);
+            }
+            size += weight;
+            evict();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void evict() {
+        final Iterator<Map.Entry<String, CachedResource>> iterator = entries.entrySet().iterator();
+        while (size > maxSize && iterator.hasNext()) {
+            final Map.Entry<String, CachedResource> eldest = iterator.next();
+            iterator.remove();
+            size -= weightOf(eldest.getKey(), eldest.getValue());
+            evictionCount.increment();
+        }
+    }
+
+    private long weightOf(final String path, final CachedResource resource) {
+        // 파일로 보내는 자원도 무한히 쌓이지 않도록 키 문자열만큼은 센다.
+        return resource.getWeight() + path.length() * 2L;
+    }
+
+    private CachedResource load(final String path) {
+        final URL resource = ClassLoader.getSystemResource(base + path);
+        if (resource == null) {
+            return null;
+        }
+        try {
+            final Path file = Path.of(resource.toURI());
+            if (!Files.isRegularFile(file)) {
+                return null;
+            }
+            final long contentLength = Files.size(file);
+            final long lastModified = Files.getLastModifiedTime(file).toMillis();
+            if (contentLength >= sendfileSize) {
+                final var loaded = new CachedResource(path, file, contentLength, contentTypeOf(path), eTagOf(file),
+                        lastModified);
+                if (contentLength >= compressionMinSize && isCompressible(loaded.getContentType())) {
+                    for (ContentEncoding encoding : ContentEncoding.values()) {
+                        loaded.addEncoding(encoding);
+                    }
+                }
+                return loaded;
+            }
+            byte[] content = Files.readAllBytes(file);
+            if (isHtml(path)) {
+                content = rewriteAssetReferences(path, content);
+            }
+            final var loaded = new CachedResource(path, content, contentTypeOf(path), eTagOf(content), lastModified);
+            compress(loaded);
+            return loaded;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (URISyntaxException e) {
+            log.warn("Cannot resolve static resource {}", resource, e);
+            return null;
+        }
+    }
+
+    /**
+     * 페이지가 참조하는 로컬 자원의 경로를 버전이 붙은 경로로 바꾼다.
+     * 페이지의 ETag 는 바뀐 내용으로 계산되므로 자원이 바뀌면 페이지의 ETag 도 함께 바뀐다.
+     * 로딩은 잠금 밖에서 이루어지므로 여기서 다른 자원을 조회해도 된다.
+     */
+    private byte[] rewriteAssetReferences(final String pagePath, final byte[] content) {
+        final String directory = pagePath.substring(0, pagePath.lastIndexOf('/') + 1);
+        final Matcher matcher = ASSET_REFERENCE.matcher(new String(content, StandardCharsets.UTF_8));
+        final StringBuilder rewritten = new StringBuilder(content.length + 256);
+        while (matcher.find()) {
+            final String reference = matcher.group(2);
+            final String assetPath = reference.startsWith("/") ? reference : directory + reference;
+            final String replacement = isRewritable(assetPath)
+                    ? getVersionedPath(assetPath).orElse(reference)
+                    : reference;
+            matcher.appendReplacement(rewritten,
+                    Matcher.quoteReplacement(matcher.group(1) + "=\"" + replacement + "\""));
+        }
+        matcher.appendTail(rewritten);
+        return rewritten.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 압축한 내용을 원본 옆에 저장해 요청마다 다시 압축하지 않는다. 줄어들지 않는 표현은 버린다.
+     */
+    private void compress(final CachedResource resource) {
+        final byte[] content = resource.getContent();
+        if (content.length < compressionMinSize || !isCompressible(resource.getContentType())) {
+            return;
+        }
+        for (ContentEncoding encoding : ContentEncoding.values()) {
+            final byte[] encodedContent = encoding.encode(content);
+            if (encodedContent.length < content.length) {
+                resource.addEncodedContent(encoding, encodedContent);
+            }
+        }
+    }
+
+    private boolean isCompressible(final String contentType) {
+        return contentType.startsWith("text/")
+                || contentType.startsWith("application/json")
+                || contentType.startsWith("image/svg+xml");
+    }
+
+    private boolean isRewritable(final String assetPath) {
+        // 다른 페이지는 항상 다시 검증해야 하므로 버전을 붙이지 않는다. 페이지끼리 서로 참조해도 재귀하지 않는다.
+        return !assetPath.contains("..") && !isVersionedPath(assetPath) && !isHtml(assetPath);
+    }
+
+    private boolean isHtml(final String path) {
+        // 알 수 없는 확장자는 바이너리일 수 있으므로 문자열로 다시 쓰지 않도록 확장자로만 판단한다.
+        final String extension = extensionOf(path);
+        return "html".equals(extension) || "htm".equals(extension);
+    }
+
+    private String eTagOf(final byte[] content) {
+        final MessageDigest digest = newDigest();
+        digest.update(content);
+        return toETag(digest);
+    }
+
+    /**
+     * 파일 전체를 힙에 올리지 않도록 조금씩 읽으며 해시를 계산한다.
+     */
+    private String eTagOf(final Path file) throws IOException {
+        final MessageDigest digest = newDigest();
+        try (final var inputStream = Files.newInputStream(file)) {
+            final byte[] chunk = new byte[8 * 1024];
+            int read;
+            while ((read = inputStream.read(chunk)) != -1) {
+                digest.update(chunk, 0, read);
+            }
+        }
+        return toETag(digest);
+    }
+
+    private MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String toETag(final MessageDigest digest) {
+        final byte[] hash = digest.digest();
+        return "\"" + HexFormat.of().formatHex(hash, 0, ETAG_DIGEST_BYTES) + "\"";
+    }
+
+    private String contentTypeOf(final String path) {
+        final String extension = extensionOf(path);
+        if (extension == null) {
+            return DEFAULT_CONTENT_TYPE;
+        }
+        return CONTENT_TYPES.getOrDefault(extension, DEFAULT_CONTENT_TYPE);
+    }
+
+    private String extensionOf(final String path) {
+        final int dot = path.lastIndexOf('.');
+        if (dot < 0 || dot < path.lastIndexOf('/')) {
+            return null;
+        }
+        return path.substring(dot + 1).toLowerCase();
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            entries.clear();
+            notFound.clear();
+            size = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    /**
+     * @return current total weight of the cached entries in bytes
+     */
+    public long getSize() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
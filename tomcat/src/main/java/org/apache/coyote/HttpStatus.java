@@ -0,0 +1,33 @@
+package org.apache.coyote;
+
+/**
+ * Response status codes the server produces.
+ */
+public enum HttpStatus {
+
+    OK(200, "OK"),
+    PARTIAL_CONTENT(206, "Partial Content"),
+    FOUND(302, "Found"),
+    NOT_MODIFIED(304, "Not Modified"),
+    BAD_REQUEST(400, "Bad Request"),
+    NOT_FOUND(404, "Not Found"),
+    CONTENT_TOO_LARGE(413, "Content Too Large"),
+    RANGE_NOT_SATISFIABLE(416, "Range Not Satisfiable"),
+    INTERNAL_SERVER_ERROR(500, "Internal Server Error");
+
+    private final int code;
+    private final String reasonPhrase;
+
+    HttpStatus(final int code, final String reasonPhrase) {
+        this.code = code;
+        this.reasonPhrase = reasonPhrase;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public String getReasonPhrase() {
+        return reasonPhrase;
+    }
+}
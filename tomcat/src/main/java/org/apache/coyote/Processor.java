@@ -17,6 +17,8 @@
 package org.apache.coyote;
 
 import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
 
 /**
  * Common interface for processors of all protocols.
@@ -29,4 +31,22 @@ public interface Processor {
      * not currently being processed.
      */
     void process(Socket socket);
+
+    /**
+     * Process a non-blocking connection. Called by a worker thread after the
+     * poller found the channel readable and the endpoint read the available
+     * bytes into <code>readBuffer</code>. The buffer is in write mode on entry
+     * and must be left in write mode, holding only the bytes that have not
+     * been consumed yet.
+     *
+     * @return {@link SocketState#OPEN} to wait for more data on the connection,
+     *         {@link SocketState#CLOSED} to close it
+     */
+    SocketState process(SocketChannel channel, ByteBuffer readBuffer);
+
+    /**
+     * Release the resources held for the connection, such as pooled buffers.
+     * Called when the connection is closed.
+     */
+    void recycle();
 }
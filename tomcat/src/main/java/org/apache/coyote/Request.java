@@ -0,0 +1,476 @@
+package org.apache.coyote;
+
+import jakarta.servlet.http.HttpSession;
+import org.apache.catalina.Manager;
+import org.apache.catalina.session.StandardSession;
+import org.apache.tomcat.util.http.Parameters;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parsed request head. The parser only records where each element starts and
+ * ends in the connection's read buffer; Strings are created only when a
+ * caller actually asks for one, and the comparison methods work on the raw
+ * bytes without allocating.
+ * <p>
+ * An instance is reused for every request of a connection and is only valid
+ * until {@link #recycle()} is called or the read buffer is modified.
+ * <p>
+ * Form parameters of the body are decoded into {@link #getParameters()} while
+ * the body is read.
+ * <p>
+ * {@link #getSession(boolean)} looks up the session of the request in the
+ * {@link Manager} set by the processor.
+ */
+public final class Request {
+
+    /**
+     * Maximum number of variables in a route.
+     */
+    public static final int MAX_PATH_VARIABLES = 8;
+
+    private static final int NAME_START = 0;
+    private static final int NAME_END = 1;
+    private static final int VALUE_START = 2;
+    private static final int VALUE_END = 3;
+    private static final int OFFSETS_PER_HEADER = 4;
+    private static final String SESSION_COOKIE_NAME = "JSESSIONID";
+    private static final String[] NO_PATH_VARIABLES = new String[0];
+
+    private final int maxHeaderCount;
+    private final int[] headers;
+    private int headerCount;
+
+    private byte[] buffer;
+    private int base;
+
+    private int methodStart;
+    private int methodEnd;
+    private int uriStart;
+    private int uriEnd;
+    private int queryStart;
+    private int queryEnd;
+    private int protocolStart;
+    private int protocolEnd;
+    private boolean uriHasEscapes;
+    private final int[] pathVariables;
+    private String[] pathVariableNames;
+    private final Parameters parameters;
+    private Manager sessionManager;
+    private HttpSession session;
+    private boolean sessionCreated;
+    private String remoteAddr;
+
+    public Request(final int maxHeaderCount) {
+        this.maxHeaderCount = maxHeaderCount;
+        this.headers = new int[maxHeaderCount * OFFSETS_PER_HEADER];
+        this.pathVariables = new int[MAX_PATH_VARIABLES * 2];
+        this.parameters = new Parameters();
+        recycle();
+    }
+
+    /**
+     * Called by the parser once the request head is complete. Offsets recorded
+     * while parsing are relative to <code>base</code>.
+     */
+    public void setBuffer(final byte[] buffer, final int base) {
+        this.buffer = buffer;
+        this.base = base;
+    }
+
+    public boolean addHeader(final int nameStart, final int nameEnd, final int valueStart, final int valueEnd) {
+        if (headerCount == maxHeaderCount) {
+            return false;
+        }
+        final int index = headerCount * OFFSETS_PER_HEADER;
+        headers[index + NAME_START] = nameStart;
+        headers[index + NAME_END] = nameEnd;
+        headers[index + VALUE_START] = valueStart;
+        headers[index + VALUE_END] = valueEnd;
+        headerCount++;
+        return true;
+    }
+
+    public void setRequestLine(final int methodStart, final int methodEnd, final int uriStart, final int uriEnd,
+                               final int queryStart, final int queryEnd, final boolean uriHasEscapes,
+                               final int protocolStart, final int protocolEnd) {
+        this.methodStart = methodStart;
+        this.methodEnd = methodEnd;
+        this.uriStart = uriStart;
+        this.uriEnd = uriEnd;
+        this.queryStart = queryStart;
+        this.queryEnd = queryEnd;
+        this.uriHasEscapes = uriHasEscapes;
+        this.protocolStart = protocolStart;
+        this.protocolEnd = protocolEnd;
+    }
+
+    public void recycle() {
+        buffer = null;
+        base = 0;
+        headerCount = 0;
+        methodStart = methodEnd = 0;
+        uriStart = uriEnd = 0;
+        queryStart = queryEnd = -1;
+        protocolStart = protocolEnd = 0;
+        uriHasEscapes = false;
+        pathVariableNames = NO_PATH_VARIABLES;
+        parameters.recycle();
+        session = null;
+        sessionCreated = false;
+    }
+
+    /**
+     * @param remoteAddr address of the client. It belongs to the connection,
+     *                   so {@link #recycle()} keeps it.
+     */
+    public void setRemoteAddr(final String remoteAddr) {
+        this.remoteAddr = remoteAddr;
+    }
+
+    /**
+     * @return address of the client, or <code>null</code> if it is not known
+     */
+    public String getRemoteAddr() {
+        return remoteAddr;
+    }
+
+    public void setSessionManager(final Manager sessionManager) {
+        this.sessionManager = sessionManager;
+    }
+
+    /**
+     * @param create whether to create a new session if the request has no
+     *               valid session
+     * @return the session of the request, or <code>null</code> if it has none
+     *         and <code>create</code> is <code>false</code>
+     */
+    public HttpSession getSession(final boolean create) {
+        if (session != null && isValid(session)) {
+            return session;
+        }
+        session = null;
+        if (sessionManager == null) {
+            return null;
+        }
+        if (!sessionCreated) {
+            session = findRequestedSession();
+        }
+        if (session == null && create) {
+            session = sessionManager.createSession();
+            sessionCreated = true;
+        }
+        return session;
+    }
+
+    /**
+     * @return the session created while processing this request, which the
+     *         client does not know yet, or <code>null</code>
+     */
+    public HttpSession getCreatedSession() {
+        if (!sessionCreated || session == null || !isValid(session)) {
+            return null;
+        }
+        return session;
+    }
+
+    private HttpSession findRequestedSession() {
+        final HttpSession requested;
+        try {
+            requested = sessionManager.findSession(getRequestedSessionId());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (requested instanceof StandardSession standardSession) {
+            standardSession.access();
+        }
+        return requested;
+    }
+
+    private boolean isValid(final HttpSession session) {
+        return !(session instanceof StandardSession standardSession) || standardSession.isValid();
+    }
+
+    /**
+     * @return form parameters decoded from the body
+     */
+    public Parameters getParameters() {
+        return parameters;
+    }
+
+    /**
+     * @return the first value of the form parameter in the body, or
+     *         <code>null</code> if there is none
+     */
+    public String getParameter(final String name) {
+        return parameters.getParameter(name);
+    }
+
+    /**
+     * @return <code>false</code> if the request was rejected before its head
+     *         was parsed, in which case it has no method, path or protocol
+     */
+    public boolean hasRequestLine() {
+        return buffer != null;
+    }
+
+    public String getMethod() {
+        return toAsciiString(methodStart, methodEnd);
+    }
+
+    public boolean methodEquals(final String method) {
+        return bytesEqual(methodStart, methodEnd, method, false);
+    }
+
+    /**
+     * @return the request path with <code>%xx</code> escapes decoded as UTF-8
+     */
+    public String getRequestURI() {
+        if (!uriHasEscapes) {
+            return toAsciiString(uriStart, uriEnd);
+        }
+        return percentDecode(uriStart, uriEnd);
+    }
+
+    /**
+     * @return the request path as it was received, with <code>%xx</code>
+     *         escapes left as they are
+     */
+    public String getRawRequestURI() {
+        return toAsciiString(uriStart, uriEnd);
+    }
+
+    /**
+     * Compares the raw (undecoded) request path.
+     */
+    public boolean requestURIEquals(final String uri) {
+        return bytesEqual(uriStart, uriEnd, uri, false);
+    }
+
+    /**
+     * @return the length in bytes of the raw request path
+     */
+    public int getRequestURILength() {
+        return uriEnd - uriStart;
+    }
+
+    /**
+     * @return the byte at the given index of the raw request path, so that
+     *         routes can be matched without creating a String
+     */
+    public byte getRequestURIByte(final int index) {
+        return buffer[base + uriStart + index];
+    }
+
+    /**
+     * Records where a variable of the matched route is in the request path.
+     *
+     * @param start index of the first byte of the value in the raw path
+     * @param end   index after the last byte of the value in the raw path
+     */
+    public void setPathVariable(final int index, final int start, final int end) {
+        pathVariables[index * 2] = uriStart + start;
+        pathVariables[index * 2 + 1] = uriStart + end;
+    }
+
+    /**
+     * @param names names of the variables of the matched route, in the order
+     *              they were recorded with {@link #setPathVariable}
+     */
+    public void setPathVariableNames(final String[] names) {
+        this.pathVariableNames = names;
+    }
+
+    /**
+     * @return the decoded value of the variable of the matched route, or
+     *         <code>null</code> if the route has no such variable
+     */
+    public String getPathVariable(final String name) {
+        for (int i = 0; i < pathVariableNames.length; i++) {
+            if (pathVariableNames[i].equals(name)) {
+                return percentDecode(pathVariables[i * 2], pathVariables[i * 2 + 1]);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the raw query string, or <code>null</code> when there is none
+     */
+    public String getQueryString() {
+        if (queryStart < 0) {
+            return null;
+        }
+        return toAsciiString(queryStart, queryEnd);
+    }
+
+    /**
+     * @return value of the <code>JSESSIONID</code> cookie, or
+     *         <code>null</code> if the request does not carry one
+     */
+    public String getRequestedSessionId() {
+        final String cookie = getHeader("Cookie");
+        if (cookie == null) {
+            return null;
+        }
+        for (String pair : cookie.split(";")) {
+            final String trimmed = pair.strip();
+            if (trimmed.startsWith(SESSION_COOKIE_NAME + "=")) {
+                return trimmed.substring(SESSION_COOKIE_NAME.length() + 1);
+            }
+        }
+        return null;
+    }
+
+    public String getProtocol() {
+        return toAsciiString(protocolStart, protocolEnd);
+    }
+
+    public boolean protocolEquals(final String protocol) {
+        return bytesEqual(protocolStart, protocolEnd, protocol, false);
+    }
+
+    public int getHeaderCount() {
+        return headerCount;
+    }
+
+    public boolean containsHeader(final String name) {
+        return findHeader(name) >= 0;
+    }
+
+    /**
+     * @return the value of the first header with the given (case-insensitive)
+     *         name, or <code>null</code>
+     */
+    public String getHeader(final String name) {
+        final int index = findHeader(name);
+        if (index < 0) {
+            return null;
+        }
+        return new String(buffer, base + headers[index + VALUE_START],
+                headers[index + VALUE_END] - headers[index + VALUE_START], StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Checks whether a comma separated header such as <code>Connection</code>
+     * lists the given token, ignoring case.
+     */
+    public boolean headerContainsToken(final String name, final String token) {
+        final int index = findHeader(name);
+        if (index < 0) {
+            return false;
+        }
+        int tokenStart = headers[index + VALUE_START];
+        final int valueEnd = headers[index + VALUE_END];
+        while (tokenStart < valueEnd) {
+            int tokenEnd = tokenStart;
+            while (tokenEnd < valueEnd && buffer[base + tokenEnd] != ',') {
+                tokenEnd++;
+            }
+            int start = tokenStart;
+            int end = tokenEnd;
+            while (start < end && isWhitespace(buffer[base + start])) {
+                start++;
+            }
+            while (end > start && isWhitespace(buffer[base + end - 1])) {
+                end--;
+            }
+            if (bytesEqual(start, end, token, true)) {
+                return true;
+            }
+            tokenStart = tokenEnd + 1;
+        }
+        return false;
+    }
+
+    /**
+     * @return the <code>Content-Length</code> header parsed straight from the
+     *         buffer, or <code>-1</code> when the header is absent
+     * @throws IllegalArgumentException if the value is not a valid length
+     */
+    public long getContentLengthLong() {
+        final int index = findHeader("Content-Length");
+        if (index < 0) {
+            return -1;
+        }
+        final int start = headers[index + VALUE_START];
+        final int end = headers[index + VALUE_END];
+        if (start == end || end - start > 18) {
+            throw new IllegalArgumentException("Invalid Content-Length header");
+        }
+        long contentLength = 0;
+        for (int i = start; i < end; i++) {
+            final byte b = buffer[base + i];
+            if (b < '0' || b > '9') {
+                throw new IllegalArgumentException("Invalid Content-Length header");
+            }
+            contentLength = contentLength * 10 + (b - '0');
+        }
+        return contentLength;
+    }
+
+    private int findHeader(final String name) {
+        for (int i = 0; i < headerCount; i++) {
+            final int index = i * OFFSETS_PER_HEADER;
+            if (bytesEqual(headers[index + NAME_START], headers[index + NAME_END], name, true)) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private boolean bytesEqual(final int start, final int end, final String value, final boolean ignoreCase) {
+        if (end - start != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            int b = buffer[base + start + i];
+            int c = value.charAt(i);
+            if (ignoreCase) {
+                b = toLowerCase(b);
+                c = toLowerCase(c);
+            }
+            if (b != c) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String toAsciiString(final int start, final int end) {
+        return new String(buffer, base + start, end - start, StandardCharsets.ISO_8859_1);
+    }
+
+    private String percentDecode(final int start, final int end) {
+        final var decoded = new ByteArrayOutputStream(end - start);
+        for (int i = start; i < end; i++) {
+            final byte b = buffer[base + i];
+            if (b == '%' && i + 2 < end) {
+                final int high = Character.digit(buffer[base + i + 1], 16);
+                final int low = Character.digit(buffer[base + i + 2], 16);
+                if (high < 0 || low < 0) {
+                    throw new IllegalArgumentException("Invalid escape sequence in request URI");
+                }
+                decoded.write((high << 4) + low);
+                i += 2;
+            } else {
+                decoded.write(b);
+            }
+        }
+        return decoded.toString(StandardCharsets.UTF_8);
+    }
+
+    private static boolean isWhitespace(final byte b) {
+        return b == ' ' || b == '\t';
+    }
+
+    private static int toLowerCase(final int c) {
+        if (c >= 'A' && c <= 'Z') {
+            return c + ('a' - 'A');
+        }
+        return c;
+    }
+}
@@ -0,0 +1,98 @@
+package org.apache.coyote;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Response head being built for the current request. An instance is reused
+ * for every request of a connection; call {@link #recycle()} before starting
+ * the next response.
+ */
+public final class Response {
+
+    private HttpStatus status;
+    private String contentType;
+    private long contentLength;
+    private long bytesWritten;
+    private final List<String> headerNames;
+    private final List<String> headerValues;
+
+    public Response() {
+        this.headerNames = new ArrayList<>();
+        this.headerValues = new ArrayList<>();
+        recycle();
+    }
+
+    public void recycle() {
+        status = HttpStatus.OK;
+        contentType = null;
+        contentLength = -1;
+        bytesWritten = 0;
+        headerNames.clear();
+        headerValues.clear();
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(final HttpStatus status) {
+        this.status = status;
+    }
+
+    /**
+     * @return the content type, or <code>null</code> if the response has none
+     */
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(final String contentType) {
+        this.contentType = contentType;
+    }
+
+    /**
+     * @return the content length, or <code>-1</code> if it is not known
+     */
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    public void setContentLength(final long contentLength) {
+        this.contentLength = contentLength;
+    }
+
+    /**
+     * @return number of bytes sent for the response, head included. Set by the
+     *         processor once the response has been written.
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    public void setBytesWritten(final long bytesWritten) {
+        this.bytesWritten = bytesWritten;
+    }
+
+    /**
+     * Adds a header other than <code>Content-Type</code> and
+     * <code>Content-Length</code>. Headers are written in the order they were
+     * added.
+     */
+    public void addHeader(final String name, final String value) {
+        headerNames.add(name);
+        headerValues.add(value);
+    }
+
+    public int getHeaderCount() {
+        return headerNames.size();
+    }
+
+    public String getHeaderName(final int index) {
+        return headerNames.get(index);
+    }
+
+    public String getHeaderValue(final int index) {
+        return headerValues.get(index);
+    }
+}
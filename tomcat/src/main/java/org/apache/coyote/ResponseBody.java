@@ -0,0 +1,18 @@
+package org.apache.coyote;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Body of a response that is written while it is produced instead of being
+ * collected in memory first.
+ */
+@FunctionalInterface
+public interface ResponseBody {
+
+    /**
+     * Writes the body. The stream may be closed when the body is complete;
+     * the connection itself stays open.
+     */
+    void writeTo(OutputStream outputStream) throws IOException;
+}
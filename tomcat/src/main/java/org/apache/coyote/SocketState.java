@@ -0,0 +1,18 @@
+package org.apache.coyote;
+
+/**
+ * What the endpoint should do with a non-blocking connection after its
+ * processor has consumed the data that was available.
+ */
+public enum SocketState {
+
+    /**
+     * Keep the connection and hand it back to the poller to wait for more data.
+     */
+    OPEN,
+
+    /**
+     * Close the connection.
+     */
+    CLOSED
+}
@@ -0,0 +1,115 @@
+package org.apache.coyote.http11;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Range of bytes requested by a <code>Range</code> header (RFC 9110 14.1.2),
+ * resolved against the length of the selected representation.
+ */
+final class ByteRange {
+
+    private static final String UNIT_PREFIX = "bytes=";
+    private static final int MAX_RANGES = 32;
+
+    private final long start;
+    private final long end;
+
+    private ByteRange(final long start, final long end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * @param header value of the <code>Range</code> header
+     * @param length length of the representation in bytes
+     * @return the satisfiable ranges in request order, an empty list if none of
+     *         them is satisfiable, or <code>null</code> if the header has to
+     *         be ignored because it is malformed, has no range at all or
+     *         asks for too many ranges
+     */
+    static List<ByteRange> parse(final String header, final long length) {
+        if (!header.regionMatches(true, 0, UNIT_PREFIX, 0, UNIT_PREFIX.length())) {
+            return null;
+        }
+        final String[] specs = header.substring(UNIT_PREFIX.length()).split(",");
+        if (specs.length > MAX_RANGES) {
+            // 겹치는 범위를 잔뜩 요청해 응답을 부풀리는 공격을 막는다.
+            return null;
+        }
+        final List<ByteRange> ranges = new ArrayList<>(specs.length);
+        boolean specified = false;
+        for (String spec : specs) {
+            final String trimmed = spec.strip();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            specified = true;
+            final int dash = trimmed.indexOf('-');
+            if (dash < 0) {
+                return null;
+            }
+            final long first = parseNumber(trimmed.substring(0, dash));
+            final long last = parseNumber(trimmed.substring(dash + 1));
+            if (dash == 0) {
+                // suffix-range: 마지막 N 바이트
+                if (last < 0) {
+                    return null;
+                }
+                if (last > 0 && length > 0) {
+                    ranges.add(new ByteRange(Math.max(0, length - last), length - 1));
+                }
+                continue;
+            }
+            if (first < 0 || (dash < trimmed.length() - 1 && last < first)) {
+                return null;
+            }
+            if (first < length) {
+                final long end = dash == trimmed.length() - 1 ? length - 1 : Math.min(last, length - 1);
+                ranges.add(new ByteRange(first, end));
+            }
+        }
+        // 범위가 하나도 없는 헤더는 문법에 맞지 않으므로 416 이 아니라 헤더가 없는 것처럼 전체를 보낸다.
+        return specified ? ranges : null;
+    }
+
+    /**
+     * @return the number, or -1 if the text is not a non-negative decimal
+     */
+    private static long parseNumber(final String text) {
+        if (text.isEmpty() || text.length() > 18) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    long getStart() {
+        return start;
+    }
+
+    /**
+     * @return position of the last byte, inclusive
+     */
+    long getEnd() {
+        return end;
+    }
+
+    long getLength() {
+        return end - start + 1;
+    }
+
+    /**
+     * @return value of the <code>Content-Range</code> header for this range
+     */
+    String toContentRange(final long length) {
+        return "bytes " + start + "-" + end + "/" + length;
+    }
+}
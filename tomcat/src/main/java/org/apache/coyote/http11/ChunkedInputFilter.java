@@ -0,0 +1,189 @@
+package org.apache.coyote.http11;
+
+import org.apache.tomcat.util.http.Parameters;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Incremental decoder for a request body sent with the chunked transfer
+ * coding (RFC 9112 7.1).
+ * <p>
+ * Chunk extensions and trailer fields are skipped. Like the request head
+ * parser it remembers where it stopped, so a chunk header or trailer may be
+ * split across reads.
+ */
+class ChunkedInputFilter {
+
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+    private static final int MAX_CHUNK_SIZE_DIGITS = 15;
+
+    private enum State {
+        CHUNK_SIZE,
+        CHUNK_EXTENSION,
+        CHUNK_SIZE_LF,
+        CHUNK_DATA,
+        CHUNK_DATA_CR,
+        CHUNK_DATA_LF,
+        TRAILER_LINE_START,
+        TRAILER_LINE,
+        LAST_LF,
+        DONE
+    }
+
+    private final int maxTrailerSize;
+
+    private State state;
+    private long chunkSize;
+    private int chunkSizeDigits;
+    private long chunkRemaining;
+    private int trailerSize;
+    private long dataLength;
+
+    /**
+     * @param maxTrailerSize maximum size in bytes of the trailer section
+     */
+    ChunkedInputFilter(final int maxTrailerSize) {
+        this.maxTrailerSize = maxTrailerSize;
+        recycle();
+    }
+
+    void recycle() {
+        state = State.CHUNK_SIZE;
+        chunkSize = 0;
+        chunkSizeDigits = 0;
+        chunkRemaining = 0;
+        trailerSize = 0;
+        dataLength = 0;
+    }
+
+    /**
+     * Consumes as much of the body as the buffer holds.
+     *
+     * @param buffer     read buffer in read mode
+     * @param parameters receives the decoded data, or <code>null</code> if the
+     *                   data is discarded
+     * @return <code>true</code> once the last chunk and the trailer section
+     *         were read, in which case the buffer's position is moved to the
+     *         first byte after the body
+     * @throws IllegalArgumentException if the chunked framing is malformed
+     */
+    boolean read(final ByteBuffer buffer, final Parameters parameters) {
+        while (state != State.DONE && buffer.hasRemaining()) {
+            if (state == State.CHUNK_DATA) {
+                readChunkData(buffer, parameters);
+                continue;
+            }
+            final byte b = buffer.get();
+            switch (state) {
+                case CHUNK_SIZE -> parseChunkSize(b);
+                case CHUNK_EXTENSION -> {
+                    if (b == CR) {
+                        state = State.CHUNK_SIZE_LF;
+                    } else if (b == LF) {
+                        endChunkSize();
+                    }
+                }
+                case CHUNK_SIZE_LF -> {
+                    expect(b, LF);
+                    endChunkSize();
+                }
+                case CHUNK_DATA_CR -> {
+                    expect(b, CR);
+                    state = State.CHUNK_DATA_LF;
+                }
+                case CHUNK_DATA_LF -> {
+                    expect(b, LF);
+                    chunkSize = 0;
+                    chunkSizeDigits = 0;
+                    state = State.CHUNK_SIZE;
+                }
+                case TRAILER_LINE_START -> {
+                    if (b == CR) {
+                        state = State.LAST_LF;
+                    } else if (b == LF) {
+                        state = State.DONE;
+                    } else {
+                        countTrailer();
+                        state = State.TRAILER_LINE;
+                    }
+                }
+                case TRAILER_LINE -> {
+                    // 트레일러 필드는 사용하지 않으므로 줄 끝까지 건너뛴다.
+                    countTrailer();
+                    if (b == LF) {
+                        state = State.TRAILER_LINE_START;
+                    }
+                }
+                case LAST_LF -> {
+                    expect(b, LF);
+                    state = State.DONE;
+                }
+                default -> throw new IllegalStateException("Unexpected state " + state);
+            }
+        }
+        return state == State.DONE;
+    }
+
+    /**
+     * @return number of body bytes decoded so far, without the chunk framing
+     */
+    long getDataLength() {
+        return dataLength;
+    }
+
+    private void parseChunkSize(final byte b) {
+        final int digit = Character.digit(b, 16);
+        if (digit >= 0) {
+            if (++chunkSizeDigits > MAX_CHUNK_SIZE_DIGITS) {
+                throw new IllegalArgumentException("Chunk size is too large");
+            }
+            chunkSize = chunkSize * 16 + digit;
+        } else if (b == ';' || b == ' ' || b == '\t') {
+            state = State.CHUNK_EXTENSION;
+        } else if (b == CR) {
+            state = State.CHUNK_SIZE_LF;
+        } else if (b == LF) {
+            endChunkSize();
+        } else {
+            throw new IllegalArgumentException("Invalid character in chunk size");
+        }
+    }
+
+    private void endChunkSize() {
+        if (chunkSizeDigits == 0) {
+            throw new IllegalArgumentException("Missing chunk size");
+        }
+        if (chunkSize == 0) {
+            state = State.TRAILER_LINE_START;
+            return;
+        }
+        chunkRemaining = chunkSize;
+        state = State.CHUNK_DATA;
+    }
+
+    private void readChunkData(final ByteBuffer buffer, final Parameters parameters) {
+        final int length = (int) Math.min(chunkRemaining, buffer.remaining());
+        if (parameters != null) {
+            parameters.decode(buffer.array(), buffer.arrayOffset() + buffer.position(), length);
+        }
+        buffer.position(buffer.position() + length);
+        chunkRemaining -= length;
+        dataLength += length;
+        if (chunkRemaining == 0) {
+            state = State.CHUNK_DATA_CR;
+        }
+    }
+
+    private void countTrailer() {
+        if (++trailerSize > maxTrailerSize) {
+            throw new IllegalArgumentException("Trailer section is larger than " + maxTrailerSize + " bytes");
+        }
+    }
+
+    private void expect(final byte actual, final byte expected) {
+        if (actual != expected) {
+            throw new IllegalArgumentException("Invalid chunked request body");
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package org.apache.coyote.http11;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes a body of unknown length with the chunked transfer coding
+ * (RFC 9112 7.1). Small writes are collected into chunks of the buffer size
+ * so each one does not cost a chunk header of its own.
+ * <p>
+ * Closing the stream writes the last chunk but leaves the connection open.
+ */
+public class ChunkedOutputStream extends OutputStream {
+
+    private static final byte[] CRLF = {'\r', '\n'};
+    private static final byte[] LAST_CHUNK = "0\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final OutputStream outputStream;
+    private final byte[] buffer;
+    private int count;
+    private boolean closed;
+
+    public ChunkedOutputStream(final OutputStream outputStream, final int bufferSize) {
+        this(outputStream, new byte[bufferSize]);
+    }
+
+    /**
+     * @param buffer buffer collecting a chunk; the whole array is used
+     */
+    public ChunkedOutputStream(final OutputStream outputStream, final byte[] buffer) {
+        this.outputStream = outputStream;
+        this.buffer = buffer;
+        this.count = 0;
+        this.closed = false;
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        if (count == buffer.length) {
+            flushChunk();
+        }
+        buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        if (len >= buffer.length) {
+            // 버퍼보다 큰 데이터는 복사하지 않고 그대로 하나의 chunk 로 보낸다.
+            flushChunk();
+            writeChunk(b, off, len);
+            return;
+        }
+        if (len > buffer.length - count) {
+            flushChunk();
+        }
+        System.arraycopy(b, off, buffer, count, len);
+        count += len;
+    }
+
+    /**
+     * 모아 둔 데이터를 chunk 로 내보내 클라이언트가 바로 받을 수 있게 한다.
+     */
+    @Override
+    public void flush() throws IOException {
+        flushChunk();
+        outputStream.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        flushChunk();
+        outputStream.write(LAST_CHUNK);
+        closed = true;
+    }
+
+    private void flushChunk() throws IOException {
+        if (count > 0) {
+            writeChunk(buffer, 0, count);
+            count = 0;
+        }
+    }
+
+    private void writeChunk(final byte[] b, final int off, final int len) throws IOException {
+        if (len == 0) {
+            return;
+        }
+        outputStream.write(Integer.toHexString(len).getBytes(StandardCharsets.US_ASCII));
+        outputStream.write(CRLF);
+        outputStream.write(b, off, len);
+        outputStream.write(CRLF);
+    }
+}
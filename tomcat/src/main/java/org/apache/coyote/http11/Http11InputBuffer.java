@@ -0,0 +1,321 @@
+package org.apache.coyote.http11;
+
+import org.apache.coyote.Request;
+import org.apache.tomcat.util.http.Parameters;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Incremental parser for the HTTP/1.1 request head and reader of the request
+ * body that follows it.
+ * <p>
+ * Works directly on the bytes of the connection's read buffer and records
+ * only offsets into it, so parsing a request does not create any Strings.
+ * When the buffer does not hold the complete head yet, the parser remembers
+ * where it stopped and continues from there on the next call. All offsets
+ * are relative to the start of the request, so the caller may compact the
+ * buffer between calls as long as the request is moved to its start.
+ * <p>
+ * The body is consumed from the same buffer, delimited either by its
+ * <code>Content-Length</code> or by the chunked transfer coding.
+ */
+public class Http11InputBuffer {
+
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+    private static final byte SP = ' ';
+    private static final byte HT = '\t';
+    private static final byte COLON = ':';
+    private static final byte QUESTION = '?';
+    private static final byte PERCENT = '%';
+
+    private static final boolean[] TOKEN = new boolean[128];
+
+    static {
+        for (int c = '0'; c <= '9'; c++) {
+            TOKEN[c] = true;
+        }
+        for (int c = 'a'; c <= 'z'; c++) {
+            TOKEN[c] = true;
+            TOKEN[c - ('a' - 'A')] = true;
+        }
+        for (char c : "!#$%&'*+-.^_`|~".toCharArray()) {
+            TOKEN[c] = true;
+        }
+    }
+
+    private enum State {
+        REQUEST_LINE_START,
+        METHOD,
+        REQUEST_TARGET,
+        PROTOCOL,
+        REQUEST_LINE_LF,
+        HEADER_LINE_START,
+        HEADER_NAME,
+        HEADER_VALUE_START,
+        HEADER_VALUE,
+        HEADER_LINE_LF,
+        HEAD_END_LF
+    }
+
+    private final int maxHttpHeaderSize;
+
+    private State state;
+    private int parsePosition;
+    private int methodStart;
+    private int methodEnd;
+    private int uriStart;
+    private int uriEnd;
+    private int queryStart;
+    private boolean uriHasEscapes;
+    private int protocolStart;
+    private int protocolEnd;
+    private int headerNameStart;
+    private int headerNameEnd;
+    private int headerValueStart;
+    private int headerValueEnd;
+
+    private final ChunkedInputFilter chunkedInputFilter;
+    private boolean chunked;
+    private long bodyRemaining;
+    private long bodyLength;
+
+    public Http11InputBuffer(final int maxHttpHeaderSize) {
+        this.maxHttpHeaderSize = maxHttpHeaderSize;
+        this.chunkedInputFilter = new ChunkedInputFilter(maxHttpHeaderSize);
+        recycle();
+    }
+
+    /**
+     * Parses the request head that starts at the buffer's position.
+     *
+     * @param buffer  read buffer in read mode
+     * @param request filled with the parsed offsets once the head is complete
+     * @return <code>true</code> when the head was parsed completely, in which
+     *         case the buffer's position is moved to the first body byte;
+     *         <code>false</code> if more data is needed, in which case the
+     *         buffer's position is left untouched
+     * @throws IllegalArgumentException if the head is malformed or exceeds the
+     *                                  configured limits
+     */
+    public boolean parseRequestHead(final ByteBuffer buffer, final Request request) {
+        final byte[] bytes = buffer.array();
+        final int base = buffer.arrayOffset() + buffer.position();
+        final int length = buffer.remaining();
+
+        int position = parsePosition;
+        while (position < length) {
+            if (position >= maxHttpHeaderSize) {
+                throw new IllegalArgumentException("Request header is larger than " + maxHttpHeaderSize + " bytes");
+            }
+            final byte b = bytes[base + position];
+            switch (state) {
+                case REQUEST_LINE_START -> {
+                    // 요청 줄 앞의 빈 줄은 무시한다. (RFC 9112 2.2)
+                    if (b != CR && b != LF) {
+                        methodStart = position;
+                        state = State.METHOD;
+                        continue;
+                    }
+                }
+                case METHOD -> {
+                    if (b == SP) {
+                        if (position == methodStart) {
+                            throw new IllegalArgumentException("Empty request method");
+                        }
+                        methodEnd = position;
+                        uriStart = position + 1;
+                        state = State.REQUEST_TARGET;
+                    } else if (!isToken(b)) {
+                        throw new IllegalArgumentException("Invalid character in request method");
+                    }
+                }
+                case REQUEST_TARGET -> {
+                    if (b == SP) {
+                        if (queryStart < 0) {
+                            uriEnd = position;
+                        }
+                        if (uriEnd == uriStart) {
+                            throw new IllegalArgumentException("Empty request target");
+                        }
+                        protocolStart = position + 1;
+                        state = State.PROTOCOL;
+                    } else if (b == QUESTION && queryStart < 0) {
+                        uriEnd = position;
+                        queryStart = position + 1;
+                    } else if (b == PERCENT && queryStart < 0) {
+                        uriHasEscapes = true;
+                    } else if (b <= SP || b == 0x7F) {
+                        throw new IllegalArgumentException("Invalid character in request target");
+                    }
+                }
+                case PROTOCOL -> {
+                    if (b == CR || b == LF) {
+                        protocolEnd = position;
+                        // 프로토콜 뒤에 붙은 공백은 허용한다.
+                        while (protocolEnd > protocolStart && bytes[base + protocolEnd - 1] == SP) {
+                            protocolEnd--;
+                        }
+                        checkProtocol(bytes, base);
+                        state = b == CR ? State.REQUEST_LINE_LF : State.HEADER_LINE_START;
+                    } else if (b <= SP && b != SP || b == 0x7F) {
+                        throw new IllegalArgumentException("Invalid character in protocol");
+                    }
+                }
+                case REQUEST_LINE_LF, HEADER_LINE_LF -> {
+                    if (b != LF) {
+                        throw new IllegalArgumentException("CR must be followed by LF");
+                    }
+                    state = State.HEADER_LINE_START;
+                }
+                case HEADER_LINE_START -> {
+                    if (b == CR) {
+                        state = State.HEAD_END_LF;
+                    } else if (b == LF) {
+                        return complete(buffer, request, base, position + 1);
+                    } else if (b == SP || b == HT) {
+                        throw new IllegalArgumentException("Obsolete header line folding is not supported");
+                    } else {
+                        headerNameStart = position;
+                        state = State.HEADER_NAME;
+                        continue;
+                    }
+                }
+                case HEADER_NAME -> {
+                    if (b == COLON) {
+                        if (position == headerNameStart) {
+                            throw new IllegalArgumentException("Empty header name");
+                        }
+                        headerNameEnd = position;
+                        state = State.HEADER_VALUE_START;
+                    } else if (!isToken(b)) {
+                        throw new IllegalArgumentException("Invalid character in header name");
+                    }
+                }
+                case HEADER_VALUE_START -> {
+                    if (b != SP && b != HT) {
+                        headerValueStart = position;
+                        headerValueEnd = position;
+                        state = State.HEADER_VALUE;
+                        continue;
+                    }
+                }
+                case HEADER_VALUE -> {
+                    if (b == CR || b == LF) {
+                        if (!request.addHeader(headerNameStart, headerNameEnd, headerValueStart, headerValueEnd)) {
+                            throw new IllegalArgumentException("Too many request headers");
+                        }
+                        state = b == CR ? State.HEADER_LINE_LF : State.HEADER_LINE_START;
+                    } else if (b != SP && b != HT) {
+                        // obs-text (0x80-0xFF) 는 허용하고 제어 문자만 거부한다.
+                        if ((b & 0xFF) < SP || b == 0x7F) {
+                            throw new IllegalArgumentException("Invalid character in header value");
+                        }
+                        headerValueEnd = position + 1;
+                    }
+                }
+                case HEAD_END_LF -> {
+                    if (b != LF) {
+                        throw new IllegalArgumentException("CR must be followed by LF");
+                    }
+                    return complete(buffer, request, base, position + 1);
+                }
+            }
+            position++;
+        }
+        if (position >= maxHttpHeaderSize) {
+            throw new IllegalArgumentException("Request header is larger than " + maxHttpHeaderSize + " bytes");
+        }
+        parsePosition = position;
+        return false;
+    }
+
+    private boolean complete(final ByteBuffer buffer, final Request request, final int base, final int headLength) {
+        request.setRequestLine(methodStart, methodEnd, uriStart, uriEnd,
+                queryStart, queryStart < 0 ? -1 : protocolStart - 1, uriHasEscapes,
+                protocolStart, protocolEnd);
+        request.setBuffer(buffer.array(), base);
+        buffer.position(buffer.position() + headLength);
+        recycle();
+        return true;
+    }
+
+    private void checkProtocol(final byte[] bytes, final int base) {
+        // HTTP/1.0 과 HTTP/1.1 만 지원한다.
+        final int length = protocolEnd - protocolStart;
+        if (length != 8
+                || bytes[base + protocolStart] != 'H' || bytes[base + protocolStart + 1] != 'T'
+                || bytes[base + protocolStart + 2] != 'T' || bytes[base + protocolStart + 3] != 'P'
+                || bytes[base + protocolStart + 4] != '/' || bytes[base + protocolStart + 5] != '1'
+                || bytes[base + protocolStart + 6] != '.'
+                || (bytes[base + protocolStart + 7] != '0' && bytes[base + protocolStart + 7] != '1')) {
+            throw new IllegalArgumentException("Unsupported protocol");
+        }
+    }
+
+    /**
+     * Prepares reading the body of the request whose head was just parsed.
+     *
+     * @param contentLength length of the body, ignored if it is chunked
+     * @param chunked       whether the body uses the chunked transfer coding
+     */
+    public void prepareBody(final long contentLength, final boolean chunked) {
+        this.chunked = chunked;
+        this.bodyRemaining = chunked ? 0 : contentLength;
+        this.bodyLength = 0;
+        chunkedInputFilter.recycle();
+    }
+
+    /**
+     * Consumes as much of the body as the buffer holds.
+     *
+     * @param buffer     read buffer in read mode
+     * @param parameters receives the body as form content, or
+     *                   <code>null</code> if the body is discarded
+     * @return <code>true</code> once the whole body was read, in which case
+     *         the buffer's position is moved to the start of the next request
+     * @throws IllegalArgumentException if the body is malformed
+     */
+    public boolean readBody(final ByteBuffer buffer, final Parameters parameters) {
+        if (chunked) {
+            final boolean done = chunkedInputFilter.read(buffer, parameters);
+            bodyLength = chunkedInputFilter.getDataLength();
+            return done;
+        }
+        final int length = (int) Math.min(bodyRemaining, buffer.remaining());
+        if (parameters != null) {
+            parameters.decode(buffer.array(), buffer.arrayOffset() + buffer.position(), length);
+        }
+        buffer.position(buffer.position() + length);
+        bodyRemaining -= length;
+        bodyLength += length;
+        return bodyRemaining == 0;
+    }
+
+    /**
+     * @return number of body bytes read so far, without any transfer coding
+     */
+    public long getBodyLength() {
+        return bodyLength;
+    }
+
+    /**
+     * Forgets any partially parsed request. Must be called when the
+     * connection's buffered data is discarded.
+     */
+    public void recycle() {
+        state = State.REQUEST_LINE_START;
+        parsePosition = 0;
+        methodStart = methodEnd = 0;
+        uriStart = uriEnd = 0;
+        queryStart = -1;
+        uriHasEscapes = false;
+        protocolStart = protocolEnd = 0;
+        headerNameStart = headerNameEnd = 0;
+        headerValueStart = headerValueEnd = 0;
+    }
+
+    private static boolean isToken(final byte b) {
+        return b >= 0 && TOKEN[b];
+    }
+}
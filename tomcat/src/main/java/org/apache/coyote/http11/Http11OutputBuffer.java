@@ -0,0 +1,288 @@
+package org.apache.coyote.http11;
+
+import org.apache.coyote.HttpStatus;
+import org.apache.tomcat.util.http.FastHttpDateFormat;
+import org.apache.tomcat.util.net.NioSocketOutputStream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Buffered output of a connection. Small writes such as response headers and
+ * the bodies of pipelined responses are collected in a buffer and written
+ * with as few socket writes as possible. Files are sent with
+ * {@link FileChannel#transferTo} straight to the socket channel, so their
+ * content never has to be copied into the heap.
+ * <p>
+ * The response head is written straight into the buffer: status lines and
+ * common header lines are encoded once, and numbers are written as ASCII
+ * digits without creating Strings.
+ * <p>
+ * A write that does not fit into the rest of the buffer, typically the body
+ * following a response head, goes out together with the buffered bytes in a
+ * single gathering write when the socket has a channel, so the head is not
+ * sent in a packet of its own.
+ */
+public class Http11OutputBuffer extends OutputStream {
+
+    private static final byte[] CRLF = ascii("\r\n");
+    private static final byte[] CONTENT_LENGTH = ascii("Content-Length: ");
+    private static final byte[] DATE = ascii("Date: ");
+    private static final byte[] HEADER_SEPARATOR = ascii(": ");
+    private static final byte[] CONNECTION_CLOSE = ascii("Connection: close\r\n");
+    private static final byte[] CONNECTION_KEEP_ALIVE = ascii("Connection: keep-alive\r\n");
+    private static final byte[][] STATUS_LINES = new byte[HttpStatus.values().length][];
+    // 정적 자원의 Content-Type 은 종류가 몇 가지뿐이다. 임의의 값으로 커지지 않도록 개수를 제한한다.
+    private static final int MAX_CACHED_CONTENT_TYPES = 64;
+    private static final Map<String, byte[]> CONTENT_TYPE_LINES = new ConcurrentHashMap<>();
+    private static final int MAX_LONG_DIGITS = 19;
+
+    static {
+        for (final HttpStatus status : HttpStatus.values()) {
+            STATUS_LINES[status.ordinal()] = ascii("HTTP/1.1 " + status.getCode() + " " + status.getReasonPhrase()
+                    + "\r\n");
+        }
+    }
+
+    private final OutputStream socketOutputStream;
+    private final WritableByteChannel socketChannel;
+    private final byte[] buffer;
+    private int count;
+    private long flushedBytes;
+    private ByteBuffer[] gatherBuffers;
+
+    /**
+     * @param socketOutputStream stream writing to the socket
+     * @param socketChannel      blocking channel of the socket, or
+     *                           <code>null</code> if it has none
+     * @param bufferSize         size of the write buffer in bytes
+     */
+    public Http11OutputBuffer(final OutputStream socketOutputStream, final WritableByteChannel socketChannel,
+                              final int bufferSize) {
+        this(socketOutputStream, socketChannel, new byte[bufferSize]);
+    }
+
+    /**
+     * @param buffer write buffer, for example one borrowed from a
+     *               {@link org.apache.tomcat.util.buf.ByteBufferPool}. The
+     *               caller gets it back once this stream is no longer used.
+     */
+    public Http11OutputBuffer(final OutputStream socketOutputStream, final WritableByteChannel socketChannel,
+                              final byte[] buffer) {
+        this.socketOutputStream = socketOutputStream;
+        this.socketChannel = socketChannel;
+        this.buffer = buffer;
+        this.count = 0;
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        if (count == buffer.length) {
+            flushBuffer();
+        }
+        buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        if (len > buffer.length - count) {
+            if (count > 0 && writeGathering(b, off, len)) {
+                return;
+            }
+            flushBuffer();
+        }
+        if (len >= buffer.length) {
+            // 버퍼보다 큰 데이터는 복사하지 않고 바로 내보낸다.
+            socketOutputStream.write(b, off, len);
+            flushedBytes += len;
+            return;
+        }
+        System.arraycopy(b, off, buffer, count, len);
+        count += len;
+    }
+
+    public void sendStatus(final HttpStatus status) throws IOException {
+        write(STATUS_LINES[status.ordinal()]);
+    }
+
+    public void sendHeader(final String name, final String value) throws IOException {
+        writeString(name);
+        write(HEADER_SEPARATOR);
+        writeString(value);
+        write(CRLF);
+    }
+
+    public void sendContentType(final String contentType) throws IOException {
+        byte[] line = CONTENT_TYPE_LINES.get(contentType);
+        if (line == null) {
+            line = ascii("Content-Type: " + contentType + "\r\n");
+            if (CONTENT_TYPE_LINES.size() < MAX_CACHED_CONTENT_TYPES) {
+                CONTENT_TYPE_LINES.putIfAbsent(contentType, line);
+            }
+        }
+        write(line);
+    }
+
+    public void sendContentLength(final long contentLength) throws IOException {
+        write(CONTENT_LENGTH);
+        writeDecimal(contentLength);
+        write(CRLF);
+    }
+
+    /**
+     * Writes the <code>Date</code> header with the current time.
+     */
+    public void sendDate() throws IOException {
+        write(DATE);
+        writeString(FastHttpDateFormat.getCurrentDate());
+        write(CRLF);
+    }
+
+    public void sendConnection(final boolean keepAlive) throws IOException {
+        write(keepAlive ? CONNECTION_KEEP_ALIVE : CONNECTION_CLOSE);
+    }
+
+    /**
+     * Writes the empty line that ends the response head.
+     */
+    public void endHeaders() throws IOException {
+        write(CRLF);
+    }
+
+    /**
+     * Writes <code>count</code> bytes of the file starting at
+     * <code>position</code> after everything buffered so far.
+     */
+    public void sendfile(final FileChannel file, final long position, final long count) throws IOException {
+        flush();
+        flushedBytes += count;
+        if (socketOutputStream instanceof NioSocketOutputStream nioSocketOutputStream) {
+            nioSocketOutputStream.transferFrom(file, position, count);
+            return;
+        }
+        final WritableByteChannel target = socketChannel != null ? socketChannel : Channels.newChannel(socketOutputStream);
+        long transferred = 0;
+        while (transferred < count) {
+            final long written = file.transferTo(position + transferred, count - transferred, target);
+            if (written <= 0 && file.size() <= position + transferred) {
+                throw new IOException("File was truncated while it was being sent");
+            }
+            transferred += written;
+        }
+    }
+
+    /**
+     * @return number of bytes written to this stream so far, including the
+     *         ones still in the buffer
+     */
+    public long getBytesWritten() {
+        return flushedBytes + count;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        socketOutputStream.flush();
+    }
+
+    /**
+     * 버퍼에 모아 둔 바이트와 <code>b</code> 를 시스템 콜 한 번으로 내보낸다.
+     *
+     * @return 소켓이 gathering write 를 지원하지 않아 쓰지 못했으면 <code>false</code>
+     */
+    private boolean writeGathering(final byte[] b, final int off, final int len) throws IOException {
+        final boolean nio = socketOutputStream instanceof NioSocketOutputStream;
+        if (!nio && !(socketChannel instanceof GatheringByteChannel)) {
+            return false;
+        }
+        if (gatherBuffers == null) {
+            gatherBuffers = new ByteBuffer[2];
+        }
+        gatherBuffers[0] = ByteBuffer.wrap(buffer, 0, count);
+        gatherBuffers[1] = ByteBuffer.wrap(b, off, len);
+        try {
+            if (nio) {
+                ((NioSocketOutputStream) socketOutputStream).write(gatherBuffers);
+            } else {
+                final var channel = (GatheringByteChannel) socketChannel;
+                while (gatherBuffers[1].hasRemaining()) {
+                    channel.write(gatherBuffers);
+                }
+            }
+        } finally {
+            gatherBuffers[0] = null;
+            gatherBuffers[1] = null;
+        }
+        flushedBytes += count + len;
+        count = 0;
+        return true;
+    }
+
+    private void flushBuffer() throws IOException {
+        if (count > 0) {
+            socketOutputStream.write(buffer, 0, count);
+            flushedBytes += count;
+            count = 0;
+        }
+    }
+
+    private void writeString(final String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) {
+                write(value.getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+        }
+        int written = 0;
+        while (written < value.length()) {
+            if (count == buffer.length) {
+                flushBuffer();
+            }
+            final int end = Math.min(value.length(), written + buffer.length - count);
+            while (written < end) {
+                buffer[count++] = (byte) value.charAt(written++);
+            }
+        }
+    }
+
+    private void writeDecimal(final long value) throws IOException {
+        if (value < 0 || buffer.length < MAX_LONG_DIGITS) {
+            writeString(Long.toString(value));
+            return;
+        }
+        if (buffer.length - count < MAX_LONG_DIGITS) {
+            flushBuffer();
+        }
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        long rest = value;
+        for (int i = count + digits - 1; i >= count; i--) {
+            buffer[i] = (byte) ('0' + rest % 10);
+            rest /= 10;
+        }
+        count += digits;
+    }
+
+    private static byte[] ascii(final String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            socketOutputStream.close();
+        }
+    }
+}
@@ -1,22 +1,38 @@
 package org.apache.coyote.http11;
 
-import com.techcourse.db.InMemoryUserRepository;
 import com.techcourse.exception.UncheckedServletException;
-import com.techcourse.model.User;
-import java.io.BufferedReader;
+import jakarta.servlet.http.HttpSession;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.Socket;
-import java.net.URI;
-import java.net.URISyntaxException;
-import java.net.URL;
-import java.net.URLDecoder;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SocketChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
-import java.nio.file.Path;
-import java.util.HashMap;
-import java.util.Map;
+import java.nio.file.StandardOpenOption;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.apache.catalina.AccessLog;
+import org.apache.catalina.mapper.HandlerMethod;
+import org.apache.catalina.webresources.CachedResource;
+import org.apache.catalina.webresources.ContentEncoding;
+import org.apache.catalina.webresources.StaticResourceCache;
+import org.apache.coyote.HttpStatus;
 import org.apache.coyote.Processor;
+import org.apache.coyote.Request;
+import org.apache.coyote.Response;
+import org.apache.coyote.ResponseBody;
+import org.apache.coyote.SocketState;
+import org.apache.tomcat.util.buf.ByteBufferPool;
+import org.apache.tomcat.util.metrics.ServerMetrics;
+import org.apache.tomcat.util.net.NioSocketOutputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -24,124 +40,775 @@ public class Http11Processor implements Runnable, Processor {
 
     private static final Logger log = LoggerFactory.getLogger(Http11Processor.class);
 
+    private static final String MIME_BOUNDARY = "TOMCAT_MIME_BOUNDARY";
+    private static final String IMMUTABLE_CACHE_CONTROL = "max-age=31536000, immutable";
+    private static final String REDIRECT_PREFIX = "redirect:";
+    private static final String FORM_CONTENT_TYPE = "application/x-www-form-urlencoded";
+    private static final int OUTPUT_BUFFER_SIZE = 8 * 1024;
+    private static final String METRICS_PATH = "/metrics";
+    private static final String METRICS_ROUTE = "GET " + METRICS_PATH;
+    // 핸들러가 없는 요청은 경로가 제각각이므로 지표의 이름 하나로 묶는다.
+    private static final String STATIC_ROUTE = "static";
+    // 거절한 요청은 경로를 믿을 수 없거나 알 수 없으므로 따로 모은다.
+    private static final String REJECTED_ROUTE = "rejected";
+    private static final String METRICS_CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
     private final Socket connection;
+    private final Http11Protocol protocol;
+    private final ByteBufferPool bufferPool;
+    private final AccessLog accessLog;
+    private final ServerMetrics metrics;
+    private final Http11InputBuffer inputBuffer;
+    private final Request request;
+    private final Response response;
+    private int requestCount;
+    private long requestStartTime;
+    private String route;
+    private boolean connectionOpen;
+    private boolean readingBody;
+    private boolean headPreserved;
+    private ByteBuffer preservedHead;
+    private int preservedHeadStart;
+    private int preservedHeadLength;
+    private NioSocketOutputStream nioOutputStream;
 
     public Http11Processor(final Socket connection) {
+        this(connection, new Http11Protocol());
+    }
+
+    public Http11Processor(final Socket connection, final Http11Protocol protocol) {
         this.connection = connection;
+        this.protocol = protocol;
+        this.bufferPool = protocol.getBufferPool();
+        this.accessLog = protocol.getAccessLog();
+        this.metrics = protocol.getMetrics();
+        this.inputBuffer = new Http11InputBuffer(protocol.getMaxHttpHeaderSize());
+        this.request = new Request(protocol.getMaxHeaderCount());
+        this.request.setSessionManager(protocol.getSessionManager());
+        if (accessLog != null && connection.getInetAddress() != null) {
+            this.request.setRemoteAddr(connection.getInetAddress().getHostAddress());
+        }
+        this.response = new Response();
+        this.requestCount = 0;
+        this.requestStartTime = -1L;
+        this.readingBody = false;
+        this.headPreserved = false;
+        this.connectionOpen = true;
+        metrics.connectionOpened();
     }
 
     @Override
     public void run() {
-        log.info("connect host: {}, port: {}", connection.getInetAddress(), connection.getPort());
+        log.atDebug().log("connect host: {}, port: {}", connection.getInetAddress(), connection.getPort());
         process(connection);
     }
 
     @Override
     public void process(final Socket connection) {
+        // 가상 스레드에서 실행될 수 있으므로 이 경로에서는 synchronized 블록을 잡은 채로 블로킹 I/O 를 하지 않는다.
+        // JDK 21 의 소켓 스트림은 내부적으로 ReentrantLock 을 사용하므로
+        // 읽기/쓰기에서 대기하는 동안 캐리어 스레드가 고정(pinning)되지 않는다.
+        // 읽기/쓰기 버퍼는 연결이 끝나면 돌려주고 다음 연결이 다시 쓴다.
+        metrics.workerBusy();
+        final ByteBuffer readBuffer = bufferPool.acquire(protocol.getMaxHttpHeaderSize()).flip();
+        final ByteBuffer writeBuffer = bufferPool.acquire(OUTPUT_BUFFER_SIZE);
         try (final var inputStream = connection.getInputStream();
-             final var inputStreamReader = new InputStreamReader(inputStream, StandardCharsets.UTF_8);
-             final var bufferedReader = new BufferedReader(inputStreamReader);
-             final var outputStream = connection.getOutputStream()) {
-
-            String requestLine = bufferedReader.readLine();
-            if (requestLine == null) {
-                return;
+             final var outputStream = new Http11OutputBuffer(connection.getOutputStream(), connection.getChannel(),
+                     writeBuffer.array())) {
+            connection.setSoTimeout(protocol.getKeepAliveTimeout());
+            // 클라이언트가 연결을 닫거나, keep-alive 를 끝내야 할 때까지 같은 연결에서 요청을 계속 처리한다.
+            while (fill(inputStream, readBuffer)) {
+                if (processBuffer(readBuffer, outputStream) != SocketState.OPEN) {
+                    break;
+                }
+                // 더 읽어야 할 때만 flush 하므로 파이프라이닝된 요청들의 응답은 한 번에 나간다.
+                outputStream.flush();
             }
-            String fullRequestURI = requestLine.split(" ")[1];
-
-            URI uri = new URI(fullRequestURI);
-            String requestPath = uri.getPath();
-            String query = uri.getQuery();
+        } catch (SocketTimeoutException e) {
+            log.atDebug().log("keep-alive timeout, closing connection");
+        } catch (IOException | UncheckedIOException | UncheckedServletException e) {
+            log.atError().log(e.getMessage(), e);
+        } catch (IllegalArgumentException e) {
+            log.atWarn().log(e.getMessage());
+        } finally {
+            recycle();
+            bufferPool.release(writeBuffer);
+            bufferPool.release(readBuffer);
+            metrics.workerIdle();
+        }
+    }
 
-            Map<String, String> queryParams = parseQueryParams(query);
-            Map<String, String> requestHeaders = parseRequestHeaders(bufferedReader);
+    @Override
+    public SocketState process(final SocketChannel channel, final ByteBuffer readBuffer) {
+        metrics.workerBusy();
+        readBuffer.flip();
+        if (nioOutputStream == null) {
+            nioOutputStream = new NioSocketOutputStream(channel);
+        }
+        // 버퍼에 쌓인 파이프라이닝 요청들의 응답을 모아 두었다가 한 번에 내보낸다.
+        // 쓰기 버퍼는 응답을 flush 하고 나면 필요 없으므로 이번 처리 동안만 빌린다.
+        final ByteBuffer writeBuffer = bufferPool.acquire(OUTPUT_BUFFER_SIZE);
+        final var outputStream = new Http11OutputBuffer(nioOutputStream, null, writeBuffer.array());
+        try {
+            final SocketState state = processBuffer(readBuffer, outputStream);
+            outputStream.flush();
+            return state;
+        } catch (IOException | UncheckedIOException | UncheckedServletException e) {
+            log.atError().log(e.getMessage(), e);
+        } catch (IllegalArgumentException e) {
+            log.atWarn().log(e.getMessage());
+        } finally {
+            readBuffer.compact();
+            bufferPool.release(writeBuffer);
+            metrics.workerIdle();
+        }
+        return SocketState.CLOSED;
+    }
 
-            byte[] responseBodyBytes = null;
-            String contentType = "text/html;charset=utf-8";
-            String statusCode = "200 OK";
+    /**
+     * 본문이 다 도착하지 않은 요청의 헤드를 담은 버퍼를 돌려주고, 연결이 닫힌 것으로 센다.
+     */
+    @Override
+    public void recycle() {
+        readingBody = false;
+        releasePreservedHead();
+        if (connectionOpen) {
+            connectionOpen = false;
+            metrics.connectionClosed();
+        }
+    }
 
-            if ("/".equals(requestPath)) {
-                responseBodyBytes = "Hello world!".getBytes(StandardCharsets.UTF_8);
-            } else if ("/login".equals(requestPath) && queryParams.containsKey("account")) {
-                User user = InMemoryUserRepository.findByAccount(queryParams.get("account"))
-                        .orElseThrow(() -> new IllegalArgumentException("입력된 값과 일치하는 user가 존재하지 않습니다."));
-                if (!user.checkPassword(queryParams.get("password"))) {
-                    throw new IllegalArgumentException("입력된 password가 등록된 값과 일치하지 않습니다.");
+    /**
+     * 읽기 버퍼에 온전히 도착한 요청들을 차례로 처리한다.
+     *
+     * @param readBuffer 읽기 모드의 버퍼. 처리한 만큼 position 이 이동한다.
+     * @return 요청을 마저 받기 위해 더 읽어야 하면 {@link SocketState#OPEN},
+     *         연결을 닫아야 하면 {@link SocketState#CLOSED}
+     */
+    private SocketState processBuffer(final ByteBuffer readBuffer, final Http11OutputBuffer outputStream)
+            throws IOException {
+        while (true) {
+            if (!readingBody) {
+                if (requestStartTime < 0 && readBuffer.hasRemaining()) {
+                    // 헤드가 여러 번에 나뉘어 도착해도 그 시간까지 재도록 요청의 첫 바이트를 읽을 때 시계를 시작한다.
+                    requestStartTime = System.nanoTime();
                 }
-                responseBodyBytes = "로그인 성공".getBytes();
-                log.atInfo().log("user: {}", user.toString());
-            } else {
-                String resourcePath;
-                if ("/login".equals(requestPath)) {
-                    resourcePath = "static/login.html";
-                } else {
-                    resourcePath = "static" + requestPath;
+                final int requestStart = readBuffer.position();
+                final boolean parsed;
+                try {
+                    parsed = inputBuffer.parseRequestHead(readBuffer, request);
+                } catch (IllegalArgumentException e) {
+                    return rejectRequest(outputStream, HttpStatus.BAD_REQUEST, e);
                 }
-
-                URL resource = ClassLoader.getSystemResource(resourcePath);
-                if (resource != null) {
-                    responseBodyBytes = Files.readAllBytes(Path.of(resource.toURI()));
-                    if (resourcePath.endsWith(".css")) {
-                        contentType = "text/css";
-                    }
+                if (!parsed) {
+                    return SocketState.OPEN;
+                }
+                final HttpStatus bodyError = prepareRequestBody();
+                if (bodyError != null) {
+                    return rejectRequest(outputStream, bodyError, null);
+                }
+                readingBody = true;
+                headPreserved = false;
+                preservedHeadLength = readBuffer.position() - requestStart;
+                preservedHeadStart = requestStart;
+            }
+            final boolean bodyRead;
+            try {
+                bodyRead = inputBuffer.readBody(readBuffer, isFormRequest() ? request.getParameters() : null);
+                if (bodyRead && isFormRequest()) {
+                    request.getParameters().finish();
+                }
+            } catch (IllegalArgumentException e) {
+                return rejectRequest(outputStream, HttpStatus.BAD_REQUEST, e);
+            }
+            if (inputBuffer.getBodyLength() > protocol.getMaxPostSize()) {
+                return rejectRequest(outputStream, HttpStatus.CONTENT_TOO_LARGE, null);
+            }
+            if (!bodyRead) {
+                preserveRequestHead(readBuffer);
+                return SocketState.OPEN;
+            }
+            readingBody = false;
+            final long bytesBefore = outputStream.getBytesWritten();
+            try {
+                final boolean keepAlive = service(request, outputStream);
+                if (!keepAlive) {
+                    return SocketState.CLOSED;
                 }
+            } finally {
+                afterService(outputStream.getBytesWritten() - bytesBefore);
+                request.recycle();
+                response.recycle();
+                releasePreservedHead();
+            }
+        }
+    }
+
+    /**
+     * 응답을 다 쓴 요청을 지표와 접근 로그에 남긴다. 헤드를 해석하기 전에 거절한 요청도 포함한다.
+     */
+    private void afterService(final long bytesWritten) {
+        final long time = System.nanoTime() - requestStartTime;
+        requestStartTime = -1L;
+        response.setBytesWritten(bytesWritten);
+        metrics.record(route == null ? STATIC_ROUTE : route, response.getStatus(), bytesWritten, time);
+        route = null;
+        if (accessLog != null) {
+            accessLog.log(request, response, time);
+        }
+    }
+
+    /**
+     * 본문의 길이를 정한다. 본문은 service 전에 모두 읽으므로 다음 요청의 시작 위치를 항상 알 수 있다.
+     *
+     * @return 본문을 받을 수 없으면 응답할 상태 코드
+     */
+    private HttpStatus prepareRequestBody() {
+        final String transferEncoding = request.getHeader("Transfer-Encoding");
+        if (transferEncoding != null) {
+            // Content-Length 와 함께 오면 요청 밀반입(request smuggling)에 쓰일 수 있으므로 거절한다. (RFC 9112 6.1)
+            if (!"chunked".equalsIgnoreCase(transferEncoding.strip()) || request.containsHeader("Content-Length")) {
+                return HttpStatus.BAD_REQUEST;
             }
+            inputBuffer.prepareBody(0, true);
+            return null;
+        }
+        final long contentLength;
+        try {
+            contentLength = request.getContentLengthLong();
+        } catch (IllegalArgumentException e) {
+            return HttpStatus.BAD_REQUEST;
+        }
+        if (contentLength > protocol.getMaxPostSize()) {
+            return HttpStatus.CONTENT_TOO_LARGE;
+        }
+        inputBuffer.prepareBody(Math.max(contentLength, 0), false);
+        return null;
+    }
+
+    private boolean isFormRequest() {
+        final String contentType = request.getHeader("Content-Type");
+        return request.methodEquals("POST")
+                && contentType != null
+                && contentType.regionMatches(true, 0, FORM_CONTENT_TYPE, 0, FORM_CONTENT_TYPE.length());
+    }
+
+    /**
+     * 본문이 다 도착하기 전에 읽기 버퍼를 비우게 되므로 요청 헤드를 따로 옮겨 둔다.
+     * 본문이 한 번에 도착하는 대부분의 요청은 복사하지 않는다.
+     */
+    private void preserveRequestHead(final ByteBuffer readBuffer) {
+        if (headPreserved) {
+            return;
+        }
+        if (preservedHead == null) {
+            preservedHead = bufferPool.acquire(protocol.getMaxHttpHeaderSize());
+        }
+        System.arraycopy(readBuffer.array(), readBuffer.arrayOffset() + preservedHeadStart,
+                preservedHead.array(), 0, preservedHeadLength);
+        request.setBuffer(preservedHead.array(), 0);
+        headPreserved = true;
+    }
+
+    private void releasePreservedHead() {
+        if (preservedHead != null) {
+            bufferPool.release(preservedHead);
+            preservedHead = null;
+        }
+        headPreserved = false;
+    }
+
+    private SocketState rejectRequest(final Http11OutputBuffer outputStream, final HttpStatus status,
+                                      final IllegalArgumentException cause) throws IOException {
+        if (cause != null) {
+            log.atWarn().log("Invalid request: {}", cause.getMessage());
+        }
+        final long bytesBefore = outputStream.getBytesWritten();
+        try {
+            writeError(outputStream, status);
+        } finally {
+            // 거절한 요청도 응답을 보냈으므로 처리한 요청과 같이 남긴다.
+            route = REJECTED_ROUTE;
+            afterService(outputStream.getBytesWritten() - bytesBefore);
+            request.recycle();
+            inputBuffer.recycle();
+            readingBody = false;
+            releasePreservedHead();
+        }
+        return SocketState.CLOSED;
+    }
+
+    private boolean fill(final InputStream inputStream, final ByteBuffer readBuffer) throws IOException {
+        readBuffer.compact();
+        try {
+            final int read = inputStream.read(readBuffer.array(), readBuffer.arrayOffset() + readBuffer.position(),
+                    readBuffer.remaining());
+            if (read < 0) {
+                return false;
+            }
+            readBuffer.position(readBuffer.position() + read);
+            return true;
+        } finally {
+            readBuffer.flip();
+        }
+    }
+
+    /**
+     * 요청 하나를 처리해 응답을 쓴다. 응답을 flush 하는 것은 호출하는 쪽의 몫이다.
+     *
+     * @return 같은 연결에서 다음 요청을 계속 받을 수 있으면 <code>true</code>
+     */
+    private boolean service(final Request request, final Http11OutputBuffer outputStream)
+            throws IOException {
+        requestCount++;
+        boolean keepAlive = isKeepAlive(request);
+        boolean http10 = request.protocolEquals("HTTP/1.0");
+
+        response.setContentType("text/html;charset=utf-8");
+
+        if (request.methodEquals("GET") && request.requestURIEquals(METRICS_PATH)) {
+            route = METRICS_ROUTE;
+            writeMetrics(outputStream, keepAlive, http10);
+            return keepAlive;
+        }
+        final HandlerMethod handler = protocol.getMapper().map(request);
+        if (handler != null) {
+            route = handler.toString();
+            return dispatch(handler, outputStream, keepAlive, http10);
+        }
+        route = STATIC_ROUTE;
+        return serveResource(request.getRequestURI(), outputStream, keepAlive, http10);
+    }
+
+    private void writeMetrics(final Http11OutputBuffer outputStream, final boolean keepAlive, final boolean http10)
+            throws IOException {
+        final var body = new StringBuilder();
+        metrics.writeTo(body);
+        response.setContentType(METRICS_CONTENT_TYPE);
+        response.addHeader("Cache-Control", "no-store");
+        writeResponse(outputStream, body.toString().getBytes(StandardCharsets.UTF_8), keepAlive, http10);
+    }
 
-            if (responseBodyBytes == null) {
-                statusCode = "404 Not Found";
-                URL resource404 = ClassLoader.getSystemResource("static/404.html");
-                if (resource404 != null) {
-                    responseBodyBytes = Files.readAllBytes(Path.of(resource404.toURI()));
-                } else {
-                    responseBodyBytes = "404 Not Found".getBytes(StandardCharsets.UTF_8);
+    /**
+     * 핸들러가 돌려준 뷰에 따라 리다이렉트하거나, 정적 자원이나 본문을 보낸다.
+     * 핸들러가 예외를 던지면 500 을 보내고 연결을 닫는다.
+     *
+     * @return 같은 연결에서 다음 요청을 계속 받을 수 있으면 <code>true</code>
+     */
+    private boolean dispatch(final HandlerMethod handler, final Http11OutputBuffer outputStream,
+                             final boolean keepAlive, final boolean http10) throws IOException {
+        final String view;
+        try {
+            view = handler.handle(request, response);
+        } catch (RuntimeException e) {
+            log.atError().log("Handler {} failed", handler, e);
+            writeError(outputStream, HttpStatus.INTERNAL_SERVER_ERROR);
+            return false;
+        }
+        final HttpSession createdSession = request.getCreatedSession();
+        if (createdSession != null) {
+            response.addHeader("Set-Cookie", "JSESSIONID=" + createdSession.getId() + "; Path=/; HttpOnly");
+        }
+        if (handler.isResponseBody()) {
+            writeResponse(outputStream, view.getBytes(StandardCharsets.UTF_8), keepAlive, http10);
+            return keepAlive;
+        }
+        if (view.startsWith(REDIRECT_PREFIX)) {
+            sendRedirect(outputStream, view.substring(REDIRECT_PREFIX.length()), keepAlive, http10);
+            return keepAlive;
+        }
+        return serveResource(view, outputStream, keepAlive, http10);
+    }
+
+    /**
+     * @return 같은 연결에서 다음 요청을 계속 받을 수 있으면 <code>true</code>
+     */
+    private boolean serveResource(final String resourcePath, final Http11OutputBuffer outputStream,
+                                  final boolean keepAlive, final boolean http10) throws IOException {
+        final StaticResourceCache cache = protocol.getResourceCache();
+        final boolean versioned = StaticResourceCache.isVersionedPath(resourcePath);
+        final Optional<CachedResource> resource = versioned
+                ? cache.getVersionedResource(resourcePath)
+                : cache.getResource(resourcePath);
+        if (resource.isPresent()) {
+            addCacheControl(resource.get(), versioned);
+            return serveStaticResource(request, outputStream, resource.get(), keepAlive, http10);
+        }
+        response.setStatus(HttpStatus.NOT_FOUND);
+        final byte[] notFound = cache.getResource("/404.html")
+                .map(CachedResource::getContent)
+                .orElseGet(() -> "404 Not Found".getBytes(StandardCharsets.UTF_8));
+        writeResponse(outputStream, notFound, keepAlive, http10);
+        return keepAlive;
+    }
+
+    private void sendRedirect(final Http11OutputBuffer outputStream, final String location, final boolean keepAlive,
+                              final boolean http10) throws IOException {
+        response.setStatus(HttpStatus.FOUND);
+        response.setContentType(null);
+        response.addHeader("Location", location);
+        response.setContentLength(0);
+        writeResponseHead(outputStream, keepAlive, http10);
+    }
+
+    /**
+     * 버전이 붙은 경로의 내용은 바뀌지 않으므로 브라우저가 다시 검증할 필요가 없다.
+     * 페이지는 참조하는 자원의 버전이 바뀔 수 있으므로 매번 다시 검증하게 한다.
+     */
+    private void addCacheControl(final CachedResource resource, final boolean versioned) {
+        if (versioned) {
+            response.addHeader("Cache-Control", IMMUTABLE_CACHE_CONTROL);
+        } else if (resource.getContentType().startsWith("text/html")) {
+            response.addHeader("Cache-Control", "no-cache");
+        }
+    }
+
+    /**
+     * @return 같은 연결에서 다음 요청을 계속 받을 수 있으면 <code>true</code>
+     */
+    private boolean serveStaticResource(final Request request, final Http11OutputBuffer outputStream,
+                                     final CachedResource resource, final boolean keepAlive, final boolean http10)
+            throws IOException {
+        // 범위 요청은 압축하지 않은 표현에 대해서만 처리한다.
+        final boolean rangeRequested = request.methodEquals("GET") && request.getHeader("Range") != null;
+        final ContentEncoding encoding = rangeRequested ? null : selectEncoding(request, resource);
+        if (resource.isCompressible()) {
+            response.addHeader("Vary", "Accept-Encoding");
+        }
+        if (encoding != null) {
+            response.addHeader("Content-Encoding", encoding.getToken());
+        }
+        final String eTag = resource.getETag(encoding);
+        response.addHeader("ETag", eTag);
+        response.addHeader("Last-Modified", resource.getLastModifiedHttpDate());
+        if (isNotModified(request, resource, eTag)) {
+            response.setStatus(HttpStatus.NOT_MODIFIED);
+            response.setContentType(null);
+            writeResponseHead(outputStream, keepAlive, http10);
+            return keepAlive;
+        }
+        response.setContentType(resource.getContentType());
+        response.addHeader("Accept-Ranges", "bytes");
+        if (rangeRequested) {
+            final List<ByteRange> ranges = requestedRanges(request, resource, eTag);
+            if (ranges != null) {
+                writeRanges(outputStream, resource, ranges, keepAlive, http10);
+                return keepAlive;
+            }
+        }
+        if (resource.isFileBacked() && encoding != null) {
+            // 압축된 길이는 다 보내기 전에는 알 수 없으므로 흘려 보낸다.
+            return writeStreamingResponse(outputStream, body -> {
+                try (final var inputStream = Files.newInputStream(resource.getFile());
+                     final var encodedStream = encoding.newOutputStream(body)) {
+                    inputStream.transferTo(encodedStream);
                 }
+            }, keepAlive, http10);
+        }
+        if (resource.isFileBacked()) {
+            writeStaticFile(outputStream, resource, keepAlive, http10);
+            return keepAlive;
+        }
+        final byte[] content = encoding == null ? resource.getContent() : resource.getContent(encoding);
+        writeResponse(outputStream, content, keepAlive, http10);
+        return keepAlive;
+    }
+
+    /**
+     * If-Range 가 현재 표현과 일치하지 않으면 범위를 무시하고 전체를 보낸다. (RFC 9110 13.1.5)
+     *
+     * @return 범위를 무시해야 하면 <code>null</code>
+     */
+    private List<ByteRange> requestedRanges(final Request request, final CachedResource resource,
+                                            final String eTag) {
+        final String ifRange = request.getHeader("If-Range");
+        if (ifRange != null) {
+            // 엔티티 태그는 강한 비교를, 날짜는 Last-Modified 와 정확히 같은지 비교한다.
+            final String validator = ifRange.strip();
+            final boolean matches = validator.startsWith("\"")
+                    ? validator.equals(eTag)
+                    : validator.equals(resource.getLastModifiedHttpDate());
+            if (!matches) {
+                return null;
+            }
+        }
+        return ByteRange.parse(request.getHeader("Range"), resource.getContentLength());
+    }
+
+    private void writeRanges(final Http11OutputBuffer outputStream, final CachedResource resource,
+                             final List<ByteRange> ranges, final boolean keepAlive, final boolean http10)
+            throws IOException {
+        final long length = resource.getContentLength();
+        if (ranges.isEmpty()) {
+            response.setStatus(HttpStatus.RANGE_NOT_SATISFIABLE);
+            response.setContentType(null);
+            response.setContentLength(0);
+            response.addHeader("Content-Range", "bytes */" + length);
+            writeResponseHead(outputStream, keepAlive, http10);
+            return;
+        }
+        response.setStatus(HttpStatus.PARTIAL_CONTENT);
+        // 큰 파일은 전체를 읽지 않고 요청된 위치부터 필요한 만큼만 보낸다.
+        try (final var file = resource.isFileBacked()
+                ? FileChannel.open(resource.getFile(), StandardOpenOption.READ)
+                : null) {
+            if (ranges.size() == 1) {
+                final ByteRange range = ranges.get(0);
+                response.addHeader("Content-Range", range.toContentRange(length));
+                response.setContentLength(range.getLength());
+                writeResponseHead(outputStream, keepAlive, http10);
+                writeRange(outputStream, resource, file, range);
+                return;
             }
+            writeMultipartRanges(outputStream, resource, file, ranges, keepAlive, http10);
+        }
+    }
 
-            String responseHeaders = String.join(" \r\n",
-                    "HTTP/1.1 " + statusCode,
-                    "Content-Type: " + contentType,
-                    "Content-Length: " + responseBodyBytes.length,
-                    "\r\n");
+    /**
+     * 여러 범위는 multipart/byteranges 로 보낸다. Content-Length 를 미리 알 수 있도록
+     * 각 부분의 헤더를 먼저 만들어 둔다. (RFC 9110 14.6)
+     */
+    private void writeMultipartRanges(final Http11OutputBuffer outputStream, final CachedResource resource,
+                                      final FileChannel file, final List<ByteRange> ranges,
+                                      final boolean keepAlive, final boolean http10) throws IOException {
+        final List<byte[]> partHeads = new ArrayList<>(ranges.size());
+        final byte[] closeDelimiter = ("\r\n--" + MIME_BOUNDARY + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        long contentLength = closeDelimiter.length;
+        for (ByteRange range : ranges) {
+            final byte[] partHead = ("\r\n--" + MIME_BOUNDARY + "\r\n"
+                    + "Content-Type: " + resource.getContentType() + "\r\n"
+                    + "Content-Range: " + range.toContentRange(resource.getContentLength()) + "\r\n"
+                    + "\r\n").getBytes(StandardCharsets.US_ASCII);
+            partHeads.add(partHead);
+            contentLength += partHead.length + range.getLength();
+        }
+        response.setContentType("multipart/byteranges; boundary=" + MIME_BOUNDARY);
+        response.setContentLength(contentLength);
+        writeResponseHead(outputStream, keepAlive, http10);
+        for (int i = 0; i < ranges.size(); i++) {
+            outputStream.write(partHeads.get(i));
+            writeRange(outputStream, resource, file, ranges.get(i));
+        }
+        outputStream.write(closeDelimiter);
+    }
 
-            outputStream.write(responseHeaders.getBytes(StandardCharsets.UTF_8));
-            outputStream.write(responseBodyBytes);
-            outputStream.flush();
+    private void writeRange(final Http11OutputBuffer outputStream, final CachedResource resource,
+                            final FileChannel file, final ByteRange range) throws IOException {
+        if (file == null) {
+            outputStream.write(resource.getContent(), (int) range.getStart(), (int) range.getLength());
+            return;
+        }
+        outputStream.sendfile(file, range.getStart(), range.getLength());
+    }
 
-        } catch (IOException | UncheckedServletException | URISyntaxException e) {
-            log.atError().log(e.getMessage(), e);
-        } catch (IllegalArgumentException e) {
-            log.atWarn().log(e.getMessage());
+    /**
+     * Accept-Encoding 의 q 값이 가장 높은, 미리 압축해 둔 표현을 고른다. (RFC 9110 12.5.3)
+     *
+     * @return 압축하지 않고 보내야 하면 <code>null</code>
+     */
+    private ContentEncoding selectEncoding(final Request request, final CachedResource resource) {
+        final String acceptEncoding = request.getHeader("Accept-Encoding");
+        if (acceptEncoding == null || !resource.isCompressible()) {
+            return null;
+        }
+        ContentEncoding selected = null;
+        double selectedQuality = 0;
+        for (ContentEncoding encoding : ContentEncoding.values()) {
+            if (!resource.supportsEncoding(encoding)) {
+                continue;
+            }
+            final double quality = qualityOf(acceptEncoding, encoding.getToken());
+            if (quality > selectedQuality) {
+                selected = encoding;
+                selectedQuality = quality;
+            }
+        }
+        return selected;
+    }
+
+    private double qualityOf(final String acceptEncoding, final String coding) {
+        double wildcardQuality = 0;
+        for (String member : acceptEncoding.split(",")) {
+            final int semicolon = member.indexOf(';');
+            final String name = (semicolon < 0 ? member : member.substring(0, semicolon)).strip();
+            final double quality = semicolon < 0 ? 1 : parseQuality(member.substring(semicolon + 1));
+            if (name.equalsIgnoreCase(coding)) {
+                return quality;
+            }
+            if ("*".equals(name)) {
+                wildcardQuality = quality;
+            }
         }
+        return wildcardQuality;
     }
 
-    private Map<String, String> parseQueryParams(String query) {
-        Map<String, String> queryParams = new HashMap<>();
-        if (query != null && !query.isEmpty()) {
-            String[] pairs = query.split("&");
-            for (String pair : pairs) {
-                String[] keyValue = pair.split("=", 2);
-                if (keyValue.length == 2) {
-                    String key = URLDecoder.decode(keyValue[0], StandardCharsets.UTF_8);
-                    String value = URLDecoder.decode(keyValue[1], StandardCharsets.UTF_8);
-                    queryParams.put(key, value);
+    private double parseQuality(final String parameters) {
+        for (String parameter : parameters.split(";")) {
+            final String trimmed = parameter.strip();
+            if (trimmed.startsWith("q=") || trimmed.startsWith("Q=")) {
+                try {
+                    return Double.parseDouble(trimmed.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
                 }
             }
         }
-        return queryParams;
+        return 1;
     }
 
-    private Map<String, String> parseRequestHeaders(BufferedReader bufferedReader) throws IOException {
-        Map<String, String> requestHeaders = new HashMap<>();
-        while (true) {
-            String line = bufferedReader.readLine();
-            if (line == null || line.isEmpty()) {
-                break;
+    /**
+     * 조건부 요청이 캐시된 메타데이터와 일치하면 본문 없이 304 로 응답할 수 있다. (RFC 9110 13.1)
+     * If-None-Match 가 있으면 If-Modified-Since 는 무시한다.
+     */
+    private boolean isNotModified(final Request request, final CachedResource resource, final String eTag) {
+        if (!request.methodEquals("GET") && !request.methodEquals("HEAD")) {
+            return false;
+        }
+        final String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch != null) {
+            return matchesETag(ifNoneMatch, eTag);
+        }
+        final String ifModifiedSince = request.getHeader("If-Modified-Since");
+        if (ifModifiedSince != null) {
+            return isNotModifiedSince(ifModifiedSince, resource);
+        }
+        return false;
+    }
+
+    private boolean matchesETag(final String ifNoneMatch, final String eTag) {
+        if ("*".equals(ifNoneMatch.strip())) {
+            return true;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String entityTag = candidate.strip();
+            // If-None-Match 는 약한 비교를 사용한다.
+            if (entityTag.startsWith("W/")) {
+                entityTag = entityTag.substring(2);
+            }
+            if (entityTag.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isNotModifiedSince(final String ifModifiedSince, final CachedResource resource) {
+        // 대부분의 클라이언트는 받았던 Last-Modified 값을 그대로 돌려보내므로 날짜를 파싱하지 않고 먼저 비교한다.
+        if (ifModifiedSince.equals(resource.getLastModifiedHttpDate())) {
+            return true;
+        }
+        try {
+            final long since = ZonedDateTime.parse(ifModifiedSince, DateTimeFormatter.RFC_1123_DATE_TIME)
+                    .toInstant()
+                    .toEpochMilli();
+            return resource.getLastModified() <= since;
+        } catch (DateTimeParseException e) {
+            // 잘못된 날짜는 무시한다. (RFC 9110 13.1.3)
+            return false;
+        }
+    }
+
+    private void writeError(final Http11OutputBuffer outputStream, final HttpStatus status) throws IOException {
+        response.recycle();
+        response.setStatus(status);
+        response.setContentType("text/html;charset=utf-8");
+        final String body = status.getCode() + " " + status.getReasonPhrase();
+        writeResponse(outputStream, body.getBytes(StandardCharsets.UTF_8), false, false);
+    }
+
+    /**
+     * 큰 정적 파일은 힙으로 읽어 들이지 않고 FileChannel 에서 소켓으로 바로 보낸다.
+     */
+    private void writeStaticFile(final Http11OutputBuffer outputStream, final CachedResource resource,
+                                 final boolean keepAlive, final boolean http10) throws IOException {
+        try (final var file = FileChannel.open(resource.getFile(), StandardOpenOption.READ)) {
+            response.setContentLength(resource.getContentLength());
+            writeResponseHead(outputStream, keepAlive, http10);
+            if (!request.methodEquals("HEAD")) {
+                outputStream.sendfile(file, 0, resource.getContentLength());
             }
-            String[] headerParts = line.split(": ", 2);
-            if (headerParts.length == 2) {
-                requestHeaders.put(headerParts[0], headerParts[1]);
+        }
+    }
+
+    /**
+     * 본문을 전부 모으지 않고 헤더부터 보낸 뒤 만들어지는 대로 흘려 보낸다.
+     * 길이를 모르면 HTTP/1.1 은 chunked 로, chunked 를 모르는 HTTP/1.0 은 연결을 닫아 본문의 끝을 알린다.
+     * HEAD 요청에는 GET 과 같은 헤더만 보내고 본문은 만들지 않는다.
+     *
+     * @return 같은 연결에서 다음 요청을 계속 받을 수 있으면 <code>true</code>
+     */
+    private boolean writeStreamingResponse(final Http11OutputBuffer outputStream, final ResponseBody body,
+                                           final boolean keepAlive, final boolean http10) throws IOException {
+        final boolean head = request.methodEquals("HEAD");
+        if (response.getContentLength() >= 0) {
+            writeResponseHead(outputStream, keepAlive, http10);
+            if (!head) {
+                body.writeTo(new NonClosingOutputStream(outputStream));
             }
+            return keepAlive;
+        }
+        if (http10) {
+            writeResponseHead(outputStream, false, true);
+            if (!head) {
+                body.writeTo(new NonClosingOutputStream(outputStream));
+            }
+            return false;
+        }
+        response.addHeader("Transfer-Encoding", "chunked");
+        writeResponseHead(outputStream, keepAlive, false);
+        if (head) {
+            return keepAlive;
+        }
+        final ByteBuffer chunkBuffer = bufferPool.acquire(OUTPUT_BUFFER_SIZE);
+        try (final var chunkedStream = new ChunkedOutputStream(outputStream, chunkBuffer.array())) {
+            body.writeTo(chunkedStream);
+        } finally {
+            bufferPool.release(chunkBuffer);
+        }
+        return keepAlive;
+    }
+
+    private void writeResponse(final Http11OutputBuffer outputStream, final byte[] responseBodyBytes,
+                               final boolean keepAlive, final boolean http10) throws IOException {
+        response.setContentLength(responseBodyBytes.length);
+        writeResponseHead(outputStream, keepAlive, http10);
+        if (!request.methodEquals("HEAD")) {
+            outputStream.write(responseBodyBytes);
+        }
+    }
+
+    private void writeResponseHead(final Http11OutputBuffer outputStream, final boolean keepAlive,
+                                   final boolean http10) throws IOException {
+        outputStream.sendStatus(response.getStatus());
+        if (response.getContentType() != null) {
+            outputStream.sendContentType(response.getContentType());
+        }
+        if (response.getContentLength() >= 0) {
+            outputStream.sendContentLength(response.getContentLength());
+        }
+        for (int i = 0; i < response.getHeaderCount(); i++) {
+            outputStream.sendHeader(response.getHeaderName(i), response.getHeaderValue(i));
+        }
+        outputStream.sendDate();
+        if (!keepAlive) {
+            outputStream.sendConnection(false);
+        } else if (http10) {
+            outputStream.sendConnection(true);
+        }
+        outputStream.endHeaders();
+    }
+
+    private boolean isKeepAlive(final Request request) {
+        final int maxKeepAliveRequests = protocol.getMaxKeepAliveRequests();
+        if (maxKeepAliveRequests != -1 && requestCount >= maxKeepAliveRequests) {
+            return false;
+        }
+        if (request.headerContainsToken("Connection", "close")) {
+            return false;
+        }
+        if (request.protocolEquals("HTTP/1.0")) {
+            return request.headerContainsToken("Connection", "keep-alive");
         }
-        return requestHeaders;
+        return true;
     }
 }
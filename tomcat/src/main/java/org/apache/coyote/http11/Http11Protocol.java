@@ -0,0 +1,256 @@
+package org.apache.coyote.http11;
+
+import org.apache.catalina.AccessLog;
+import org.apache.catalina.mapper.Mapper;
+import org.apache.catalina.session.StandardManager;
+import org.apache.catalina.webresources.StaticResourceCache;
+import org.apache.tomcat.util.buf.ByteBufferPool;
+import org.apache.tomcat.util.metrics.ServerMetrics;
+
+import java.net.Socket;
+
+/**
+ * HTTP/1.1 protocol settings shared by every {@link Http11Processor} a
+ * connector creates.
+ * <p>
+ * Every setting has a default and can be changed with its setter until the
+ * connector is started. Invalid values fall back to the default.
+ */
+public class Http11Protocol {
+
+    private static final int DEFAULT_KEEP_ALIVE_TIMEOUT = 20_000;
+    private static final int DEFAULT_MAX_KEEP_ALIVE_REQUESTS = 100;
+    private static final int DEFAULT_MAX_HTTP_HEADER_SIZE = 8 * 1024;
+    private static final int DEFAULT_MAX_HEADER_COUNT = 100;
+    private static final int DEFAULT_MAX_POST_SIZE = 2 * 1024 * 1024;
+    private static final String DEFAULT_CONTROLLER_PACKAGE = "com.techcourse";
+    private static final boolean DEFAULT_TCP_NO_DELAY = true;
+
+    private final ByteBufferPool bufferPool;
+    private final ServerMetrics metrics;
+    // 설정은 커넥터를 시작하기 전에만 바꾸고, 스레드를 시작하면서 워커에 보이게 되므로 volatile 이 필요 없다.
+    private int keepAliveTimeout;
+    private int maxKeepAliveRequests;
+    private int maxHttpHeaderSize;
+    private int maxHeaderCount;
+    private StaticResourceCache resourceCache;
+    private int maxPostSize;
+    private StandardManager sessionManager;
+    private Mapper mapper;
+    private boolean tcpNoDelay;
+    private AccessLog accessLog;
+
+    public Http11Protocol() {
+        this.keepAliveTimeout = DEFAULT_KEEP_ALIVE_TIMEOUT;
+        this.maxKeepAliveRequests = DEFAULT_MAX_KEEP_ALIVE_REQUESTS;
+        this.maxHttpHeaderSize = DEFAULT_MAX_HTTP_HEADER_SIZE;
+        this.maxHeaderCount = DEFAULT_MAX_HEADER_COUNT;
+        this.resourceCache = new StaticResourceCache();
+        this.maxPostSize = DEFAULT_MAX_POST_SIZE;
+        this.sessionManager = new StandardManager();
+        this.mapper = DefaultMapperHolder.MAPPER;
+        this.tcpNoDelay = DEFAULT_TCP_NO_DELAY;
+        this.accessLog = null;
+        this.bufferPool = new ByteBufferPool();
+        this.metrics = new ServerMetrics();
+        metrics.registerGauge("buffer_pool_borrowed_buffers", "Pooled buffers in use",
+                bufferPool::getBorrowedCount);
+        metrics.registerGauge("buffer_pool_allocated_buffers", "Buffers the pool had to allocate",
+                bufferPool::getAllocateCount);
+        metrics.registerGauge("buffer_pool_pooled_bytes", "Bytes held by the pool for reuse",
+                bufferPool::getPooledBytes);
+    }
+
+    /**
+     * Starts the background work shared by the connections, such as expiring
+     * idle sessions.
+     */
+    public void start() {
+        sessionManager.start();
+        if (accessLog != null) {
+            accessLog.start();
+        }
+    }
+
+    public void stop() {
+        sessionManager.stop();
+        if (accessLog != null) {
+            accessLog.stop();
+        }
+    }
+
+    public Http11Processor createProcessor(final Socket connection) {
+        return new Http11Processor(connection, this);
+    }
+
+    public int getKeepAliveTimeout() {
+        return keepAliveTimeout;
+    }
+
+    /**
+     * @param keepAliveTimeout milliseconds to wait for the next request on an
+     *                         idle persistent connection
+     */
+    public void setKeepAliveTimeout(final int keepAliveTimeout) {
+        this.keepAliveTimeout = checkKeepAliveTimeout(keepAliveTimeout);
+    }
+
+    public int getMaxKeepAliveRequests() {
+        return maxKeepAliveRequests;
+    }
+
+    /**
+     * @param maxKeepAliveRequests maximum number of requests served on one
+     *                             connection; <code>1</code> disables keep-alive
+     *                             and <code>-1</code> means unlimited
+     */
+    public void setMaxKeepAliveRequests(final int maxKeepAliveRequests) {
+        this.maxKeepAliveRequests = checkMaxKeepAliveRequests(maxKeepAliveRequests);
+    }
+
+    public int getMaxHttpHeaderSize() {
+        return maxHttpHeaderSize;
+    }
+
+    /**
+     * @param maxHttpHeaderSize maximum size in bytes of the request line and
+     *                          headers together
+     */
+    public void setMaxHttpHeaderSize(final int maxHttpHeaderSize) {
+        this.maxHttpHeaderSize = checkPositive(maxHttpHeaderSize, DEFAULT_MAX_HTTP_HEADER_SIZE);
+    }
+
+    public int getMaxHeaderCount() {
+        return maxHeaderCount;
+    }
+
+    /**
+     * @param maxHeaderCount maximum number of request headers
+     */
+    public void setMaxHeaderCount(final int maxHeaderCount) {
+        this.maxHeaderCount = checkPositive(maxHeaderCount, DEFAULT_MAX_HEADER_COUNT);
+    }
+
+    public int getMaxPostSize() {
+        return maxPostSize;
+    }
+
+    /**
+     * @param maxPostSize maximum size in bytes of a request body; larger
+     *                    requests are rejected with 413
+     */
+    public void setMaxPostSize(final int maxPostSize) {
+        this.maxPostSize = checkPositive(maxPostSize, DEFAULT_MAX_POST_SIZE);
+    }
+
+    public StandardManager getSessionManager() {
+        return sessionManager;
+    }
+
+    /**
+     * @param sessionManager manager of the sessions of every connection, for
+     *                       example a {@link org.apache.catalina.session.PersistentManager}
+     *                       that keeps them across restarts
+     */
+    public void setSessionManager(final StandardManager sessionManager) {
+        this.sessionManager = sessionManager;
+    }
+
+    public Mapper getMapper() {
+        return mapper;
+    }
+
+    /**
+     * @param mapper table of the handlers of the application, built once and
+     *               shared by every connection
+     */
+    public void setMapper(final Mapper mapper) {
+        this.mapper = mapper;
+    }
+
+    /**
+     * @return the access log, or <code>null</code> if requests are not logged
+     */
+    public AccessLog getAccessLog() {
+        return accessLog;
+    }
+
+    /**
+     * @param accessLog log of the requests served, for example an
+     *                  {@link org.apache.catalina.valves.AsyncFileAccessLog},
+     *                  or <code>null</code> to log nothing
+     */
+    public void setAccessLog(final AccessLog accessLog) {
+        this.accessLog = accessLog;
+    }
+
+    public boolean isTcpNoDelay() {
+        return tcpNoDelay;
+    }
+
+    /**
+     * @param tcpNoDelay whether to set TCP_NODELAY on accepted connections.
+     *                   Responses are written with as few writes as possible,
+     *                   so Nagle's algorithm would only delay their last packet.
+     */
+    public void setTcpNoDelay(final boolean tcpNoDelay) {
+        this.tcpNoDelay = tcpNoDelay;
+    }
+
+    /**
+     * @return pool of the read and write buffers of every connection
+     */
+    public ByteBufferPool getBufferPool() {
+        return bufferPool;
+    }
+
+    /**
+     * @return instrumentation of the connections and requests, served at
+     *         <code>/metrics</code>
+     */
+    public ServerMetrics getMetrics() {
+        return metrics;
+    }
+
+    public StaticResourceCache getResourceCache() {
+        return resourceCache;
+    }
+
+    /**
+     * @param resourceCache cache of the static resources, shared by every
+     *                      connection of the connector
+     */
+    public void setResourceCache(final StaticResourceCache resourceCache) {
+        this.resourceCache = resourceCache;
+    }
+
+    private int checkKeepAliveTimeout(final int keepAliveTimeout) {
+        if (keepAliveTimeout < 1) {
+            return DEFAULT_KEEP_ALIVE_TIMEOUT;
+        }
+        return keepAliveTimeout;
+    }
+
+    private int checkMaxKeepAliveRequests(final int maxKeepAliveRequests) {
+        if (maxKeepAliveRequests == 0 || maxKeepAliveRequests < -1) {
+            return DEFAULT_MAX_KEEP_ALIVE_REQUESTS;
+        }
+        return maxKeepAliveRequests;
+    }
+
+    private int checkPositive(final int value, final int defaultValue) {
+        if (value < 1) {
+            return defaultValue;
+        }
+        return value;
+    }
+
+    /**
+     * 핸들러 표는 불변이므로 기본 패키지는 처음 필요할 때 한 번만 스캔하고 모든 프로토콜이 공유한다.
+     * 연결마다 만들어지는 기본 프로토콜도 클래스 패스를 다시 훑지 않는다.
+     */
+    private static final class DefaultMapperHolder {
+
+        private static final Mapper MAPPER = Mapper.scan(DEFAULT_CONTROLLER_PACKAGE);
+    }
+}
@@ -0,0 +1,37 @@
+package org.apache.coyote.http11;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Hands the connection's output to a {@link org.apache.coyote.ResponseBody}
+ * without letting it close the connection.
+ */
+class NonClosingOutputStream extends OutputStream {
+
+    private final OutputStream outputStream;
+
+    NonClosingOutputStream(final OutputStream outputStream) {
+        this.outputStream = outputStream;
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        outputStream.write(b);
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        outputStream.write(b, off, len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        outputStream.flush();
+    }
+
+    @Override
+    public void close() {
+        // 본문이 끝나도 연결은 프로세서가 관리한다.
+    }
+}
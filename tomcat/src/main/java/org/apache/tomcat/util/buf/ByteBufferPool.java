@@ -0,0 +1,208 @@
+package org.apache.tomcat.util.buf;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool of heap {@link ByteBuffer}s shared by every connection of a connector.
+ * <p>
+ * Buffers come in power-of-two size classes from {@value #MIN_BUFFER_SIZE} to
+ * {@value #MAX_BUFFER_SIZE} bytes; a request is served from the smallest
+ * class that fits. Each platform thread keeps one released buffer per class
+ * for itself, so a worker that borrows and returns buffers for one connection
+ * after another rarely touches the shared stacks. Virtual threads are
+ * created per connection and go straight to the shared stacks.
+ * <p>
+ * The shared stacks hold at most <code>maxPooledBytes</code> bytes; buffers
+ * released beyond that, and buffers larger than the largest class, are left
+ * to the garbage collector.
+ */
+public class ByteBufferPool {
+
+    public static final int MIN_BUFFER_SIZE = 1024;
+    public static final int MAX_BUFFER_SIZE = 64 * 1024;
+    private static final int MIN_SHIFT = Integer.numberOfTrailingZeros(MIN_BUFFER_SIZE);
+    private static final int SIZE_CLASSES = Integer.numberOfTrailingZeros(MAX_BUFFER_SIZE) - MIN_SHIFT + 1;
+    private static final long DEFAULT_MAX_POOLED_BYTES = 16L * 1024 * 1024;
+
+    private final long maxPooledBytes;
+    private final BufferStack[] stacks;
+    private final ThreadLocal<ByteBuffer[]> threadCache;
+    private final AtomicLong pooledBytes;
+    private final LongAdder acquireCount;
+    private final LongAdder allocateCount;
+    private final LongAdder releaseCount;
+    private final LongAdder discardCount;
+    private final LongAdder threadCacheHitCount;
+
+    public ByteBufferPool() {
+        this(DEFAULT_MAX_POOLED_BYTES);
+    }
+
+    /**
+     * @param maxPooledBytes maximum number of bytes kept in the shared stacks
+     */
+    public ByteBufferPool(final long maxPooledBytes) {
+        this.maxPooledBytes = maxPooledBytes < 0 ? DEFAULT_MAX_POOLED_BYTES : maxPooledBytes;
+        this.stacks = new BufferStack[SIZE_CLASSES];
+        for (int i = 0; i < SIZE_CLASSES; i++) {
+            stacks[i] = new BufferStack();
+        }
+        this.threadCache = ThreadLocal.withInitial(() -> new ByteBuffer[SIZE_CLASSES]);
+        this.pooledBytes = new AtomicLong();
+        this.acquireCount = new LongAdder();
+        this.allocateCount = new LongAdder();
+        this.releaseCount = new LongAdder();
+        this.discardCount = new LongAdder();
+        this.threadCacheHitCount = new LongAdder();
+    }
+
+    /**
+     * @return a cleared buffer with a backing array of at least
+     *         <code>minCapacity</code> bytes. Its capacity may be larger.
+     */
+    public ByteBuffer acquire(final int minCapacity) {
+        acquireCount.increment();
+        final int sizeClass = sizeClassOf(minCapacity);
+        if (sizeClass < 0) {
+            allocateCount.increment();
+            return ByteBuffer.allocate(minCapacity);
+        }
+        if (!Thread.currentThread().isVirtual()) {
+            final ByteBuffer[] cache = threadCache.get();
+            final ByteBuffer cached = cache[sizeClass];
+            if (cached != null) {
+                cache[sizeClass] = null;
+                threadCacheHitCount.increment();
+                return cached;
+            }
+        }
+        final ByteBuffer pooled = stacks[sizeClass].pop();
+        if (pooled != null) {
+            pooledBytes.addAndGet(-pooled.capacity());
+            return pooled;
+        }
+        allocateCount.increment();
+        return ByteBuffer.allocate(MIN_BUFFER_SIZE << sizeClass);
+    }
+
+    /**
+     * Gives a buffer back to the pool. The caller must not use it afterwards.
+     */
+    public void release(final ByteBuffer buffer) {
+        if (buffer == null) {
+            return;
+        }
+        releaseCount.increment();
+        final int sizeClass = sizeClassOf(buffer.capacity());
+        // 크기가 등급과 정확히 같은 힙 버퍼만 받는다. slice 나 wrap 으로 만든 버퍼는 배열을 공유할 수 있다.
+        if (sizeClass < 0 || buffer.capacity() != MIN_BUFFER_SIZE << sizeClass || !buffer.hasArray()
+                || buffer.arrayOffset() != 0 || buffer.isReadOnly()) {
+            discardCount.increment();
+            return;
+        }
+        buffer.clear();
+        if (!Thread.currentThread().isVirtual()) {
+            final ByteBuffer[] cache = threadCache.get();
+            if (cache[sizeClass] == null) {
+                cache[sizeClass] = buffer;
+                return;
+            }
+        }
+        if (pooledBytes.addAndGet(buffer.capacity()) > maxPooledBytes) {
+            pooledBytes.addAndGet(-buffer.capacity());
+            discardCount.increment();
+            return;
+        }
+        stacks[sizeClass].push(buffer);
+    }
+
+    /**
+     * @return number of buffers handed out, including the newly allocated ones
+     */
+    public long getAcquireCount() {
+        return acquireCount.sum();
+    }
+
+    /**
+     * @return number of buffers that could not be reused and were allocated
+     */
+    public long getAllocateCount() {
+        return allocateCount.sum();
+    }
+
+    public long getReleaseCount() {
+        return releaseCount.sum();
+    }
+
+    /**
+     * @return number of released buffers left to the garbage collector
+     */
+    public long getDiscardCount() {
+        return discardCount.sum();
+    }
+
+    /**
+     * @return number of buffers served from the cache of the calling thread
+     */
+    public long getThreadCacheHitCount() {
+        return threadCacheHitCount.sum();
+    }
+
+    /**
+     * @return number of buffers acquired and not released yet
+     */
+    public long getBorrowedCount() {
+        return acquireCount.sum() - releaseCount.sum();
+    }
+
+    /**
+     * @return number of bytes held by the shared stacks, not counting the
+     *         buffers cached by threads
+     */
+    public long getPooledBytes() {
+        return pooledBytes.get();
+    }
+
+    private static int sizeClassOf(final int capacity) {
+        if (capacity > MAX_BUFFER_SIZE) {
+            return -1;
+        }
+        if (capacity <= MIN_BUFFER_SIZE) {
+            return 0;
+        }
+        // capacity 이상인 가장 작은 2의 거듭제곱의 지수
+        return 32 - Integer.numberOfLeadingZeros(capacity - 1) - MIN_SHIFT;
+    }
+
+    /**
+     * 배열로 된 스택. 노드를 만들지 않으므로 반납할 때도 메모리를 할당하지 않는다.
+     * 잠그는 구간에서 I/O 를 하지 않으므로 가상 스레드가 고정되어도 짧게 끝난다.
+     */
+    private static final class BufferStack {
+
+        private static final int INITIAL_CAPACITY = 16;
+
+        private ByteBuffer[] buffers = new ByteBuffer[INITIAL_CAPACITY];
+        private int size;
+
+        synchronized void push(final ByteBuffer buffer) {
+            if (size == buffers.length) {
+                final var grown = new ByteBuffer[size * 2];
+                System.arraycopy(buffers, 0, grown, 0, size);
+                buffers = grown;
+            }
+            buffers[size++] = buffer;
+        }
+
+        synchronized ByteBuffer pop() {
+            if (size == 0) {
+                return null;
+            }
+            final ByteBuffer buffer = buffers[--size];
+            buffers[size] = null;
+            return buffer;
+        }
+    }
+}
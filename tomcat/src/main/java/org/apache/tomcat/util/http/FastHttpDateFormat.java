@@ -0,0 +1,48 @@
+package org.apache.tomcat.util.http;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * Formats HTTP dates (IMF-fixdate, RFC 9110 5.6.7). The current date, sent in
+ * the <code>Date</code> header of every response, is formatted at most once
+ * per second and shared by every thread.
+ */
+public final class FastHttpDateFormat {
+
+    // RFC_1123_DATE_TIME 은 한 자리 날짜 앞에 0 을 붙이지 않으므로 IMF-fixdate 형식을 직접 지정한다.
+    private static final DateTimeFormatter FORMAT = DateTimeFormatter
+            .ofPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US)
+            .withZone(ZoneOffset.UTC);
+
+    private static volatile CurrentDate currentDate = new CurrentDate(Long.MIN_VALUE, null);
+
+    private FastHttpDateFormat() {
+    }
+
+    /**
+     * @return the current time formatted as an HTTP date
+     */
+    public static String getCurrentDate() {
+        final long second = System.currentTimeMillis() / 1000;
+        CurrentDate cached = currentDate;
+        if (cached.second() != second) {
+            // 여러 스레드가 동시에 새로 만들어도 같은 값이므로 잠그지 않는다.
+            cached = new CurrentDate(second, FORMAT.format(Instant.ofEpochSecond(second)));
+            currentDate = cached;
+        }
+        return cached.value();
+    }
+
+    /**
+     * @param millis time in milliseconds since the epoch
+     */
+    public static String formatDate(final long millis) {
+        return FORMAT.format(Instant.ofEpochMilli(millis));
+    }
+
+    private record CurrentDate(long second, String value) {
+    }
+}
@@ -0,0 +1,134 @@
+package org.apache.tomcat.util.http;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Request parameters decoded from <code>application/x-www-form-urlencoded</code>
+ * content.
+ * <p>
+ * The content is decoded incrementally while it arrives, so a form body is
+ * never collected in memory as a whole: only the name or value currently
+ * being decoded is buffered. An instance is reused for every request of a
+ * connection; call {@link #recycle()} before decoding the next content.
+ */
+public final class Parameters {
+
+    private static final int INITIAL_FIELD_SIZE = 64;
+
+    private final Map<String, String> values;
+    private byte[] field;
+    private int fieldLength;
+    private String name;
+    private int percentDigits;
+    private int percentValue;
+
+    public Parameters() {
+        this.values = new HashMap<>();
+        this.field = new byte[INITIAL_FIELD_SIZE];
+        recycle();
+    }
+
+    public void recycle() {
+        values.clear();
+        fieldLength = 0;
+        name = null;
+        percentDigits = -1;
+        percentValue = 0;
+    }
+
+    /**
+     * Decodes the next part of the content. A name, value or escape sequence
+     * may be split across calls.
+     *
+     * @throws IllegalArgumentException if the content contains an invalid
+     *                                  escape sequence
+     */
+    public void decode(final byte[] bytes, final int offset, final int length) {
+        for (int i = offset; i < offset + length; i++) {
+            final byte b = bytes[i];
+            if (percentDigits >= 0) {
+                decodePercent(b);
+            } else if (b == '%') {
+                percentDigits = 0;
+                percentValue = 0;
+            } else if (b == '+') {
+                append((byte) ' ');
+            } else if (b == '=' && name == null) {
+                name = takeField();
+            } else if (b == '&') {
+                endParameter();
+            } else {
+                append(b);
+            }
+        }
+    }
+
+    /**
+     * Completes the last parameter once the content has ended.
+     *
+     * @throws IllegalArgumentException if the content ends inside an escape
+     *                                  sequence
+     */
+    public void finish() {
+        if (percentDigits >= 0) {
+            throw new IllegalArgumentException("Incomplete percent-encoding in form content");
+        }
+        endParameter();
+    }
+
+    /**
+     * @return the first value of the parameter, or <code>null</code> if the
+     *         content has no such parameter
+     */
+    public String getParameter(final String name) {
+        return values.get(name);
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    private void decodePercent(final byte b) {
+        final int digit = Character.digit(b, 16);
+        if (digit < 0) {
+            throw new IllegalArgumentException("Invalid percent-encoding in form content");
+        }
+        percentValue = percentValue * 16 + digit;
+        if (++percentDigits == 2) {
+            append((byte) percentValue);
+            percentDigits = -1;
+        }
+    }
+
+    private void endParameter() {
+        if (name == null && fieldLength == 0) {
+            // "a=1&&b=2" 처럼 비어 있는 항목은 건너뛴다.
+            return;
+        }
+        final String value;
+        if (name == null) {
+            name = takeField();
+            value = "";
+        } else {
+            value = takeField();
+        }
+        values.putIfAbsent(name, value);
+        name = null;
+    }
+
+    private void append(final byte b) {
+        if (fieldLength == field.length) {
+            field = Arrays.copyOf(field, field.length * 2);
+        }
+        field[fieldLength++] = b;
+    }
+
+    private String takeField() {
+        final String decoded = new String(field, 0, fieldLength, StandardCharsets.UTF_8);
+        fieldLength = 0;
+        return decoded;
+    }
+}
@@ -0,0 +1,50 @@
+package org.apache.tomcat.util.metrics;
+
+import org.apache.coyote.HttpStatus;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Request counts per status, bytes sent and latency of one route.
+ */
+public final class RouteMetrics {
+
+    private static final HttpStatus[] STATUSES = HttpStatus.values();
+
+    private final String route;
+    private final LongAdder[] statusCounts;
+    private final LongAdder bytesWritten;
+    private final LatencyHistogram latency;
+
+    RouteMetrics(final String route) {
+        this.route = route;
+        this.statusCounts = new LongAdder[STATUSES.length];
+        for (int i = 0; i < STATUSES.length; i++) {
+            statusCounts[i] = new LongAdder();
+        }
+        this.bytesWritten = new LongAdder();
+        this.latency = new LatencyHistogram();
+    }
+
+    void record(final HttpStatus status, final long bytes, final long nanos) {
+        statusCounts[status.ordinal()].increment();
+        bytesWritten.add(bytes);
+        latency.recordNanos(nanos);
+    }
+
+    public String getRoute() {
+        return route;
+    }
+
+    public long getCount(final HttpStatus status) {
+        return statusCounts[status.ordinal()].sum();
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+}
@@ -0,0 +1,162 @@
+package org.apache.tomcat.util.metrics;
+
+import org.apache.coyote.HttpStatus;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Instrumentation of a connector: per-route request metrics, the number of
+ * open connections and busy workers, and gauges registered by the parts of
+ * the connector that own the values, such as the worker queue.
+ * <p>
+ * Recording only touches striped counters, so request threads do not
+ * contend with each other. {@link #writeTo(StringBuilder)} renders everything
+ * in the Prometheus text exposition format.
+ */
+public final class ServerMetrics {
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+
+    private final Map<String, RouteMetrics> routes;
+    private final List<Gauge> gauges;
+    private final LongAdder activeConnections;
+    private final LongAdder busyWorkers;
+
+    public ServerMetrics() {
+        this.routes = new ConcurrentHashMap<>();
+        this.gauges = new CopyOnWriteArrayList<>();
+        this.activeConnections = new LongAdder();
+        this.busyWorkers = new LongAdder();
+    }
+
+    /**
+     * @param route name of the route, for example <code>GET /login</code>.
+     *              The number of routes must stay small, so request paths
+     *              that are not routes should share one name.
+     * @param nanos time taken to serve the request
+     */
+    public void record(final String route, final HttpStatus status, final long bytes, final long nanos) {
+        RouteMetrics metrics = routes.get(route);
+        if (metrics == null) {
+            metrics = routes.computeIfAbsent(route, RouteMetrics::new);
+        }
+        metrics.record(status, bytes, nanos);
+    }
+
+    /**
+     * @return metrics of <code>route</code>, or <code>null</code> if it has
+     *         not served any request
+     */
+    public RouteMetrics getRoute(final String route) {
+        return routes.get(route);
+    }
+
+    /**
+     * Adds a gauge whose value is read each time the metrics are written.
+     *
+     * @param name name of the metric, unique among the gauges
+     */
+    public void registerGauge(final String name, final String help, final LongSupplier value) {
+        gauges.removeIf(gauge -> gauge.name().equals(name));
+        gauges.add(new Gauge(name, help, value));
+    }
+
+    public void connectionOpened() {
+        activeConnections.increment();
+    }
+
+    public void connectionClosed() {
+        activeConnections.decrement();
+    }
+
+    public long getActiveConnections() {
+        return activeConnections.sum();
+    }
+
+    public void workerBusy() {
+        busyWorkers.increment();
+    }
+
+    public void workerIdle() {
+        busyWorkers.decrement();
+    }
+
+    public long getBusyWorkers() {
+        return busyWorkers.sum();
+    }
+
+    public void writeTo(final StringBuilder out) {
+        writeGauge(out, "connector_active_connections", "Open client connections",
+                activeConnections.sum());
+        writeGauge(out, "connector_busy_workers", "Threads processing a connection", busyWorkers.sum());
+        for (final Gauge gauge : gauges) {
+            writeGauge(out, gauge.name(), gauge.help(), gauge.value().getAsLong());
+        }
+        // 출력이 요청마다 같은 순서가 되도록 경로 이름순으로 쓴다.
+        final Map<String, RouteMetrics> sorted = new TreeMap<>(routes);
+        writeHeader(out, "http_requests_total", "Requests served", "counter");
+        for (final RouteMetrics metrics : sorted.values()) {
+            for (final HttpStatus status : HttpStatus.values()) {
+                final long count = metrics.getCount(status);
+                if (count > 0) {
+                    out.append("http_requests_total{route=\"").append(escape(metrics.getRoute()))
+                            .append("\",status=\"").append(status.getCode()).append("\"} ")
+                            .append(count).append('\n');
+                }
+            }
+        }
+        writeHeader(out, "http_response_bytes_total", "Bytes sent, response heads included", "counter");
+        for (final RouteMetrics metrics : sorted.values()) {
+            writeRouteSample(out, "http_response_bytes_total", metrics, null).append(metrics.getBytesWritten())
+                    .append('\n');
+        }
+        writeHeader(out, "http_request_duration_seconds", "Time taken to serve a request", "summary");
+        for (final RouteMetrics metrics : sorted.values()) {
+            final LatencyHistogram latency = metrics.getLatency();
+            for (final double quantile : QUANTILES) {
+                writeRouteSample(out, "http_request_duration_seconds", metrics, quantile)
+                        .append(seconds(latency.getValueAtPercentile(quantile * 100))).append('\n');
+            }
+            writeRouteSample(out, "http_request_duration_seconds_sum", metrics, null)
+                    .append(seconds(latency.getSum())).append('\n');
+            writeRouteSample(out, "http_request_duration_seconds_count", metrics, null)
+                    .append(latency.getCount()).append('\n');
+        }
+    }
+
+    private void writeGauge(final StringBuilder out, final String name, final String help, final long value) {
+        writeHeader(out, name, help, "gauge");
+        out.append(name).append(' ').append(value).append('\n');
+    }
+
+    private void writeHeader(final StringBuilder out, final String name, final String help, final String type) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private StringBuilder writeRouteSample(final StringBuilder out, final String name, final RouteMetrics metrics,
+                                           final Double quantile) {
+        out.append(name).append("{route=\"").append(escape(metrics.getRoute())).append('"');
+        if (quantile != null) {
+            out.append(",quantile=\"").append(quantile).append('"');
+        }
+        return out.append("} ");
+    }
+
+    private static String seconds(final long micros) {
+        return Double.toString(micros / 1_000_000.0);
+    }
+
+    private static String escape(final String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private record Gauge(String name, String help, LongSupplier value) {
+    }
+}
@@ -0,0 +1,105 @@
+package org.apache.tomcat.util.net;
+
+import org.apache.coyote.Processor;
+import org.apache.coyote.SocketState;
+import org.apache.tomcat.util.buf.ByteBufferPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Non-blocking connection registered with a {@link Poller}. Holds the
+ * processor of the connection, so the connection does not need a thread
+ * while it is waiting for data.
+ * <p>
+ * The read buffer is borrowed from the connector's {@link ByteBufferPool}
+ * when data arrives and given back as soon as every byte in it has been
+ * consumed, so idle keep-alive connections hold no buffer at all.
+ */
+public class NioChannel {
+
+    private static final Logger log = LoggerFactory.getLogger(NioChannel.class);
+
+    private final SocketChannel socketChannel;
+    private final Processor processor;
+    private final ByteBufferPool bufferPool;
+    private final int readBufferSize;
+    // 워커와 Poller 가 번갈아 다루며, 넘겨줄 때 큐와 Selector 를 거치므로 volatile 이 필요 없다.
+    private ByteBuffer readBuffer;
+    private volatile long lastAccess;
+
+    /**
+     * @param readBufferSize size of the read buffer; it must hold the largest
+     *                       request head the processor accepts, so that an
+     *                       oversized head is rejected by the processor
+     */
+    public NioChannel(final SocketChannel socketChannel, final Processor processor,
+                      final ByteBufferPool bufferPool, final int readBufferSize) {
+        this.socketChannel = socketChannel;
+        this.processor = processor;
+        this.bufferPool = bufferPool;
+        this.readBufferSize = readBufferSize;
+        this.lastAccess = System.currentTimeMillis();
+    }
+
+    /**
+     * 읽을 수 있는 만큼 읽어 프로세서에 넘긴다. 워커 스레드에서 호출된다.
+     */
+    SocketState process() {
+        if (readBuffer == null) {
+            readBuffer = bufferPool.acquire(readBufferSize);
+        }
+        try {
+            final int read = socketChannel.read(readBuffer);
+            if (read < 0) {
+                return SocketState.CLOSED;
+            }
+            final SocketState state = processor.process(socketChannel, readBuffer);
+            if (state == SocketState.OPEN && !readBuffer.hasRemaining()) {
+                // 헤드가 너무 크면 프로세서가 400 으로 거절하므로 여기까지 오면 더 읽을 자리가 없는 경우뿐이다.
+                log.warn("Read buffer of {} bytes is full, closing connection.", readBufferSize);
+                return SocketState.CLOSED;
+            }
+            if (readBuffer.position() == 0) {
+                // 남은 바이트가 없으면 다음 데이터가 올 때까지 버퍼를 풀에 돌려준다.
+                releaseReadBuffer();
+            }
+            return state;
+        } catch (IOException e) {
+            log.debug(e.getMessage(), e);
+            return SocketState.CLOSED;
+        }
+    }
+
+    void access() {
+        lastAccess = System.currentTimeMillis();
+    }
+
+    boolean isIdleLongerThan(final long now, final long timeoutMillis) {
+        return now - lastAccess > timeoutMillis;
+    }
+
+    SocketChannel getSocketChannel() {
+        return socketChannel;
+    }
+
+    void close() {
+        try {
+            socketChannel.close();
+        } catch (IOException e) {
+            log.debug(e.getMessage(), e);
+        }
+        processor.recycle();
+        releaseReadBuffer();
+    }
+
+    private void releaseReadBuffer() {
+        if (readBuffer != null) {
+            bufferPool.release(readBuffer);
+            readBuffer = null;
+        }
+    }
+}
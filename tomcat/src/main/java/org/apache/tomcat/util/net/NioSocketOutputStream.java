@@ -0,0 +1,86 @@
+package org.apache.tomcat.util.net;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Blocking {@link OutputStream} view of a non-blocking {@link SocketChannel}.
+ * When the socket send buffer is full the calling worker waits for the channel
+ * to become writable on a selector of its own, so the poller's selector is
+ * never touched from a worker thread.
+ */
+public class NioSocketOutputStream extends OutputStream {
+
+    private static final long WRITE_TIMEOUT_MILLIS = 20_000L;
+
+    private final SocketChannel channel;
+
+    public NioSocketOutputStream(final SocketChannel channel) {
+        this.channel = channel;
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        write(ByteBuffer.wrap(b, off, len));
+    }
+
+    public void write(final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.write(buffer) == 0) {
+                awaitWritable();
+            }
+        }
+    }
+
+    /**
+     * Writes every remaining byte of <code>buffers</code>, in order, with
+     * gathering writes.
+     */
+    public void write(final ByteBuffer[] buffers) throws IOException {
+        final ByteBuffer last = buffers[buffers.length - 1];
+        while (last.hasRemaining()) {
+            if (channel.write(buffers) == 0) {
+                awaitWritable();
+            }
+        }
+    }
+
+    /**
+     * Sends part of a file with {@link FileChannel#transferTo}, waiting for the
+     * socket to become writable whenever its send buffer is full.
+     */
+    public void transferFrom(final FileChannel file, final long position, final long count) throws IOException {
+        long transferred = 0;
+        while (transferred < count) {
+            final long written = file.transferTo(position + transferred, count - transferred, channel);
+            if (written == 0) {
+                if (file.size() <= position + transferred) {
+                    throw new IOException("File was truncated while it was being sent");
+                }
+                awaitWritable();
+            }
+            transferred += written;
+        }
+    }
+
+    private void awaitWritable() throws IOException {
+        // 송신 버퍼가 가득 찰 때만 열리므로 스레드마다 들고 있지 않고 기다릴 때마다 열고 닫는다.
+        try (final Selector selector = Selector.open()) {
+            channel.register(selector, SelectionKey.OP_WRITE);
+            if (selector.select(WRITE_TIMEOUT_MILLIS) == 0) {
+                throw new SocketTimeoutException("Write timed out after " + WRITE_TIMEOUT_MILLIS + "ms");
+            }
+        }
+    }
+}
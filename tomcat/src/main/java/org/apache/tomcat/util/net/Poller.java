@@ -0,0 +1,164 @@
+package org.apache.tomcat.util.net;
+
+import org.apache.coyote.SocketState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Poller thread of the NIO endpoint. Waits on a {@link Selector} for
+ * registered connections to become readable and hands each ready connection
+ * to the worker executor. While a worker processes a connection its read
+ * interest is cleared; the worker re-registers the connection when it is
+ * done, so a connection is never processed by two workers at once.
+ * <p>
+ * Connections that wait for their next request longer than the keep-alive
+ * timeout are closed by the poller itself, roughly once per second.
+ */
+public class Poller implements Runnable {
+
+    private static final Logger log = LoggerFactory.getLogger(Poller.class);
+
+    private static final long SELECTOR_TIMEOUT_MILLIS = 1_000L;
+
+    private final Selector selector;
+    private final Executor executor;
+    private final Queue<NioChannel> events;
+    private final long keepAliveTimeout;
+    private long nextExpiration;
+    private volatile boolean running;
+
+    public Poller(final Executor executor, final long keepAliveTimeout) {
+        this.selector = openSelector();
+        this.executor = executor;
+        this.events = new ConcurrentLinkedQueue<>();
+        this.keepAliveTimeout = keepAliveTimeout;
+        this.nextExpiration = 0L;
+        this.running = true;
+    }
+
+    private Selector openSelector() {
+        try {
+            return Selector.open();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 연결이 다시 읽기 이벤트를 기다리도록 등록한다. 어느 스레드에서든 호출할 수 있다.
+     */
+    public void register(final NioChannel channel) {
+        channel.access();
+        events.offer(channel);
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                selector.select(SELECTOR_TIMEOUT_MILLIS);
+                processEvents();
+                processSelectedKeys();
+                timeout();
+            } catch (IOException | RuntimeException e) {
+                log.error(e.getMessage(), e);
+            }
+        }
+        closeAll();
+    }
+
+    private void processEvents() {
+        NioChannel channel;
+        while ((channel = events.poll()) != null) {
+            try {
+                final SelectionKey key = channel.getSocketChannel().keyFor(selector);
+                if (key == null) {
+                    channel.getSocketChannel().register(selector, SelectionKey.OP_READ, channel);
+                } else {
+                    key.interestOps(SelectionKey.OP_READ);
+                }
+            } catch (ClosedChannelException | CancelledKeyException e) {
+                channel.close();
+            }
+        }
+    }
+
+    private void processSelectedKeys() {
+        final Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+        while (iterator.hasNext()) {
+            final SelectionKey key = iterator.next();
+            iterator.remove();
+            final var channel = (NioChannel) key.attachment();
+            if (!key.isValid()) {
+                channel.close();
+                continue;
+            }
+            key.interestOps(0);
+            dispatch(key, channel);
+        }
+    }
+
+    private void dispatch(final SelectionKey key, final NioChannel channel) {
+        try {
+            executor.execute(() -> {
+                if (channel.process() == SocketState.OPEN) {
+                    register(channel);
+                } else {
+                    key.cancel();
+                    channel.close();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("Worker queue is full, closing connection from {}",
+                    channel.getSocketChannel().socket().getRemoteSocketAddress());
+            key.cancel();
+            channel.close();
+        }
+    }
+
+    private void timeout() {
+        final long now = System.currentTimeMillis();
+        if (now < nextExpiration) {
+            return;
+        }
+        nextExpiration = now + SELECTOR_TIMEOUT_MILLIS;
+        for (SelectionKey key : selector.keys()) {
+            final var channel = (NioChannel) key.attachment();
+            // 워커가 처리 중인 연결(interestOps == 0)은 건너뛴다.
+            if (key.isValid() && key.interestOps() == SelectionKey.OP_READ
+                    && channel.isIdleLongerThan(now, keepAliveTimeout)) {
+                key.cancel();
+                channel.close();
+            }
+        }
+    }
+
+    public void destroy() {
+        running = false;
+        selector.wakeup();
+    }
+
+    private void closeAll() {
+        for (SelectionKey key : selector.keys()) {
+            ((NioChannel) key.attachment()).close();
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            log.debug(e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package org.apache.tomcat.util.threads;
+
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * As task queue specifically designed to run with a thread pool executor. The
+ * task queue is optimised to properly utilize threads within a thread pool
+ * executor. If you use a normal queue, the executor will spawn threads when
+ * there are idle threads and you won't be able to force items onto the queue
+ * itself.
+ */
+public class TaskQueue extends LinkedBlockingQueue<Runnable> {
+
+    private transient volatile ThreadPoolExecutor parent;
+
+    public TaskQueue(final int capacity) {
+        super(capacity);
+    }
+
+    public void setParent(final ThreadPoolExecutor parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Used by the executor's rejection handler to put a task on the queue
+     * without trying to spawn a new thread first.
+     */
+    public boolean force(final Runnable task) {
+        if (parent == null || parent.isShutdown()) {
+            return false;
+        }
+        return super.offer(task);
+    }
+
+    @Override
+    public boolean offer(final Runnable task) {
+        if (parent == null) {
+            return super.offer(task);
+        }
+        // 최대 스레드 수에 도달했다면 큐에 쌓는다.
+        if (parent.getPoolSize() == parent.getMaximumPoolSize()) {
+            return super.offer(task);
+        }
+        // 아직 끝나지 않은 작업이 스레드 수보다 적다면 놀고 있는 스레드가 큐에서 가져간다.
+        if (parent.getSubmittedCount() <= parent.getPoolSize()) {
+            return super.offer(task);
+        }
+        // 스레드를 더 만들 수 있다면 false 를 반환해 executor 가 새 스레드를 만들게 한다.
+        return false;
+    }
+}
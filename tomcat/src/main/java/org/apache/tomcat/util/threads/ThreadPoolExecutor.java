@@ -0,0 +1,49 @@
+package org.apache.tomcat.util.threads;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Same as a {@link java.util.concurrent.ThreadPoolExecutor} but also counts
+ * the tasks that have been submitted and have not finished yet, so that a
+ * {@link TaskQueue} can tell exactly whether an idle thread will pick up a
+ * new task or a new thread has to be started.
+ */
+public final class ThreadPoolExecutor extends java.util.concurrent.ThreadPoolExecutor {
+
+    private final AtomicInteger submittedCount = new AtomicInteger(0);
+
+    public ThreadPoolExecutor(final int corePoolSize, final int maximumPoolSize, final long keepAliveTime,
+                              final TimeUnit unit, final TaskQueue workQueue, final ThreadFactory threadFactory,
+                              final RejectedExecutionHandler handler) {
+        super(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue, threadFactory, handler);
+        workQueue.setParent(this);
+    }
+
+    @Override
+    public void execute(final Runnable command) {
+        // 큐에 넣기 전에 세어야 TaskQueue 가 이 작업까지 포함해 스레드가 남는지 판단한다.
+        submittedCount.incrementAndGet();
+        try {
+            super.execute(command);
+        } catch (RejectedExecutionException e) {
+            submittedCount.decrementAndGet();
+            throw e;
+        }
+    }
+
+    @Override
+    protected void afterExecute(final Runnable task, final Throwable thrown) {
+        submittedCount.decrementAndGet();
+    }
+
+    /**
+     * @return number of tasks submitted that are queued or running
+     */
+    public int getSubmittedCount() {
+        return submittedCount.get();
+    }
+}
@@ -0,0 +1,271 @@
+package org.apache.catalina.connector;
+
+import org.apache.catalina.session.PersistentManager;
+import org.apache.coyote.http11.Http11Protocol;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConnectorTest {
+
+    private static final String REQUEST = "GET / HTTP/1.1\r\nHost: localhost\r\n\r\n";
+    private static final int READ_TIMEOUT_MILLIS = 5_000;
+
+    @TempDir
+    Path directory;
+
+    private Connector connector;
+
+    @AfterEach
+    void tearDown() {
+        if (connector != null) {
+            connector.stop();
+        }
+    }
+
+    @Test
+    void serveOnNamedWorkerThreads() throws IOException, InterruptedException {
+        // given
+        final int port = freePort();
+        final var protocol = new Http11Protocol();
+        final BlockingQueue<Thread> servingThreads = new LinkedBlockingQueue<>();
+        protocol.setAccessLog((request, response, time) -> servingThreads.add(Thread.currentThread()));
+        connector = new Connector(port, 100, 4, 1, 10, IoMode.BLOCKING, ThreadMode.PLATFORM, protocol);
+        connector.start();
+
+        // when
+        final String response;
+        try (final var socket = connect(port)) {
+            response = exchange(socket, REQUEST);
+        }
+
+        // then
+        assertThat(response).startsWith("HTTP/1.1 200 OK\r\n");
+        assertThat(response).endsWith("Hello world!");
+        assertThat(threadNames()).contains("http-bio-" + port + "-Acceptor");
+        final Thread servingThread = servingThreads.poll(READ_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        assertThat(servingThread.isVirtual()).isFalse();
+        assertThat(servingThread.getName()).startsWith("http-bio-" + port + "-exec-");
+    }
+
+    @Test
+    void closeConnectionWhenQueueIsFull() throws IOException {
+        // given
+        final int port = freePort();
+        connector = new Connector(port, 100, 1, 1, 1);
+        connector.start();
+
+        try (final var busy = connect(port)) {
+            // 유일한 워커가 첫 연결의 다음 요청을 기다리는 동안 두 번째 연결은 큐에서 기다린다.
+            exchange(busy, REQUEST);
+            try (final var queued = connect(port)) {
+                queued.getOutputStream().write(REQUEST.getBytes(StandardCharsets.US_ASCII));
+
+                // when
+                final int read;
+                try (final var rejected = connect(port)) {
+                    read = rejected.getInputStream().read();
+                }
+
+                // then
+                assertThat(read).isEqualTo(-1);
+            }
+        }
+    }
+
+    @Test
+    void serveOnVirtualThreads() throws IOException, InterruptedException {
+        // given
+        final int port = freePort();
+        final var protocol = new Http11Protocol();
+        final BlockingQueue<Thread> servingThreads = new LinkedBlockingQueue<>();
+        protocol.setAccessLog((request, response, time) -> servingThreads.add(Thread.currentThread()));
+        connector = new Connector(port, 100, ThreadMode.VIRTUAL, protocol);
+        connector.start();
+
+        // when
+        final String first;
+        final String second;
+        try (final var socket = connect(port)) {
+            first = exchange(socket, REQUEST);
+            second = exchange(socket, REQUEST);
+        }
+
+        // then
+        assertThat(first).endsWith("Hello world!");
+        assertThat(second).endsWith("Hello world!");
+        // 접근 로그는 요청을 처리한 스레드에서 호출된다.
+        final Thread servingThread = servingThreads.poll(READ_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        assertThat(servingThread.isVirtual()).isTrue();
+        assertThat(servingThread.getName()).startsWith("http-bio-" + port + "-virt-");
+    }
+
+    @Test
+    void rejectVirtualThreadsWithNio() throws IOException {
+        // given
+        final int port = freePort();
+
+        // when & then
+        assertThatThrownBy(() -> new Connector(port, 100, 4, 1, 10, IoMode.NIO, ThreadMode.VIRTUAL,
+                new Http11Protocol()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void serveRequestsOnOneNioConnection() throws IOException, InterruptedException {
+        // given
+        final int port = freePort();
+        final var protocol = new Http11Protocol();
+        final BlockingQueue<Thread> servingThreads = new LinkedBlockingQueue<>();
+        protocol.setAccessLog((request, response, time) -> servingThreads.add(Thread.currentThread()));
+        connector = new Connector(port, 100, 4, 1, 10, IoMode.NIO, ThreadMode.PLATFORM, protocol);
+        connector.start();
+
+        // when
+        final String first;
+        final String second;
+        try (final var socket = connect(port)) {
+            first = exchange(socket, REQUEST);
+            // 첫 응답 뒤에 poller 에 다시 등록되어야 두 번째 요청을 읽는다.
+            second = exchange(socket, REQUEST);
+        }
+
+        // then
+        assertThat(first).startsWith("HTTP/1.1 200 OK\r\n");
+        assertThat(first).endsWith("Hello world!");
+        assertThat(second).startsWith("HTTP/1.1 200 OK\r\n");
+        assertThat(second).endsWith("Hello world!");
+        assertThat(threadNames()).contains("http-nio-" + port + "-Poller-0");
+        // Poller 는 읽을 수 있는 연결을 워커에 넘기기만 하고 요청은 워커가 처리한다.
+        for (int i = 0; i < 2; i++) {
+            final Thread servingThread = servingThreads.poll(READ_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            assertThat(servingThread.getName()).startsWith("http-nio-" + port + "-exec-");
+        }
+    }
+
+    @Test
+    void acceptConfiguredHeaderSizeOnNioConnection() throws IOException {
+        // given
+        final int port = freePort();
+        final var protocol = new Http11Protocol();
+        protocol.setMaxHttpHeaderSize(16 * 1024);
+        connector = new Connector(port, 100, 4, 1, 10, IoMode.NIO, ThreadMode.PLATFORM, protocol);
+        connector.start();
+        final String largeRequest = "GET / HTTP/1.1\r\nHost: localhost\r\nX-Padding: " + "a".repeat(12 * 1024)
+                + "\r\n\r\n";
+
+        // when
+        final String response;
+        try (final var socket = connect(port)) {
+            response = exchange(socket, largeRequest);
+        }
+
+        // then
+        assertThat(response).startsWith("HTTP/1.1 200 OK\r\n");
+    }
+
+    @Test
+    void closeIdleNioConnection() throws IOException {
+        // given
+        final int port = freePort();
+        final var protocol = new Http11Protocol();
+        protocol.setKeepAliveTimeout(200);
+        connector = new Connector(port, 100, 4, 1, 10, IoMode.NIO, ThreadMode.PLATFORM, protocol);
+        connector.start();
+
+        try (final var socket = connect(port)) {
+            exchange(socket, REQUEST);
+
+            // when
+            final long start = System.nanoTime();
+            final int read = socket.getInputStream().read();
+            final long waitedMillis = (System.nanoTime() - start) / 1_000_000;
+
+            // then
+            assertThat(read).isEqualTo(-1);
+            assertThat(waitedMillis).isLessThan((long) READ_TIMEOUT_MILLIS);
+        }
+    }
+
+    @Test
+    void stopSavesSessions() throws IOException {
+        // given
+        final int port = freePort();
+        final var sessionManager = new PersistentManager(directory);
+        final var protocol = new Http11Protocol();
+        protocol.setSessionManager(sessionManager);
+        connector = new Connector(port, 100, 4, 1, 10, IoMode.BLOCKING, ThreadMode.PLATFORM, protocol);
+        connector.start();
+        final var session = sessionManager.createSession();
+
+        // when
+        connector.stop();
+        // 종료 훅이 한 번 더 호출해도 저장된 세션은 그대로 남는다.
+        connector.stop();
+
+        // then
+        final var restarted = new PersistentManager(directory);
+        restarted.start();
+        assertThat(restarted.getStoredSessions()).isEqualTo(1);
+        assertThat(restarted.findSession(session.getId())).isNotNull();
+        restarted.stop();
+    }
+
+    private static int freePort() throws IOException {
+        try (final var socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static Socket connect(final int port) throws IOException {
+        final var socket = new Socket("localhost", port);
+        socket.setSoTimeout(READ_TIMEOUT_MILLIS);
+        return socket;
+    }
+
+    /**
+     * 요청을 보내고 Content-Length 만큼의 본문까지 응답 하나를 읽는다.
+     */
+    private static String exchange(final Socket socket, final String request) throws IOException {
+        socket.getOutputStream().write(request.getBytes(StandardCharsets.US_ASCII));
+        final InputStream inputStream = socket.getInputStream();
+        final var head = new ByteArrayOutputStream();
+        while (!head.toString(StandardCharsets.US_ASCII).endsWith("\r\n\r\n")) {
+            final int b = inputStream.read();
+            if (b < 0) {
+                throw new IOException("Connection closed before the response head");
+            }
+            head.write(b);
+        }
+        final String headText = head.toString(StandardCharsets.US_ASCII);
+        int contentLength = 0;
+        for (final String line : headText.split("\r\n")) {
+            if (line.regionMatches(true, 0, "Content-Length:", 0, 15)) {
+                contentLength = Integer.parseInt(line.substring(15).strip());
+            }
+        }
+        return headText + new String(inputStream.readNBytes(contentLength), StandardCharsets.UTF_8);
+    }
+
+    private static Set<String> threadNames() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .map(Thread::getName)
+                .collect(Collectors.toSet());
+    }
+}
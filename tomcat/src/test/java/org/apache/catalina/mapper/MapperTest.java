@@ -0,0 +1,168 @@
+package org.apache.catalina.mapper;
+
+import org.apache.coyote.Request;
+import org.apache.coyote.Response;
+import org.apache.coyote.http11.Http11InputBuffer;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MapperTest {
+
+    @Test
+    void mapByMethodAndPath() {
+        // given
+        final var getLogin = new HandlerMethod("GET", "/login", (request, response) -> "/login.html");
+        final var postLogin = new HandlerMethod("POST", "/login", (request, response) -> "redirect:/index.html");
+        final var register = new HandlerMethod("GET", "/register", (request, response) -> "/register.html");
+        final var mapper = new Mapper(List.of(getLogin, postLogin, register));
+
+        // when & then
+        assertThat(mapper.map(requestOf("GET /login HTTP/1.1"))).isSameAs(getLogin);
+        assertThat(mapper.map(requestOf("POST /login HTTP/1.1"))).isSameAs(postLogin);
+        assertThat(mapper.map(requestOf("GET /register?next=/ HTTP/1.1"))).isSameAs(register);
+        assertThat(mapper.map(requestOf("PUT /login HTTP/1.1"))).isNull();
+        assertThat(mapper.map(requestOf("GET /login.html HTTP/1.1"))).isNull();
+    }
+
+    @Test
+    void mapPathVariables() {
+        // given
+        final var post = new HandlerMethod("GET", "/users/{account}/posts/{postId}", (request, response) -> "post");
+        final var mapper = new Mapper(List.of(post));
+        final Request request = requestOf("GET /users/gu%20gu/posts/42 HTTP/1.1");
+
+        // when
+        final HandlerMethod handler = mapper.map(request);
+
+        // then
+        assertThat(handler).isSameAs(post);
+        assertThat(request.getPathVariable("account")).isEqualTo("gu gu");
+        assertThat(request.getPathVariable("postId")).isEqualTo("42");
+        assertThat(request.getPathVariable("unknown")).isNull();
+        assertThat(mapper.map(requestOf("GET /users//posts/42 HTTP/1.1"))).isNull();
+        assertThat(mapper.map(requestOf("GET /users/gugu/posts HTTP/1.1"))).isNull();
+    }
+
+    @Test
+    void preferLiteralOverVariableOverWildcard() {
+        // given
+        final var literal = new HandlerMethod("GET", "/users/new", (request, response) -> "literal");
+        final var variable = new HandlerMethod("GET", "/users/{id}", (request, response) -> "variable");
+        final var wildcard = new HandlerMethod("GET", "/users/**", (request, response) -> "wildcard");
+        final var mapper = new Mapper(List.of(wildcard, variable, literal));
+
+        // when & then
+        assertThat(mapper.map(requestOf("GET /users/new HTTP/1.1"))).isSameAs(literal);
+        assertThat(mapper.map(requestOf("GET /users/newest HTTP/1.1"))).isSameAs(variable);
+        assertThat(mapper.map(requestOf("GET /users/1/posts HTTP/1.1"))).isSameAs(wildcard);
+        assertThat(mapper.map(requestOf("GET /users HTTP/1.1"))).isSameAs(wildcard);
+        assertThat(mapper.map(requestOf("GET /usersX HTTP/1.1"))).isNull();
+    }
+
+    @Test
+    void backtrackWhenMethodDoesNotMatch() {
+        // given
+        final var literal = new HandlerMethod("POST", "/users/new", (request, response) -> "literal");
+        final var variable = new HandlerMethod("GET", "/users/{id}", (request, response) -> "variable");
+        final var mapper = new Mapper(List.of(literal, variable));
+        final Request request = requestOf("GET /users/new HTTP/1.1");
+
+        // when
+        final HandlerMethod handler = mapper.map(request);
+
+        // then
+        assertThat(handler).isSameAs(variable);
+        assertThat(request.getPathVariable("id")).isEqualTo("new");
+    }
+
+    @Test
+    void mapHeadToGetRoute() {
+        // given
+        final var getLogin = new HandlerMethod("GET", "/login", (request, response) -> "/login.html");
+        final var postLogin = new HandlerMethod("POST", "/login", (request, response) -> "redirect:/index.html");
+        final var headUsers = new HandlerMethod("HEAD", "/users", (request, response) -> "head");
+        final var getUsers = new HandlerMethod("GET", "/users", (request, response) -> "get");
+        final var mapper = new Mapper(List.of(postLogin, getLogin, getUsers, headUsers));
+
+        // when & then
+        assertThat(mapper.map(requestOf("HEAD /login HTTP/1.1"))).isSameAs(getLogin);
+        assertThat(mapper.map(requestOf("HEAD /users HTTP/1.1"))).isSameAs(headUsers);
+        assertThat(mapper.map(requestOf("HEAD /register HTTP/1.1"))).isNull();
+    }
+
+    @Test
+    void mapSharedPrefixes() {
+        // given
+        final var login = new HandlerMethod("GET", "/login", (request, response) -> "login");
+        final var logout = new HandlerMethod("GET", "/logout", (request, response) -> "logout");
+        final var log = new HandlerMethod("GET", "/log", (request, response) -> "log");
+        final var root = new HandlerMethod("GET", "/", (request, response) -> "root");
+        final var mapper = new Mapper(List.of(login, logout, log, root));
+
+        // when & then
+        assertThat(mapper.map(requestOf("GET /login HTTP/1.1"))).isSameAs(login);
+        assertThat(mapper.map(requestOf("GET /logout HTTP/1.1"))).isSameAs(logout);
+        assertThat(mapper.map(requestOf("GET /log HTTP/1.1"))).isSameAs(log);
+        assertThat(mapper.map(requestOf("GET / HTTP/1.1"))).isSameAs(root);
+        assertThat(mapper.map(requestOf("GET /lo HTTP/1.1"))).isNull();
+        assertThat(mapper.map(requestOf("GET /logouts HTTP/1.1"))).isNull();
+    }
+
+    @Test
+    void rejectAmbiguousMapping() {
+        final var first = new HandlerMethod("GET", "/login", (request, response) -> "first");
+        final var second = new HandlerMethod("GET", "/login", (request, response) -> "second");
+
+        assertThatThrownBy(() -> new Mapper(List.of(first, second)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("GET /login");
+    }
+
+    @Test
+    void rejectAmbiguousVariables() {
+        final var first = new HandlerMethod("GET", "/users/{id}", (request, response) -> "first");
+        final var second = new HandlerMethod("GET", "/users/{account}", (request, response) -> "second");
+
+        assertThatThrownBy(() -> new Mapper(List.of(first, second)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Ambiguous");
+    }
+
+    @Test
+    void rejectInvalidPath() {
+        for (final String path : List.of("login", "/users/{id", "/users/x{id}", "/users/{id}x", "/users/{}",
+                "/a/**/b", "/a*", "/{a}/{a}")) {
+            final var handler = new HandlerMethod("GET", path, (request, response) -> "/login.html");
+
+            assertThatThrownBy(() -> new Mapper(List.of(handler)))
+                    .isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Test
+    void scanControllers() {
+        // when
+        final Mapper mapper = Mapper.scan("com.techcourse");
+        final HandlerMethod home = mapper.map(requestOf("GET / HTTP/1.1"));
+
+        // then
+        assertThat(mapper.size()).isEqualTo(5);
+        assertThat(home.isResponseBody()).isTrue();
+        assertThat(home.handle(requestOf("GET / HTTP/1.1"), new Response())).isEqualTo("Hello world!");
+        assertThat(mapper.map(requestOf("POST /register HTTP/1.1")).isResponseBody()).isFalse();
+    }
+
+    private Request requestOf(final String requestLine) {
+        final var request = new Request(10);
+        final String head = requestLine + "\r\nHost: localhost\r\n\r\n";
+        new Http11InputBuffer(1024).parseRequestHead(
+                ByteBuffer.wrap(head.getBytes(StandardCharsets.US_ASCII)), request);
+        return request;
+    }
+}
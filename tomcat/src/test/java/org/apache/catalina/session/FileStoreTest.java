@@ -0,0 +1,128 @@
+package org.apache.catalina.session;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileStoreTest {
+
+    private static final long NOW = 1_000_000L;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void saveAndLoad() throws IOException {
+        // given
+        final var store = new FileStore(directory);
+        store.open();
+
+        // when
+        store.save("A", NOW + 1000, bytes("first"));
+        store.save("B", NOW + 1000, bytes("second"));
+        store.save("A", NOW + 1000, bytes("updated"));
+
+        // then
+        assertThat(store.getSize()).isEqualTo(2);
+        assertThat(new String(store.load("A", NOW), StandardCharsets.UTF_8)).isEqualTo("updated");
+        assertThat(new String(store.load("B", NOW), StandardCharsets.UTF_8)).isEqualTo("second");
+        assertThat(store.load("C", NOW)).isNull();
+        store.close();
+    }
+
+    @Test
+    void reopen() throws IOException {
+        // given
+        final var store = new FileStore(directory);
+        store.open();
+        store.save("A", NOW + 1000, bytes("first"));
+        store.save("B", NOW + 1000, bytes("second"));
+        store.remove("B");
+        store.close();
+
+        // when
+        final var reopened = new FileStore(directory);
+        reopened.open();
+
+        // then
+        assertThat(reopened.getSize()).isEqualTo(1);
+        assertThat(new String(reopened.load("A", NOW), StandardCharsets.UTF_8)).isEqualTo("first");
+        assertThat(reopened.load("B", NOW)).isNull();
+        reopened.close();
+    }
+
+    @Test
+    void discardIncompleteRecord() throws IOException {
+        // given
+        final var store = new FileStore(directory);
+        store.open();
+        store.save("A", NOW + 1000, bytes("first"));
+        final long completeSize = store.getLogSize();
+        store.save("B", NOW + 1000, bytes("second"));
+        store.close();
+        try (final var channel = FileChannel.open(directory.resolve("sessions.log"), StandardOpenOption.WRITE)) {
+            channel.truncate(completeSize + 5);
+        }
+
+        // when
+        final var reopened = new FileStore(directory);
+        reopened.open();
+        reopened.save("C", NOW + 1000, bytes("third"));
+
+        // then
+        assertThat(reopened.getSize()).isEqualTo(2);
+        assertThat(reopened.load("B", NOW)).isNull();
+        assertThat(new String(reopened.load("C", NOW), StandardCharsets.UTF_8)).isEqualTo("third");
+        reopened.close();
+    }
+
+    @Test
+    void expireAndCompact() throws IOException {
+        // given
+        final var store = new FileStore(directory);
+        store.open();
+        final byte[] data = new byte[64 * 1024];
+        for (int i = 0; i < 40; i++) {
+            store.save("S" + i, NOW + i, data);
+        }
+        final long sizeBeforeExpiry = store.getLogSize();
+
+        // when
+        store.processExpires(NOW + 29);
+
+        // then
+        assertThat(store.getSize()).isEqualTo(10);
+        assertThat(store.load("S29", NOW)).isNull();
+        assertThat(store.load("S35", NOW)).hasSize(data.length);
+        assertThat(store.getLogSize()).isLessThan(sizeBeforeExpiry / 3);
+        assertThat(Files.size(directory.resolve("sessions.log"))).isEqualTo(store.getLogSize());
+        store.close();
+    }
+
+    @Test
+    void doNotLoadExpiredSession() throws IOException {
+        // given
+        final var store = new FileStore(directory);
+        store.open();
+        store.save("A", NOW, bytes("expired"));
+
+        // when
+        final byte[] loaded = store.load("A", NOW);
+
+        // then
+        assertThat(loaded).isNull();
+        store.close();
+    }
+
+    private byte[] bytes(final String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,178 @@
+package org.apache.catalina.session;
+
+import com.techcourse.model.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PersistentManagerTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void keepSessionsAcrossRestart() {
+        // given
+        final var manager = new PersistentManager(directory);
+        manager.start();
+        final var session = manager.createSession();
+        session.setAttribute("user", "gugu");
+        session.setAttribute("connection", new Object());
+        manager.stop();
+
+        // when
+        final var restarted = new PersistentManager(directory);
+        restarted.start();
+        final var restored = restarted.findSession(session.getId());
+
+        // then
+        assertThat(restored).isNotNull();
+        assertThat(restored.getAttribute("user")).isEqualTo("gugu");
+        assertThat(restored.getAttribute("connection")).isNull();
+        assertThat(restored.getCreationTime()).isEqualTo(session.getCreationTime());
+        assertThat(restarted.getStoredSessions()).isEqualTo(0);
+        restarted.stop();
+    }
+
+    @Test
+    void swapOutLeastRecentlyUsedSessions() throws InterruptedException {
+        // given
+        final var manager = new PersistentManager(directory, 60, 1000, 2, -1);
+        manager.start();
+        final var oldest = manager.createSession();
+        Thread.sleep(5);
+        final var older = manager.createSession();
+        Thread.sleep(5);
+        final var newest = manager.createSession();
+
+        // when
+        manager.processMaxActiveSwaps();
+
+        // then
+        assertThat(manager.getActiveSessions()).isEqualTo(2);
+        assertThat(manager.getStoredSessions()).isEqualTo(1);
+        assertThat(manager.sessions.get(oldest.getId())).isNull();
+        assertThat(manager.sessions.get(older.getId())).isSameAs(older);
+        assertThat(manager.sessions.get(newest.getId())).isSameAs(newest);
+        manager.stop();
+    }
+
+    @Test
+    void swapInIdleSession() {
+        // given
+        final var manager = new PersistentManager(directory, 60, 1000, -1, 10);
+        manager.start();
+        final var session = manager.createSession();
+        session.setAttribute("user", "gugu");
+
+        // when
+        manager.processMaxIdleSwaps(session.getLastAccessedTime() + 10_000);
+        final int activeAfterSwapOut = manager.getActiveSessions();
+        final var swappedIn = manager.findSession(session.getId());
+
+        // then
+        assertThat(activeAfterSwapOut).isEqualTo(0);
+        assertThat(swappedIn).isNotSameAs(session);
+        assertThat(swappedIn.getAttribute("user")).isEqualTo("gugu");
+        assertThat(manager.findSession(session.getId())).isSameAs(swappedIn);
+        assertThat(manager.getStoredSessions()).isEqualTo(0);
+        manager.stop();
+    }
+
+    @Test
+    void doNotRestoreInvalidatedSession() {
+        // given
+        final var manager = new PersistentManager(directory);
+        manager.start();
+        final var session = manager.createSession();
+        session.invalidate();
+        manager.stop();
+
+        // when
+        final var restarted = new PersistentManager(directory);
+        restarted.start();
+
+        // then
+        assertThat(restarted.findSession(session.getId())).isNull();
+        restarted.stop();
+    }
+
+    @Test
+    void stopSavesActiveSessions() {
+        // given
+        final var manager = new PersistentManager(directory);
+        manager.start();
+        final var first = manager.createSession();
+        final var second = manager.createSession();
+
+        // when
+        manager.stop();
+
+        // then
+        final var restarted = new PersistentManager(directory);
+        restarted.start();
+        assertThat(manager.getActiveSessions()).isEqualTo(0);
+        assertThat(restarted.getStoredSessions()).isEqualTo(2);
+        assertThat(restarted.findSession(first.getId())).isNotNull();
+        assertThat(restarted.findSession(second.getId())).isNotNull();
+        restarted.stop();
+    }
+
+    @Test
+    void swapInOnceForConcurrentRequests() throws InterruptedException, ExecutionException {
+        // given
+        final var manager = new PersistentManager(directory, 60, 1000, -1, 10);
+        manager.start();
+        final var session = manager.createSession();
+        manager.processMaxIdleSwaps(session.getLastAccessedTime() + 10_000);
+
+        // when
+        final List<Future<StandardSession>> found = new ArrayList<>();
+        try (final var executor = Executors.newFixedThreadPool(4)) {
+            final Callable<StandardSession> find = () -> manager.findSession(session.getId());
+            for (int i = 0; i < 8; i++) {
+                found.add(executor.submit(find));
+            }
+        }
+
+        // then
+        final StandardSession swappedIn = found.get(0).get();
+        assertThat(swappedIn).isNotNull();
+        for (final Future<StandardSession> future : found) {
+            assertThat(future.get()).isSameAs(swappedIn);
+        }
+        assertThat(manager.getStoredSessions()).isEqualTo(0);
+        manager.stop();
+    }
+
+    @Test
+    void doNotDeserializeUnknownClasses() {
+        // given
+        final var manager = new PersistentManager(directory);
+        manager.start();
+        final var trusted = manager.createSession();
+        trusted.setAttribute("user", new User("gugu", "password", "gugu@example.com"));
+        final var untrusted = manager.createSession();
+        untrusted.setAttribute("location", URI.create("https://example.com"));
+        manager.stop();
+
+        // when
+        final var restarted = new PersistentManager(directory);
+        restarted.start();
+
+        // then
+        assertThat(restarted.findSession(trusted.getId()).getAttribute("user")).isNotNull();
+        assertThat(restarted.findSession(untrusted.getId())).isNull();
+        restarted.stop();
+    }
+}
@@ -0,0 +1,34 @@
+package org.apache.catalina.session;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SessionIdGeneratorTest {
+
+    @Test
+    void generateUniqueIdsConcurrently() throws InterruptedException {
+        // given
+        final var generator = new SessionIdGenerator();
+        final Set<String> ids = ConcurrentHashMap.newKeySet();
+
+        // when
+        try (final var executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 8; i++) {
+                executor.execute(() -> {
+                    for (int j = 0; j < 1_000; j++) {
+                        ids.add(generator.generateSessionId());
+                    }
+                });
+            }
+        }
+
+        // then
+        assertThat(ids.size()).isEqualTo(8_000);
+        assertThat(ids.iterator().next()).matches("[0-9A-F]{32}");
+    }
+}
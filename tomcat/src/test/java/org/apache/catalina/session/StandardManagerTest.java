@@ -0,0 +1,89 @@
+package org.apache.catalina.session;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StandardManagerTest {
+
+    @Test
+    void createSession() {
+        // given
+        final var manager = new StandardManager();
+
+        // when
+        final var session = manager.createSession();
+
+        // then
+        assertThat(session.getId()).matches("[0-9A-F]{32}");
+        assertThat(manager.findSession(session.getId())).isSameAs(session);
+        assertThat(manager.findSession("unknown")).isNull();
+        assertThat(manager.findSession(null)).isNull();
+    }
+
+    @Test
+    void invalidate() {
+        // given
+        final var manager = new StandardManager();
+        final var session = manager.createSession();
+
+        // when
+        session.invalidate();
+
+        // then
+        assertThat(manager.findSession(session.getId())).isNull();
+        assertThat(manager.getActiveSessions()).isEqualTo(0);
+        assertThatThrownBy(() -> session.getAttribute("user"))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void expireIdleSession() {
+        // given
+        final var manager = new StandardManager(60, 1000);
+        final var session = manager.createSession();
+        session.setAttribute("user", "gugu");
+
+        // when
+        manager.processExpires(session.getLastAccessedTime() + 59_000);
+        final int beforeTimeout = manager.getActiveSessions();
+        manager.processExpires(session.getLastAccessedTime() + 61_000);
+
+        // then
+        assertThat(beforeTimeout).isEqualTo(1);
+        assertThat(manager.getActiveSessions()).isEqualTo(0);
+        assertThat(session.isValid()).isFalse();
+    }
+
+    @Test
+    void keepAccessedSession() throws InterruptedException {
+        // given
+        final var manager = new StandardManager(1, 100);
+        final var session = manager.createSession();
+        manager.processExpires(System.currentTimeMillis());
+
+        // when
+        Thread.sleep(20);
+        session.access();
+        manager.processExpires(session.getCreationTime() + 1_000);
+
+        // then
+        assertThat(manager.getActiveSessions()).isEqualTo(1);
+        manager.processExpires(session.getLastAccessedTime() + 1_100);
+        assertThat(manager.getActiveSessions()).isEqualTo(0);
+    }
+
+    @Test
+    void neverExpire() {
+        // given
+        final var manager = new StandardManager(0, 1000);
+        final var session = manager.createSession();
+
+        // when
+        manager.processExpires(session.getCreationTime() + 365L * 24 * 60 * 60 * 1000);
+
+        // then
+        assertThat(manager.findSession(session.getId())).isSameAs(session);
+    }
+}
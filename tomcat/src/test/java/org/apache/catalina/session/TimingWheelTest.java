@@ -0,0 +1,68 @@
+package org.apache.catalina.session;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+
+    @Test
+    void fireAtDeadline() {
+        // given
+        final var wheel = new TimingWheel<String>(1000, 0);
+        final List<String> fired = new ArrayList<>();
+        wheel.schedule("near", 3_000);
+        wheel.schedule("far", 100_000);
+        wheel.schedule("farther", 5_000_000);
+
+        // when & then
+        wheel.advance(2_999, fired::add);
+        assertThat(fired).isEmpty();
+        wheel.advance(3_000, fired::add);
+        assertThat(fired).containsExactly("near");
+        wheel.advance(99_999, fired::add);
+        assertThat(fired).containsExactly("near");
+        wheel.advance(100_000, fired::add);
+        assertThat(fired).containsExactly("near", "far");
+        wheel.advance(4_999_999, fired::add);
+        assertThat(fired).containsExactly("near", "far");
+        wheel.advance(5_000_000, fired::add);
+        assertThat(fired).containsExactly("near", "far", "farther");
+        assertThat(wheel.size()).isEqualTo(0);
+    }
+
+    @Test
+    void parkDeadlineBeyondTopLevel() {
+        // given
+        final var wheel = new TimingWheel<String>(1, 0);
+        final List<String> fired = new ArrayList<>();
+        wheel.schedule("beyond", 1_000_000);
+
+        // when
+        wheel.advance(999_999, fired::add);
+        final int beforeDeadline = fired.size();
+        wheel.advance(1_000_000, fired::add);
+
+        // then
+        assertThat(beforeDeadline).isEqualTo(0);
+        assertThat(fired).containsExactly("beyond");
+    }
+
+    @Test
+    void fireOverdueAtNextTick() {
+        // given
+        final var wheel = new TimingWheel<String>(1000, 0);
+        final List<String> fired = new ArrayList<>();
+        wheel.advance(10_000, fired::add);
+
+        // when
+        wheel.schedule("overdue", 5_000);
+        wheel.advance(11_000, fired::add);
+
+        // then
+        assertThat(fired).containsExactly("overdue");
+    }
+}
@@ -0,0 +1,117 @@
+package org.apache.catalina.valves;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AccessLogRingBufferTest {
+
+    @Test
+    void drainInPublishOrder() {
+        // given
+        final var ringBuffer = new AccessLogRingBuffer(4);
+        publish(ringBuffer, "/a");
+        publish(ringBuffer, "/b");
+
+        // when
+        final List<String> drained = new ArrayList<>();
+        final int count = ringBuffer.drain(entry -> drained.add(entry.requestURI), 10);
+
+        // then
+        assertThat(count).isEqualTo(2);
+        assertThat(drained).containsExactly("/a", "/b");
+    }
+
+    @Test
+    void claimFailsWhenFull() {
+        // given
+        final var ringBuffer = new AccessLogRingBuffer(2);
+        publish(ringBuffer, "/a");
+        publish(ringBuffer, "/b");
+
+        // when
+        final long rejected = ringBuffer.claim();
+        ringBuffer.drain(entry -> { }, 1);
+        final long claimed = ringBuffer.claim();
+
+        // then
+        assertThat(rejected).isEqualTo(-1L);
+        assertThat(claimed).isEqualTo(2L);
+    }
+
+    @Test
+    void unpublishedSlotStopsDrain() {
+        // given
+        final var ringBuffer = new AccessLogRingBuffer(4);
+        final long first = ringBuffer.claim();
+        publish(ringBuffer, "/b");
+
+        // when
+        final int beforePublish = ringBuffer.drain(entry -> { }, 10);
+        ringBuffer.get(first).requestURI = "/a";
+        ringBuffer.publish(first);
+        final List<String> drained = new ArrayList<>();
+        ringBuffer.drain(entry -> drained.add(entry.requestURI), 10);
+
+        // then
+        assertThat(beforePublish).isEqualTo(0);
+        assertThat(drained).containsExactly("/a", "/b");
+    }
+
+    @Test
+    void concurrentProducers() throws InterruptedException {
+        // given
+        final var ringBuffer = new AccessLogRingBuffer(64);
+        final int producers = 4;
+        final int recordsPerProducer = 10_000;
+        final var done = new CountDownLatch(producers);
+        final long[] lastSeen = new long[producers];
+        final boolean[] ordered = {true};
+        final long[] received = {0};
+
+        // when
+        try (final var executor = Executors.newFixedThreadPool(producers)) {
+            for (int p = 0; p < producers; p++) {
+                final int producer = p;
+                executor.execute(() -> {
+                    for (int i = 1; i <= recordsPerProducer; i++) {
+                        long sequence;
+                        while ((sequence = ringBuffer.claim()) < 0) {
+                            Thread.onSpinWait();
+                        }
+                        final AccessLogEntry entry = ringBuffer.get(sequence);
+                        entry.status = producer;
+                        entry.bytesWritten = i;
+                        ringBuffer.publish(sequence);
+                    }
+                    done.countDown();
+                });
+            }
+            while (done.getCount() > 0 || received[0] < (long) producers * recordsPerProducer) {
+                ringBuffer.drain(entry -> {
+                    // 같은 생산자의 기록은 발행한 순서대로 나와야 한다.
+                    ordered[0] &= entry.bytesWritten == lastSeen[entry.status] + 1;
+                    lastSeen[entry.status] = entry.bytesWritten;
+                    received[0]++;
+                }, 100);
+            }
+            done.await(10, TimeUnit.SECONDS);
+        }
+
+        // then
+        assertThat(received[0]).isEqualTo((long) producers * recordsPerProducer);
+        assertThat(ordered[0]).isTrue();
+    }
+
+    private void publish(final AccessLogRingBuffer ringBuffer, final String requestURI) {
+        final long sequence = ringBuffer.claim();
+        ringBuffer.get(sequence).requestURI = requestURI;
+        ringBuffer.publish(sequence);
+    }
+}
@@ -0,0 +1,143 @@
+package org.apache.catalina.valves;
+
+import org.apache.coyote.HttpStatus;
+import org.apache.coyote.Request;
+import org.apache.coyote.Response;
+import org.apache.coyote.http11.Http11InputBuffer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AsyncFileAccessLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void writeCommonLogFormat() throws IOException {
+        // given
+        final var accessLog = new AsyncFileAccessLog(directory, 16, ZoneOffset.UTC);
+        final Request request = parse("GET /index.html?lang=ko HTTP/1.1\r\nHost: localhost\r\n\r\n");
+        request.setRemoteAddr("127.0.0.1");
+        final var response = new Response();
+        response.setStatus(HttpStatus.NOT_FOUND);
+        response.setBytesWritten(1234);
+
+        // when
+        accessLog.start();
+        accessLog.log(request, response, TimeUnit.MILLISECONDS.toNanos(7));
+        accessLog.stop();
+
+        // then
+        final List<String> lines = Files.readAllLines(accessLog.getFile(LocalDate.now(ZoneOffset.UTC)));
+        assertThat(lines).hasSize(1);
+        assertThat(lines.get(0)).matches("127\\.0\\.0\\.1 - - \\[\\d{2}/\\w{3}/\\d{4}:\\d{2}:\\d{2}:\\d{2} \\+0000] "
+                + "\"GET /index\\.html\\?lang=ko HTTP/1\\.1\" 404 1234 7");
+        assertThat(accessLog.getWrittenCount()).isEqualTo(1L);
+    }
+
+    @Test
+    void escapeRequestLine() throws IOException {
+        // given
+        final var accessLog = new AsyncFileAccessLog(directory, 16, ZoneOffset.UTC);
+        final Request request = parse("GET /a%0A127.0.0.1%20-%20-%20\"b\\c?q=%22x\" HTTP/1.1\r\n"
+                + "Host: localhost\r\n\r\n");
+
+        // when
+        accessLog.start();
+        accessLog.log(request, new Response(), 0);
+        accessLog.stop();
+
+        // then
+        final List<String> lines = Files.readAllLines(accessLog.getFile(LocalDate.now(ZoneOffset.UTC)));
+        assertThat(lines).hasSize(1);
+        assertThat(lines.get(0)).endsWith(
+                "\"GET /a%0A127.0.0.1%20-%20-%20\\\"b\\\\c?q=%22x\\\" HTTP/1.1\" 200 - 0");
+    }
+
+    @Test
+    void logRequestWithoutRequestLine() throws IOException {
+        // given
+        final var accessLog = new AsyncFileAccessLog(directory, 16, ZoneOffset.UTC);
+        final var response = new Response();
+        response.setStatus(HttpStatus.BAD_REQUEST);
+
+        // when
+        accessLog.start();
+        accessLog.log(new Request(10), response, 0);
+        accessLog.stop();
+
+        // then
+        final List<String> lines = Files.readAllLines(accessLog.getFile(LocalDate.now(ZoneOffset.UTC)));
+        assertThat(lines).hasSize(1);
+        assertThat(lines.get(0)).endsWith("] \"-\" 400 - 0");
+    }
+
+    @Test
+    void dropWhenWriterFallsBehind() throws IOException {
+        // given
+        final var accessLog = new AsyncFileAccessLog(directory, 2, ZoneOffset.UTC);
+        final Request request = parse("GET / HTTP/1.1\r\nHost: localhost\r\n\r\n");
+        final var response = new Response();
+
+        // when
+        // writer 를 시작하기 전이므로 아무도 버퍼를 비우지 않는다.
+        for (int i = 0; i < 5; i++) {
+            accessLog.log(request, response, 0);
+        }
+        accessLog.start();
+        accessLog.stop();
+
+        // then
+        final List<String> lines = Files.readAllLines(accessLog.getFile(LocalDate.now(ZoneOffset.UTC)));
+        assertThat(accessLog.getDroppedCount()).isEqualTo(3L);
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(0)).endsWith("\"GET / HTTP/1.1\" 200 - 0");
+        assertThat(lines.get(0)).startsWith("- - - [");
+    }
+
+    @Test
+    void keepWritingAfterFailedRecord() throws IOException, InterruptedException {
+        // given
+        // 디렉터리 자리에 파일이 있으면 로그 파일을 열지 못한다.
+        final Path logDirectory = directory.resolve("logs");
+        Files.createFile(logDirectory);
+        final var accessLog = new AsyncFileAccessLog(logDirectory, 16, ZoneOffset.UTC);
+        final Request request = parse("GET / HTTP/1.1\r\nHost: localhost\r\n\r\n");
+        accessLog.start();
+        accessLog.log(request, new Response(), 0);
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (accessLog.getFailedCount() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        Files.delete(logDirectory);
+
+        // when
+        accessLog.log(request, new Response(), 0);
+        accessLog.stop();
+
+        // then
+        final List<String> lines = Files.readAllLines(accessLog.getFile(LocalDate.now(ZoneOffset.UTC)));
+        assertThat(lines).hasSize(1);
+        assertThat(accessLog.getFailedCount()).isEqualTo(1L);
+        assertThat(accessLog.getWrittenCount()).isEqualTo(1L);
+    }
+
+    private Request parse(final String head) {
+        final var request = new Request(10);
+        final var buffer = ByteBuffer.wrap(head.getBytes(StandardCharsets.US_ASCII));
+        new Http11InputBuffer(8192).parseRequestHead(buffer, request);
+        return request;
+    }
+}
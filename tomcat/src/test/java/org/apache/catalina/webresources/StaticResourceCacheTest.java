@@ -0,0 +1,248 @@
+package org.apache.catalina.webresources;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StaticResourceCacheTest {
+
+    @Test
+    void cacheHit() {
+        // given
+        final var cache = new StaticResourceCache();
+
+        // when
+        final var first = cache.getResource("/js/scripts.js").orElseThrow();
+        final var second = cache.getResource("/js/scripts.js").orElseThrow();
+
+        // then
+        assertThat(second).isSameAs(first);
+        assertThat(first.getContentType()).isEqualTo("text/javascript");
+        assertThat(cache.getMissCount()).isEqualTo(1L);
+        assertThat(cache.getHitCount()).isEqualTo(1L);
+    }
+
+    @Test
+    void contentType() {
+        final var cache = new StaticResourceCache();
+
+        assertThat(cache.getResource("/css/styles.css").orElseThrow().getContentType()).isEqualTo("text/css");
+        assertThat(cache.getResource("/js/scripts.js").orElseThrow().getContentType()).isEqualTo("text/javascript");
+    }
+
+    @Test
+    void serveUnknownExtensionAsBinary() throws IOException, URISyntaxException {
+        // given
+        final var cache = new StaticResourceCache("test-static", 100_000);
+        final byte[] expected = Files.readAllBytes(
+                Path.of(ClassLoader.getSystemResource("test-static/fonts/glyphs.ttf").toURI()));
+
+        // when
+        final var resource = cache.getResource("/fonts/glyphs.ttf").orElseThrow();
+
+        // then
+        assertThat(resource.getContent()).isEqualTo(expected);
+        assertThat(resource.getContentType()).isEqualTo("application/octet-stream");
+        assertThat(resource.isCompressible()).isFalse();
+    }
+
+    @Test
+    void rejectPathOutsideBase() {
+        // given
+        final var cache = new StaticResourceCache("test-static", 100_000);
+
+        // when & then
+        assertThat(cache.getResource("/../static/index.html")).isEmpty();
+        assertThat(cache.getResource("/fonts/../../static/index.html")).isEmpty();
+        assertThat(cache.getResource("fonts/glyphs.ttf")).isEmpty();
+        assertThat(cache.getMissCount()).isEqualTo(0L);
+    }
+
+    @Test
+    void cacheNotFound() {
+        // given
+        final var cache = new StaticResourceCache();
+
+        // when
+        cache.getResource("/not-exists.html");
+        final var resource = cache.getResource("/not-exists.html");
+
+        // then
+        assertThat(resource).isEmpty();
+        assertThat(cache.getHitCount()).isEqualTo(1L);
+    }
+
+    @Test
+    void missingPathsDoNotEvictResources() {
+        // given
+        final var cache = new StaticResourceCache("static", 3_000, 3_000);
+        cache.getResource("/assets/chart-area.js");
+
+        // when
+        for (int i = 0; i < 2_000; i++) {
+            cache.getResource("/not-exists-" + i + ".html");
+        }
+
+        // then
+        final long missCount = cache.getMissCount();
+        assertThat(cache.getResource("/assets/chart-area.js")).isPresent();
+        assertThat(cache.getMissCount()).isEqualTo(missCount);
+        assertThat(cache.getEvictionCount()).isEqualTo(0L);
+    }
+
+    @Test
+    void evictLeastRecentlyUsed() {
+        // given
+        final var cache = new StaticResourceCache("static", 3_000, 3_000);
+        cache.getResource("/assets/chart-area.js");
+        cache.getResource("/assets/chart-bar.js");
+        cache.getResource("/assets/chart-area.js");
+
+        // when
+        cache.getResource("/assets/chart-pie.js");
+
+        // then
+        assertThat(cache.getEvictionCount()).isEqualTo(1L);
+        assertThat(cache.getSize()).isLessThanOrEqualTo(3_000);
+        final long missCount = cache.getMissCount();
+        cache.getResource("/assets/chart-area.js");
+        assertThat(cache.getMissCount()).isEqualTo(missCount);
+        cache.getResource("/assets/chart-bar.js");
+        assertThat(cache.getMissCount()).isEqualTo(missCount + 1);
+    }
+
+    @Test
+    void doNotCacheLargeResource() {
+        // given
+        final var cache = new StaticResourceCache("static", 100_000, 5_000, 1_000_000);
+
+        // when
+        cache.getResource("/css/styles.css");
+        final var resource = cache.getResource("/css/styles.css").orElseThrow();
+
+        // then
+        assertThat(resource.isFileBacked()).isFalse();
+        assertThat(cache.getMissCount()).isEqualTo(2L);
+        assertThat(cache.getSize()).isEqualTo(0L);
+    }
+
+    @Test
+    void cacheLargeResourceAsFile() {
+        // given
+        final var cache = new StaticResourceCache("static", 100_000, 5_000, 48 * 1024);
+
+        // when
+        cache.getResource("/css/styles.css");
+        final var resource = cache.getResource("/css/styles.css").orElseThrow();
+
+        // then
+        assertThat(resource.isFileBacked()).isTrue();
+        assertThat(resource.getContent()).isNull();
+        assertThat(resource.getContentLength()).isEqualTo(211_991L);
+        assertThat(cache.getHitCount()).isEqualTo(1L);
+        assertThat(cache.getSize()).isLessThan(100L);
+    }
+
+    @Test
+    void sendResourceFromFileBelowObjectMaxSize() {
+        // given
+        final var cache = new StaticResourceCache("static", 10_000_000, 500_000, 48 * 1024);
+
+        // when
+        final var large = cache.getResource("/css/styles.css").orElseThrow();
+        final var small = cache.getResource("/js/scripts.js").orElseThrow();
+
+        // then
+        assertThat(large.isFileBacked()).isTrue();
+        assertThat(large.getContent()).isNull();
+        assertThat(small.isFileBacked()).isFalse();
+    }
+
+    @Test
+    void eTagDependsOnContentOnly() {
+        // given
+        final var memoryCache = new StaticResourceCache();
+        final var fileCache = new StaticResourceCache("static", 100_000, 5_000, 48 * 1024);
+
+        // when
+        final var inMemory = memoryCache.getResource("/css/styles.css").orElseThrow();
+        final var fileBacked = fileCache.getResource("/css/styles.css").orElseThrow();
+
+        // then
+        assertThat(inMemory.getETag()).startsWith("\"");
+        assertThat(fileBacked.getETag()).isEqualTo(inMemory.getETag());
+        assertThat(memoryCache.getResource("/index.html").orElseThrow().getETag()).isNotEqualTo(inMemory.getETag());
+    }
+
+    @Test
+    void lastModifiedAsImfFixdate() {
+        // given
+        final long lastModified = Instant.parse("2026-10-03T09:05:07.250Z").toEpochMilli();
+
+        // when
+        final var resource = new CachedResource("/a.txt", new byte[0], "text/plain", "\"a\"", lastModified);
+
+        // then
+        assertThat(resource.getLastModified()).isEqualTo(lastModified - 250);
+        assertThat(resource.getLastModifiedHttpDate()).isEqualTo("Sat, 03 Oct 2026 09:05:07 GMT");
+    }
+
+    @Test
+    void rewriteAssetReferences() {
+        // given
+        final var cache = new StaticResourceCache();
+        final String versionedPath = cache.getVersionedPath("/css/styles.css").orElseThrow();
+
+        // when
+        final var page = new String(cache.getResource("/index.html").orElseThrow().getContent());
+
+        // then
+        assertThat(page).contains("href=\"" + versionedPath + "\"");
+        assertThat(page).doesNotContain("href=\"css/styles.css\"");
+        assertThat(page).contains("href=\"index.html\"");
+        assertThat(page).contains("src=\"https://cdn.jsdelivr.net/");
+    }
+
+    @Test
+    void versionedResource() {
+        // given
+        final var cache = new StaticResourceCache();
+        final var resource = cache.getResource("/js/scripts.js").orElseThrow();
+
+        // when
+        final var versioned = cache.getVersionedResource("/resources/" + resource.getVersion() + "/js/scripts.js");
+        final var outdated = cache.getVersionedResource("/resources/0000000000000000/js/scripts.js");
+
+        // then
+        assertThat(versioned.orElseThrow()).isSameAs(resource);
+        assertThat(outdated).isEmpty();
+    }
+
+    @Test
+    void storeCompressedContent() throws IOException {
+        // given
+        final var cache = new StaticResourceCache();
+
+        // when
+        final var page = cache.getResource("/index.html").orElseThrow();
+        final var small = cache.getResource("/assets/chart-pie.js").orElseThrow();
+
+        // then
+        final byte[] gzip = page.getContent(ContentEncoding.GZIP);
+        assertThat(gzip.length).isLessThan(page.getContent().length);
+        assertThat(new GZIPInputStream(new ByteArrayInputStream(gzip)).readAllBytes()).isEqualTo(page.getContent());
+        assertThat(new InflaterInputStream(new ByteArrayInputStream(page.getContent(ContentEncoding.DEFLATE)))
+                .readAllBytes()).isEqualTo(page.getContent());
+        assertThat(page.getETag(ContentEncoding.GZIP)).isNotEqualTo(page.getETag());
+        assertThat(small.isCompressible()).isFalse();
+    }
+}
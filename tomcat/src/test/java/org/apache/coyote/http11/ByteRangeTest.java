@@ -0,0 +1,54 @@
+package org.apache.coyote.http11;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ByteRangeTest {
+
+    @Test
+    void parse() {
+        // when
+        final var ranges = ByteRange.parse("bytes=0-99, 500-, -10", 1000);
+
+        // then
+        assertThat(ranges.size()).isEqualTo(3);
+        assertThat(ranges.get(0).toContentRange(1000)).isEqualTo("bytes 0-99/1000");
+        assertThat(ranges.get(1).toContentRange(1000)).isEqualTo("bytes 500-999/1000");
+        assertThat(ranges.get(2).toContentRange(1000)).isEqualTo("bytes 990-999/1000");
+    }
+
+    @Test
+    void clampToLength() {
+        // when
+        final var ranges = ByteRange.parse("bytes=900-5000, -5000", 1000);
+
+        // then
+        assertThat(ranges.get(0).getLength()).isEqualTo(100L);
+        assertThat(ranges.get(1).getStart()).isEqualTo(0L);
+    }
+
+    @Test
+    void unsatisfiable() {
+        // when
+        final var ranges = ByteRange.parse("bytes=1000-, -0", 1000);
+
+        // then
+        assertThat(ranges).isEmpty();
+    }
+
+    @Test
+    void ignoreMalformed() {
+        assertThat(ByteRange.parse("items=0-1", 1000)).isNull();
+        assertThat(ByteRange.parse("bytes=5-1", 1000)).isNull();
+        assertThat(ByteRange.parse("bytes=a-b", 1000)).isNull();
+        assertThat(ByteRange.parse("bytes=1--2", 1000)).isNull();
+        assertThat(ByteRange.parse("bytes=" + "0-0,".repeat(33), 1000)).isNull();
+    }
+
+    @Test
+    void ignoreEmptyRangeSet() {
+        assertThat(ByteRange.parse("bytes=", 1000)).isNull();
+        assertThat(ByteRange.parse("bytes= , ,", 1000)).isNull();
+    }
+}
@@ -0,0 +1,59 @@
+package org.apache.coyote.http11;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChunkedOutputStreamTest {
+
+    @Test
+    void collectSmallWritesIntoChunk() throws IOException {
+        // given
+        final var socket = new ByteArrayOutputStream();
+        final var chunkedStream = new ChunkedOutputStream(socket, 16);
+
+        // when
+        chunkedStream.write("Hello".getBytes(StandardCharsets.US_ASCII));
+        chunkedStream.write(' ');
+        chunkedStream.write("world!".getBytes(StandardCharsets.US_ASCII));
+        chunkedStream.close();
+
+        // then
+        assertThat(socket.toString(StandardCharsets.US_ASCII)).isEqualTo("c\r\nHello world!\r\n0\r\n\r\n");
+    }
+
+    @Test
+    void writeLargeDataAsOneChunk() throws IOException {
+        // given
+        final var socket = new ByteArrayOutputStream();
+        final var chunkedStream = new ChunkedOutputStream(socket, 4);
+
+        // when
+        chunkedStream.write("ab".getBytes(StandardCharsets.US_ASCII));
+        chunkedStream.write("0123456789abcdefghij".getBytes(StandardCharsets.US_ASCII));
+        chunkedStream.close();
+        chunkedStream.close();
+
+        // then
+        assertThat(socket.toString(StandardCharsets.US_ASCII))
+                .isEqualTo("2\r\nab\r\n14\r\n0123456789abcdefghij\r\n0\r\n\r\n");
+    }
+
+    @Test
+    void flushSendsPendingChunk() throws IOException {
+        // given
+        final var socket = new ByteArrayOutputStream();
+        final var chunkedStream = new ChunkedOutputStream(socket, 16);
+
+        // when
+        chunkedStream.write("abc".getBytes(StandardCharsets.US_ASCII));
+        chunkedStream.flush();
+
+        // then
+        assertThat(socket.toString(StandardCharsets.US_ASCII)).isEqualTo("3\r\nabc\r\n");
+    }
+}
@@ -0,0 +1,162 @@
+package org.apache.coyote.http11;
+
+import org.apache.coyote.Request;
+import org.apache.tomcat.util.http.Parameters;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class Http11InputBufferTest {
+
+    private final Http11InputBuffer inputBuffer = new Http11InputBuffer(8 * 1024);
+    private final Request request = new Request(100);
+
+    @Test
+    void parseRequestHead() {
+        // given
+        final ByteBuffer buffer = bufferOf(String.join("\r\n",
+                "GET /login?account=gugu&password=password HTTP/1.1",
+                "Host: localhost:8080",
+                "Connection:  keep-alive ",
+                "",
+                "body"));
+
+        // when
+        final boolean parsed = inputBuffer.parseRequestHead(buffer, request);
+
+        // then
+        assertThat(parsed).isTrue();
+        assertThat(request.getMethod()).isEqualTo("GET");
+        assertThat(request.requestURIEquals("/login")).isTrue();
+        assertThat(request.getQueryString()).isEqualTo("account=gugu&password=password");
+        assertThat(request.getProtocol()).isEqualTo("HTTP/1.1");
+        assertThat(request.getHeaderCount()).isEqualTo(2);
+        assertThat(request.getHeader("host")).isEqualTo("localhost:8080");
+        assertThat(request.headerContainsToken("Connection", "Keep-Alive")).isTrue();
+        assertThat(buffer.remaining()).isEqualTo("body".length());
+    }
+
+    @Test
+    void parseRequestHeadAcrossReads() {
+        // given
+        final String head = "GET /index.html HTTP/1.1\r\nHost: localhost:8080\r\n\r\n";
+        final ByteBuffer buffer = ByteBuffer.allocate(1024);
+        buffer.put(head.substring(0, 20).getBytes(StandardCharsets.US_ASCII)).flip();
+
+        // when
+        final boolean firstParsed = inputBuffer.parseRequestHead(buffer, request);
+        buffer.compact().put(head.substring(20).getBytes(StandardCharsets.US_ASCII)).flip();
+        final boolean secondParsed = inputBuffer.parseRequestHead(buffer, request);
+
+        // then
+        assertThat(firstParsed).isFalse();
+        assertThat(secondParsed).isTrue();
+        assertThat(request.getRequestURI()).isEqualTo("/index.html");
+        assertThat(request.getHeader("Host")).isEqualTo("localhost:8080");
+    }
+
+    @Test
+    void decodeRequestURI() {
+        // given
+        final ByteBuffer buffer = bufferOf("GET /css/my%20styles.css HTTP/1.1\r\n\r\n");
+
+        // when
+        inputBuffer.parseRequestHead(buffer, request);
+
+        // then
+        assertThat(request.getRequestURI()).isEqualTo("/css/my styles.css");
+    }
+
+    @Test
+    void rejectInvalidHeaderName() {
+        final ByteBuffer buffer = bufferOf("GET / HTTP/1.1\r\nHo st: localhost\r\n\r\n");
+
+        assertThatThrownBy(() -> inputBuffer.parseRequestHead(buffer, request))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectUnsupportedProtocol() {
+        final ByteBuffer buffer = bufferOf("GET / HTTP/2.0\r\n\r\n");
+
+        assertThatThrownBy(() -> inputBuffer.parseRequestHead(buffer, request))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectTooLargeHeader() {
+        final var smallInputBuffer = new Http11InputBuffer(32);
+        final ByteBuffer buffer = bufferOf("GET / HTTP/1.1\r\nHost: a-very-long-host-name.example.com\r\n\r\n");
+
+        assertThatThrownBy(() -> smallInputBuffer.parseRequestHead(buffer, request))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("larger than 32 bytes");
+    }
+
+    @Test
+    void rejectTooManyHeaders() {
+        final var smallRequest = new Request(1);
+        final ByteBuffer buffer = bufferOf("GET / HTTP/1.1\r\nHost: localhost\r\nAccept: */*\r\n\r\n");
+
+        assertThatThrownBy(() -> inputBuffer.parseRequestHead(buffer, smallRequest))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Too many");
+    }
+
+    @Test
+    void readContentLengthBody() {
+        // given
+        final ByteBuffer buffer = bufferOf("a=1&b=2GET / HTTP/1.1");
+        final var parameters = new Parameters();
+        inputBuffer.prepareBody(7, false);
+
+        // when
+        final boolean read = inputBuffer.readBody(buffer, parameters);
+        parameters.finish();
+
+        // then
+        assertThat(read).isTrue();
+        assertThat(parameters.getParameter("b")).isEqualTo("2");
+        assertThat(buffer.remaining()).isEqualTo("GET / HTTP/1.1".length());
+    }
+
+    @Test
+    void readChunkedBodyAcrossReads() {
+        // given
+        final String body = "4;ext=1\r\na=1&\r\n3\r\nb=2\r\n0\r\nTrailer: x\r\n\r\nNEXT";
+        final var parameters = new Parameters();
+        inputBuffer.prepareBody(0, true);
+
+        // when
+        final boolean firstRead = inputBuffer.readBody(bufferOf(body.substring(0, 12)), parameters);
+        final ByteBuffer rest = bufferOf(body.substring(12));
+        final boolean secondRead = inputBuffer.readBody(rest, parameters);
+        parameters.finish();
+
+        // then
+        assertThat(firstRead).isFalse();
+        assertThat(secondRead).isTrue();
+        assertThat(inputBuffer.getBodyLength()).isEqualTo(7L);
+        assertThat(parameters.getParameter("a")).isEqualTo("1");
+        assertThat(parameters.getParameter("b")).isEqualTo("2");
+        assertThat(rest.remaining()).isEqualTo("NEXT".length());
+    }
+
+    @Test
+    void invalidChunkedBody() {
+        // given
+        inputBuffer.prepareBody(0, true);
+
+        // when & then
+        assertThatThrownBy(() -> inputBuffer.readBody(bufferOf("zz\r\n"), null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private ByteBuffer bufferOf(final String request) {
+        return ByteBuffer.wrap(request.getBytes(StandardCharsets.US_ASCII));
+    }
+}
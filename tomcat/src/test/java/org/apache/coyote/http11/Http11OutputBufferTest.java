@@ -0,0 +1,138 @@
+package org.apache.coyote.http11;
+
+import org.apache.coyote.HttpStatus;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class Http11OutputBufferTest {
+
+    @Test
+    void writeResponseHead() throws IOException {
+        // given
+        final var socket = new ByteArrayOutputStream();
+        final var outputBuffer = new Http11OutputBuffer(socket, null, 1024);
+
+        // when
+        outputBuffer.sendStatus(HttpStatus.NOT_MODIFIED);
+        outputBuffer.sendContentType("text/css");
+        outputBuffer.sendContentLength(0);
+        outputBuffer.sendHeader("Location", "/사용자");
+        outputBuffer.sendConnection(false);
+        outputBuffer.endHeaders();
+        outputBuffer.flush();
+
+        // then
+        assertThat(socket.toString(StandardCharsets.UTF_8)).isEqualTo("HTTP/1.1 304 Not Modified\r\n"
+                + "Content-Type: text/css\r\n"
+                + "Content-Length: 0\r\n"
+                + "Location: /사용자\r\n"
+                + "Connection: close\r\n"
+                + "\r\n");
+    }
+
+    @Test
+    void writeContentLengthAcrossBufferBoundary() throws IOException {
+        // given
+        final var socket = new ByteArrayOutputStream();
+        final var outputBuffer = new Http11OutputBuffer(socket, null, 32);
+
+        // when
+        outputBuffer.write(new byte[20]);
+        outputBuffer.sendContentLength(Long.MAX_VALUE);
+        outputBuffer.sendContentLength(1234567890L);
+        outputBuffer.flush();
+
+        // then
+        final String output = socket.toString(StandardCharsets.US_ASCII).substring(20);
+        assertThat(output).isEqualTo("Content-Length: " + Long.MAX_VALUE + "\r\n"
+                + "Content-Length: 1234567890\r\n");
+    }
+
+    @Test
+    void writeHeadAndBodyInOneGatheringWrite() throws IOException {
+        // given
+        final var stream = new ByteArrayOutputStream();
+        final var channel = new RecordingChannel();
+        final var outputBuffer = new Http11OutputBuffer(stream, channel, 64);
+        final byte[] body = "x".repeat(100).getBytes(StandardCharsets.US_ASCII);
+
+        // when
+        outputBuffer.sendStatus(HttpStatus.OK);
+        outputBuffer.sendContentLength(body.length);
+        outputBuffer.endHeaders();
+        outputBuffer.write(body);
+        outputBuffer.flush();
+
+        // then
+        assertThat(channel.writeCount).isEqualTo(1);
+        assertThat(stream.size()).isEqualTo(0);
+        assertThat(channel.written.toString(StandardCharsets.US_ASCII)).isEqualTo("HTTP/1.1 200 OK\r\n"
+                + "Content-Length: 100\r\n"
+                + "\r\n"
+                + "x".repeat(100));
+    }
+
+    @Test
+    void writeWithoutGatheringChannel() throws IOException {
+        // given
+        final var socket = new ByteArrayOutputStream();
+        final var outputBuffer = new Http11OutputBuffer(socket, null, 16);
+
+        // when
+        outputBuffer.write("head\r\n".getBytes(StandardCharsets.US_ASCII));
+        outputBuffer.write("0123456789abcdef".getBytes(StandardCharsets.US_ASCII));
+        outputBuffer.write("!".getBytes(StandardCharsets.US_ASCII));
+        outputBuffer.flush();
+
+        // then
+        assertThat(socket.toString(StandardCharsets.US_ASCII)).isEqualTo("head\r\n0123456789abcdef!");
+    }
+
+    /**
+     * 쓰기 호출 횟수와 쓰인 바이트를 기록하는 채널.
+     */
+    private static final class RecordingChannel implements GatheringByteChannel {
+
+        private final ByteArrayOutputStream written = new ByteArrayOutputStream();
+        private int writeCount;
+
+        @Override
+        public long write(final ByteBuffer[] srcs, final int offset, final int length) {
+            writeCount++;
+            long total = 0;
+            for (int i = offset; i < offset + length; i++) {
+                while (srcs[i].hasRemaining()) {
+                    written.write(srcs[i].get());
+                    total++;
+                }
+            }
+            return total;
+        }
+
+        @Override
+        public long write(final ByteBuffer[] srcs) {
+            return write(srcs, 0, srcs.length);
+        }
+
+        @Override
+        public int write(final ByteBuffer src) {
+            return (int) write(new ByteBuffer[]{src});
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -1,12 +1,22 @@
 package org.apache.coyote.http11;
 
+import org.apache.catalina.AccessLog;
+import org.apache.catalina.mapper.HandlerMethod;
+import org.apache.catalina.mapper.Mapper;
+import org.apache.catalina.webresources.ContentEncoding;
+import org.apache.catalina.webresources.StaticResourceCache;
+import org.apache.coyote.HttpStatus;
 import org.junit.jupiter.api.Test;
 import support.StubSocket;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -23,13 +33,13 @@ class Http11ProcessorTest {
 
         // then
         var expected = String.join("\r\n",
-                "HTTP/1.1 200 OK ",
-                "Content-Type: text/html;charset=utf-8 ",
-                "Content-Length: 12 ",
+                "HTTP/1.1 200 OK",
+                "Content-Type: text/html;charset=utf-8",
+                "Content-Length: 12",
                 "",
                 "Hello world!");
 
-        assertThat(socket.output()).isEqualTo(expected);
+        assertThat(outputWithoutDate(socket)).isEqualTo(expected);
     }
 
     @Test
@@ -49,13 +59,969 @@ class Http11ProcessorTest {
         processor.process(socket);
 
         // then
-        final URL resource = getClass().getClassLoader().getResource("static/index.html");
-        var expected = "HTTP/1.1 200 OK \r\n" +
-                "Content-Type: text/html;charset=utf-8 \r\n" +
-                "Content-Length: 5564 \r\n" +
+        final var resource = new StaticResourceCache().getResource("/index.html").orElseThrow();
+        var expected = "HTTP/1.1 200 OK\r\n" +
+                "Content-Type: text/html;charset=utf-8\r\n" +
+                "Content-Length: " + resource.getContentLength() + "\r\n" +
+                "Cache-Control: no-cache\r\n" +
+                "Vary: Accept-Encoding\r\n" +
+                "ETag: " + eTagOf("/index.html") + "\r\n" +
+                "Last-Modified: " + lastModifiedOf("/index.html") + "\r\n" +
+                "Accept-Ranges: bytes\r\n" +
                 "\r\n"+
+                new String(resource.getContent());
+
+        assertThat(outputWithoutDate(socket)).isEqualTo(expected);
+    }
+
+    @Test
+    void keepAlive() {
+        // given
+        final String httpRequest = String.join("\r\n",
+                "GET / HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "",
+                "GET / HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "Connection: close ",
+                "",
+                "");
+
+        final var socket = new StubSocket(httpRequest);
+        final Http11Processor processor = new Http11Processor(socket);
+
+        // when
+        processor.process(socket);
+
+        // then
+        var expected = "HTTP/1.1 200 OK\r\n" +
+                "Content-Type: text/html;charset=utf-8\r\n" +
+                "Content-Length: 12\r\n" +
+                "\r\n" +
+                "Hello world!" +
+                "HTTP/1.1 200 OK\r\n" +
+                "Content-Type: text/html;charset=utf-8\r\n" +
+                "Content-Length: 12\r\n" +
+                "Connection: close\r\n" +
+                "\r\n" +
+                "Hello world!";
+
+        assertThat(outputWithoutDate(socket)).isEqualTo(expected);
+    }
+
+    @Test
+    void pipelinedRequests() {
+        // given
+        final String httpRequest = String.join("\r\n",
+                "GET / HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "",
+                "GET /js/scripts.js HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "",
+                "GET / HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "Connection: close ",
+                "",
+                "");
+
+        final var socket = new StubSocket(httpRequest);
+        final Http11Processor processor = new Http11Processor(socket);
+
+        // when
+        processor.process(socket);
+
+        // then
+        final var script = new StaticResourceCache().getResource("/js/scripts.js").orElseThrow();
+        final String output = outputWithoutDate(socket);
+        final int first = output.indexOf("Hello world!");
+        final int second = output.indexOf("Content-Type: text/javascript\r\n");
+        final int third = output.indexOf("Connection: close\r\n");
+        assertThat(first).isGreaterThan(0);
+        assertThat(second).isGreaterThan(first);
+        assertThat(third).isGreaterThan(second);
+        assertThat(output).contains("Content-Length: " + script.getContentLength() + "\r\n");
+        assertThat(output).endsWith("Hello world!");
+        // 한 번에 읽은 요청들의 응답은 모아서 한 번에 내보낸다.
+        assertThat(socket.writeCount()).isEqualTo(1);
+        assertThat(socket.flushCount()).isEqualTo(1);
+    }
+
+    @Test
+    void maxKeepAliveRequests() {
+        // given
+        final String httpRequest = String.join("\r\n",
+                "GET / HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "",
+                "GET / HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "",
+                "");
+
+        final var socket = new StubSocket(httpRequest);
+        final var protocol = new Http11Protocol();
+        protocol.setMaxKeepAliveRequests(1);
+        final Http11Processor processor = new Http11Processor(socket, protocol);
+
+        // when
+        processor.process(socket);
+
+        // then
+        var expected = "HTTP/1.1 200 OK\r\n" +
+                "Content-Type: text/html;charset=utf-8\r\n" +
+                "Content-Length: 12\r\n" +
+                "Connection: close\r\n" +
+                "\r\n" +
+                "Hello world!";
+
+        assertThat(outputWithoutDate(socket)).isEqualTo(expected);
+    }
+
+    @Test
+    void badRequest() {
+        // given
+        final String httpRequest = String.join("\r\n",
+                "GET / HTTP/1.1 ",
+                "Host : localhost:8080 ",
+                "",
+                "");
+
+        final var socket = new StubSocket(httpRequest);
+        final Http11Processor processor = new Http11Processor(socket);
+
+        // when
+        processor.process(socket);
+
+        // then
+        var expected = "HTTP/1.1 400 Bad Request\r\n" +
+                "Content-Type: text/html;charset=utf-8\r\n" +
+                "Content-Length: 15\r\n" +
+                "Connection: close\r\n" +
+                "\r\n" +
+                "400 Bad Request";
+
+        assertThat(outputWithoutDate(socket)).isEqualTo(expected);
+    }
+
+    @Test
+    void largeStaticFile() throws IOException {
+        // given
+        final String httpRequest = String.join("\r\n",
+                "GET /css/styles.css HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "Connection: close ",
+                "",
+                "");
+
+        final var socket = new StubSocket(httpRequest);
+        final var resourceCache = new StaticResourceCache("static", 100_000, 5_000, 48 * 1024);
+        final var protocol = new Http11Protocol();
+        protocol.setResourceCache(resourceCache);
+        final Http11Processor processor = new Http11Processor(socket, protocol);
+
+        // when
+        processor.process(socket);
+
+        // then
+        final URL resource = getClass().getClassLoader().getResource("static/css/styles.css");
+        var expected = "HTTP/1.1 200 OK\r\n" +
+                "Content-Type: text/css\r\n" +
+                "Content-Length: 211991\r\n" +
+                "Vary: Accept-Encoding\r\n" +
+                "ETag: " + eTagOf("/css/styles.css") + "\r\n" +
+                "Last-Modified: " + lastModifiedOf("/css/styles.css") + "\r\n" +
+                "Accept-Ranges: bytes\r\n" +
+                "Connection: close\r\n" +
+                "\r\n" +
                 new String(Files.readAllBytes(new File(resource.getFile()).toPath()));
 
-        assertThat(socket.output()).isEqualTo(expected);
+        assertThat(resourceCache.getResource("/css/styles.css").orElseThrow().isFileBacked()).isTrue();
+        assertThat(outputWithoutDate(socket)).isEqualTo(expected);
+    }
+
+    @Test
+    void notModified() {
+        // given
+        final String httpRequest = String.join("\r\n",
+                "GET /index.html HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "If-None-Match: \"other\", " + eTagOf("/index.html") + " ",
+                "",
+                "");
+
+        final var socket = new StubSocket(httpRequest);
+        final Http11Processor processor = new Http11Processor(socket);
+
+        // when
+        processor.process(socket);
+
+        // then
+        var expected = "HTTP/1.1 304 Not Modified\r\n" +
+                "Cache-Control: no-cache\r\n" +
+                "Vary: Accept-Encoding\r\n" +
+                "ETag: " + eTagOf("/index.html") + "\r\n" +
+                "Last-Modified: " + lastModifiedOf("/index.html") + "\r\n" +
+                "\r\n";
+
+        assertThat(outputWithoutDate(socket)).isEqualTo(expected);
+    }
+
+    @Test
+    void notModifiedSince() {
+        // given
+        final String httpRequest = String.join("\r\n",
+                "GET /index.html HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "If-Modified-Since: Fri, 31 Dec 2100 23:59:59 GMT ",
+                "",
+                "");
+
+        final var socket = new StubSocket(httpRequest);
+        final Http11Processor processor = new Http11Processor(socket);
+
+        // when
+        processor.process(socket);
+
+        // then
+        assertThat(socket.output()).startsWith("HTTP/1.1 304 Not Modified\r\n");
+    }
+
+    @Test
+    void modifiedSince() {
+        // given
+        final String httpRequest = String.join("\r\n",
+                "GET /index.html HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "If-Modified-Since: Thu, 01 Jan 1970 00:00:00 GMT ",
+                "",
+                "");
+
+        final var socket = new StubSocket(httpRequest);
+        final Http11Processor processor = new Http11Processor(socket);
+
+        // when
+        processor.process(socket);
+
+        // then
+        assertThat(socket.output()).startsWith("HTTP/1.1 200 OK\r\n");
+    }
+
+    @Test
+    void versionedResource() {
+        // given
+        final String versionedPath = new StaticResourceCache().getVersionedPath("/js/scripts.js").orElseThrow();
+        final String httpRequest = String.join("\r\n",
+                "GET " + versionedPath + " HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "",
+                "");
+
+        final var socket = new StubSocket(httpRequest);
+        final Http11Processor processor = new Http11Processor(socket);
+
+        // when
+        processor.process(socket);
+
+        // then
+        assertThat(socket.output()).startsWith("HTTP/1.1 200 OK\r\n");
+        assertThat(socket.output()).contains("Content-Type: text/javascript\r\n");
+        assertThat(socket.output()).contains("Cache-Control: max-age=31536000, immutable\r\n");
+    }
+
+    @Test
+    void gzipEncoding() {
+        // given
+        final String httpRequest = String.join("\r\n",
+                "GET /index.html HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "Accept-Encoding: deflate;q=0.5, gzip ",
+                "",
+                "");
+
+        final var socket = new StubSocket(httpRequest);
+        final Http11Processor processor = new Http11Processor(socket);
+
+        // when
+        processor.process(socket);
+
+        // then
+        final byte[] compressed = new StaticResourceCache().getResource("/index.html").orElseThrow()
+                .getContent(ContentEncoding.GZIP);
+        assertThat(socket.output()).contains("Content-Length: " + compressed.length + "\r\n");
+        assertThat(socket.output()).contains("Content-Encoding: gzip\r\n");
+        assertThat(socket.output()).contains("Vary: Accept-Encoding\r\n");
+        final String eTag = eTagOf("/index.html");
+        assertThat(socket.output()).contains("ETag: " + eTag.substring(0, eTag.length() - 1) + "-gzip\"\r\n");
+    }
+
+    @Test
+    void refuseEncoding() {
+        // given
+        final String httpRequest = String.join("\r\n",
+                "GET /index.html HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "Accept-Encoding: gzip;q=0, deflate;q=0 ",
+                "",
+                "");
+
+        final var socket = new StubSocket(httpRequest);
+        final Http11Processor processor = new Http11Processor(socket);
+
+        // when
+        processor.process(socket);
+
+        // then
+        assertThat(socket.output()).doesNotContain("Content-Encoding");
+    }
+
+    @Test
+    void compressLargeStaticFileChunked() {
+        // given
+        final String httpRequest = String.join("\r\n",
+                "GET /css/styles.css HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "Accept-Encoding: gzip ",
+                "",
+                "");
+
+        final var socket = new StubSocket(httpRequest);
+        final var resourceCache = new StaticResourceCache("static", 100_000, 5_000, 48 * 1024);
+        final var protocol = new Http11Protocol();
+        protocol.setResourceCache(resourceCache);
+        final Http11Processor processor = new Http11Processor(socket, protocol);
+
+        // when
+        processor.process(socket);
+
+        // then
+        final String output = socket.output();
+        assertThat(output).startsWith("HTTP/1.1 200 OK\r\n");
+        assertThat(output).contains("Content-Encoding: gzip\r\n");
+        assertThat(output).contains("Transfer-Encoding: chunked\r\n");
+        assertThat(output).doesNotContain("Content-Length");
+        assertThat(output).endsWith("\r\n0\r\n\r\n");
+    }
+
+    @Test
+    void compressLargeStaticFileForHttp10() {
+        // given
+        final String httpRequest = String.join("\r\n",
+                "GET /css/styles.css HTTP/1.0 ",
+                "Connection: keep-alive ",
+                "Accept-Encoding: gzip ",
+                "",
+                "");
+
+        final var socket = new StubSocket(httpRequest);
+        final var resourceCache = new StaticResourceCache("static", 100_000, 5_000, 48 * 1024);
+        final var protocol = new Http11Protocol();
+        protocol.setResourceCache(resourceCache);
+        final Http11Processor processor = new Http11Processor(socket, protocol);
+
+        // when
+        processor.process(socket);
+
+        // then
+        final String output = socket.output();
+        assertThat(output).contains("Content-Encoding: gzip\r\n");
+        assertThat(output).contains("Connection: close\r\n");
+        assertThat(output).doesNotContain("Transfer-Encoding");
+    }
+
+    @Test
+    void headWithoutChunkedBody() {
+        // given
+        final String httpRequest = String.join("\r\n",
+                "HEAD /css/styles.css HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "Accept-Encoding: gzip ",
+                "",
+                "");
+
+        final var socket = new StubSocket(httpRequest);
+        final var resourceCache = new StaticResourceCache("static", 100_000, 5_000, 48 * 1024);
+        final var protocol = new Http11Protocol();
+        protocol.setResourceCache(resourceCache);
+        final Http11Processor processor = new Http11Processor(socket, protocol);
+
+        // when
+        processor.process(socket);
+
+        // then
+        final String output = socket.output();
+        assertThat(output).startsWith("HTTP/1.1 200 OK\r\n");
+        assertThat(output).contains("Content-Encoding: gzip\r\n");
+        assertThat(output).contains("Transfer-Encoding: chunked\r\n");
+        assertThat(output).endsWith("\r\n\r\n");
+        assertThat(output).doesNotContain("\r\n\r\n0\r\n");
+    }
+
+    @Test
+    void headWithoutBody() {
+        // given
+        final String httpRequest = String.join("\r\n",
+                "HEAD /js/scripts.js HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "",
+                "");
+
+        final var socket = new StubSocket(httpRequest);
+        final Http11Processor processor = new Http11Processor(socket);
+
+        // when
+        processor.process(socket);
+
+        // then
+        final var resource = new StaticResourceCache().getResource("/js/scripts.js").orElseThrow();
+        final String output = socket.output();
+        assertThat(output).startsWith("HTTP/1.1 200 OK\r\n");
+        assertThat(output).contains("Content-Length: " + resource.getContentLength() + "\r\n");
+        assertThat(output).endsWith("\r\n\r\n");
+    }
+
+    @Test
+    void encodedDotSegmentsDoNotLeaveStaticDirectory() {
+        // given
+        final String httpRequest = String.join("\r\n",
+                "GET /%2e%2e/test-static/fonts/glyphs.ttf HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "",
+                "");
+
+        final var socket = new StubSocket(httpRequest);
+        final Http11Processor processor = new Http11Processor(socket);
+
+        // when
+        processor.process(socket);
+
+        // then
+        assertThat(socket.output()).startsWith("HTTP/1.1 404 Not Found\r\n");
+    }
+
+    @Test
+    void headOfHandlerRoute() {
+        // given
+        final String httpRequest = String.join("\r\n",
+                "HEAD / HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "",
+                "");
+
+        final var socket = new StubSocket(httpRequest);
+        final Http11Processor processor = new Http11Processor(socket);
+
+        // when
+        processor.process(socket);
+
+        // then
+        var expected = String.join("\r\n",
+                "HTTP/1.1 200 OK",
+                "Content-Type: text/html;charset=utf-8",
+                "Content-Length: 12",
+                "",
+                "");
+
+        assertThat(outputWithoutDate(socket)).isEqualTo(expected);
+    }
+
+    @Test
+    void singleRange() {
+        // given
+        final String httpRequest = String.join("\r\n",
+                "GET /js/scripts.js HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "Range: bytes=0-9 ",
+                "",
+                "");
+
+        final var socket = new StubSocket(httpRequest);
+        final Http11Processor processor = new Http11Processor(socket);
+
+        // when
+        processor.process(socket);
+
+        // then
+        final var resource = new StaticResourceCache().getResource("/js/scripts.js").orElseThrow();
+        final String output = socket.output();
+        assertThat(output).startsWith("HTTP/1.1 206 Partial Content\r\n");
+        assertThat(output).contains("Content-Length: 10\r\n");
+        assertThat(output).contains("Content-Range: bytes 0-9/" + resource.getContentLength() + "\r\n");
+        assertThat(output).endsWith("\r\n\r\n" + new String(resource.getContent(), 0, 10));
+    }
+
+    @Test
+    void rangeOfLargeStaticFile() throws IOException {
+        // given
+        final String httpRequest = String.join("\r\n",
+                "GET /css/styles.css HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "Range: bytes=-100 ",
+                "",
+                "");
+
+        final var socket = new StubSocket(httpRequest);
+        final var resourceCache = new StaticResourceCache("static", 100_000, 5_000, 48 * 1024);
+        final var protocol = new Http11Protocol();
+        protocol.setResourceCache(resourceCache);
+        final Http11Processor processor = new Http11Processor(socket, protocol);
+
+        // when
+        processor.process(socket);
+
+        // then
+        final URL resource = getClass().getClassLoader().getResource("static/css/styles.css");
+        final String content = new String(Files.readAllBytes(new File(resource.getFile()).toPath()));
+        final String output = socket.output();
+        assertThat(output).startsWith("HTTP/1.1 206 Partial Content\r\n");
+        assertThat(output).contains("Content-Range: bytes 211891-211990/211991\r\n");
+        assertThat(output).endsWith("\r\n\r\n" + content.substring(content.length() - 100));
+    }
+
+    @Test
+    void multipleRanges() {
+        // given
+        final String httpRequest = String.join("\r\n",
+                "GET /js/scripts.js HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "Range: bytes=0-4, 10-14 ",
+                "",
+                "");
+
+        final var socket = new StubSocket(httpRequest);
+        final Http11Processor processor = new Http11Processor(socket);
+
+        // when
+        processor.process(socket);
+
+        // then
+        final var resource = new StaticResourceCache().getResource("/js/scripts.js").orElseThrow();
+        final String content = new String(resource.getContent());
+        final String length = "/" + resource.getContentLength();
+        final String body = "\r\n--TOMCAT_MIME_BOUNDARY\r\n" +
+                "Content-Type: text/javascript\r\n" +
+                "Content-Range: bytes 0-4" + length + "\r\n" +
+                "\r\n" +
+                content.substring(0, 5) +
+                "\r\n--TOMCAT_MIME_BOUNDARY\r\n" +
+                "Content-Type: text/javascript\r\n" +
+                "Content-Range: bytes 10-14" + length + "\r\n" +
+                "\r\n" +
+                content.substring(10, 15) +
+                "\r\n--TOMCAT_MIME_BOUNDARY--\r\n";
+        final String output = socket.output();
+        assertThat(output).startsWith("HTTP/1.1 206 Partial Content\r\n");
+        assertThat(output).contains("Content-Type: multipart/byteranges; boundary=TOMCAT_MIME_BOUNDARY\r\n");
+        assertThat(output).contains("Content-Length: " + body.length() + "\r\n");
+        assertThat(output).endsWith("\r\n\r\n" + body);
+    }
+
+    @Test
+    void rangeNotSatisfiable() {
+        // given
+        final String httpRequest = String.join("\r\n",
+                "GET /js/scripts.js HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "Range: bytes=1000000- ",
+                "",
+                "");
+
+        final var socket = new StubSocket(httpRequest);
+        final Http11Processor processor = new Http11Processor(socket);
+
+        // when
+        processor.process(socket);
+
+        // then
+        final var resource = new StaticResourceCache().getResource("/js/scripts.js").orElseThrow();
+        assertThat(socket.output()).startsWith("HTTP/1.1 416 Range Not Satisfiable\r\n");
+        assertThat(socket.output()).contains("Content-Range: bytes */" + resource.getContentLength() + "\r\n");
+    }
+
+    @Test
+    void ignoreEmptyRange() {
+        // given
+        final String httpRequest = String.join("\r\n",
+                "GET /js/scripts.js HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "Range: bytes= ",
+                "",
+                "");
+
+        final var socket = new StubSocket(httpRequest);
+        final Http11Processor processor = new Http11Processor(socket);
+
+        // when
+        processor.process(socket);
+
+        // then
+        final var resource = new StaticResourceCache().getResource("/js/scripts.js").orElseThrow();
+        assertThat(socket.output()).startsWith("HTTP/1.1 200 OK\r\n");
+        assertThat(socket.output()).contains("Content-Length: " + resource.getContentLength() + "\r\n");
+        assertThat(socket.output()).doesNotContain("Content-Range");
+    }
+
+    @Test
+    void ignoreRangeIfChanged() {
+        // given
+        final String httpRequest = String.join("\r\n",
+                "GET /js/scripts.js HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "Range: bytes=0-9 ",
+                "If-Range: \"outdated\" ",
+                "",
+                "");
+
+        final var socket = new StubSocket(httpRequest);
+        final Http11Processor processor = new Http11Processor(socket);
+
+        // when
+        processor.process(socket);
+
+        // then
+        assertThat(socket.output()).startsWith("HTTP/1.1 200 OK\r\n");
+    }
+
+    @Test
+    void loginWithForm() {
+        // given
+        final String body = "account=gugu&password=password";
+        final String httpRequest = String.join("\r\n",
+                "POST /login HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "Content-Type: application/x-www-form-urlencoded ",
+                "Content-Length: " + body.length() + " ",
+                "",
+                body);
+
+        final var socket = new StubSocket(httpRequest);
+        final Http11Processor processor = new Http11Processor(socket);
+
+        // when
+        processor.process(socket);
+
+        // then
+        final String output = socket.output();
+        assertThat(output).startsWith("HTTP/1.1 302 Found\r\n");
+        assertThat(output).contains("Location: /index.html\r\n");
+        assertThat(output).containsPattern("Set-Cookie: JSESSIONID=[0-9A-F]{32}; Path=/; HttpOnly\r\n");
+    }
+
+    @Test
+    void redirectLoggedInUser() {
+        // given
+        final var protocol = new Http11Protocol();
+        final var session = protocol.getSessionManager().createSession();
+        session.setAttribute("user", "gugu");
+        final String httpRequest = String.join("\r\n",
+                "GET /login HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "Cookie: theme=dark; JSESSIONID=" + session.getId() + " ",
+                "",
+                "");
+
+        final var socket = new StubSocket(httpRequest);
+        final Http11Processor processor = new Http11Processor(socket, protocol);
+
+        // when
+        processor.process(socket);
+
+        // then
+        assertThat(socket.output()).startsWith("HTTP/1.1 302 Found\r\n");
+        assertThat(socket.output()).contains("Location: /index.html\r\n");
+        assertThat(session.isNew()).isFalse();
+    }
+
+    @Test
+    void loginFailure() {
+        // given
+        final String body = "account=gugu&password=wrong";
+        final String httpRequest = String.join("\r\n",
+                "POST /login HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "Content-Type: application/x-www-form-urlencoded ",
+                "Content-Length: " + body.length() + " ",
+                "",
+                body);
+
+        final var socket = new StubSocket(httpRequest);
+        final Http11Processor processor = new Http11Processor(socket);
+
+        // when
+        processor.process(socket);
+
+        // then
+        assertThat(socket.output()).contains("Location: /401.html\r\n");
+    }
+
+    @Test
+    void registerWithChunkedForm() {
+        // given
+        final String httpRequest = String.join("\r\n",
+                "POST /register HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "Content-Type: application/x-www-form-urlencoded ",
+                "Transfer-Encoding: chunked ",
+                "",
+                "d",
+                "account=chunk",
+                "23",
+                "&password=secret&email=chunk%40a.io",
+                "0",
+                "",
+                "POST /login HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "Content-Type: application/x-www-form-urlencoded ",
+                "Content-Length: 29 ",
+                "",
+                "account=chunk&password=secret");
+
+        final var socket = new StubSocket(httpRequest);
+        final Http11Processor processor = new Http11Processor(socket);
+
+        // when
+        processor.process(socket);
+
+        // then
+        final String output = outputWithoutDate(socket);
+        final String registered = "HTTP/1.1 302 Found\r\n" +
+                "Content-Length: 0\r\n" +
+                "Location: /index.html\r\n" +
+                "\r\n";
+        assertThat(output).startsWith(registered + "HTTP/1.1 302 Found\r\n");
+        assertThat(output).contains("Set-Cookie: JSESSIONID=");
+        assertThat(output).endsWith("Location: /index.html\r\n\r\n");
+    }
+
+    @Test
+    void formBodyLargerThanReadBuffer() {
+        // given
+        final String body = "padding=" + "x".repeat(20_000) + "&account=gugu&password=password";
+        final String httpRequest = String.join("\r\n",
+                "POST /login HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "Content-Type: application/x-www-form-urlencoded ",
+                "Content-Length: " + body.length() + " ",
+                "",
+                body);
+
+        final var socket = new StubSocket(httpRequest);
+        final Http11Processor processor = new Http11Processor(socket);
+
+        // when
+        processor.process(socket);
+
+        // then
+        assertThat(socket.output()).contains("Location: /index.html\r\n");
+    }
+
+    @Test
+    void contentTooLarge() {
+        // given
+        final String httpRequest = String.join("\r\n",
+                "POST /login HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "Content-Type: application/x-www-form-urlencoded ",
+                "Content-Length: 1025 ",
+                "",
+                "account=gugu");
+
+        final var socket = new StubSocket(httpRequest);
+        final var protocol = new Http11Protocol();
+        protocol.setMaxPostSize(1024);
+        final Http11Processor processor = new Http11Processor(socket, protocol);
+
+        // when
+        processor.process(socket);
+
+        // then
+        assertThat(socket.output()).startsWith("HTTP/1.1 413 Content Too Large\r\n");
+        assertThat(socket.output()).contains("Connection: close\r\n");
+    }
+
+    @Test
+    void dateHeader() {
+        // given
+        final var socket = new StubSocket();
+        final var processor = new Http11Processor(socket);
+
+        // when
+        processor.process(socket);
+
+        // then
+        assertThat(socket.output()).containsPattern(
+                "\r\nDate: (Mon|Tue|Wed|Thu|Fri|Sat|Sun), \\d{2} [A-Z][a-z]{2} \\d{4} \\d{2}:\\d{2}:\\d{2} GMT\r\n");
+    }
+
+    @Test
+    void metrics() {
+        // given
+        final String httpRequest = String.join("\r\n",
+                "GET / HTTP/1.1",
+                "Host: localhost:8080",
+                "",
+                "GET /nothing.html HTTP/1.1",
+                "Host: localhost:8080",
+                "",
+                "GET /metrics HTTP/1.1",
+                "Host: localhost:8080",
+                "Connection: close",
+                "",
+                "");
+        final var socket = new StubSocket(httpRequest);
+        final var protocol = new Http11Protocol();
+        final var processor = new Http11Processor(socket, protocol);
+
+        // when
+        processor.process(socket);
+
+        // then
+        final String output = socket.output();
+        assertThat(output).contains("Content-Type: text/plain; version=0.0.4; charset=utf-8\r\n");
+        assertThat(output).contains("\nconnector_active_connections 1\n");
+        assertThat(output).contains("\nconnector_busy_workers 1\n");
+        assertThat(output).contains("\nhttp_requests_total{route=\"GET /\",status=\"200\"} 1\n");
+        assertThat(output).contains("\nhttp_requests_total{route=\"static\",status=\"404\"} 1\n");
+        assertThat(output).contains("\nhttp_request_duration_seconds_count{route=\"GET /\"} 1\n");
+        assertThat(protocol.getMetrics().getRoute("GET /metrics").getCount(HttpStatus.OK)).isEqualTo(1L);
+        assertThat(protocol.getMetrics().getActiveConnections()).isEqualTo(0L);
+        assertThat(protocol.getMetrics().getBusyWorkers()).isEqualTo(0L);
+    }
+
+    @Test
+    void logRejectedRequests() {
+        // given
+        final List<String> logged = new ArrayList<>();
+        final AccessLog accessLog = (request, response, time) -> logged.add(
+                (request.hasRequestLine() ? request.getMethod() : "-") + " " + response.getStatus().getCode());
+        final var protocol = new Http11Protocol();
+        protocol.setMaxPostSize(1024);
+        protocol.setAccessLog(accessLog);
+        final var malformed = new StubSocket("GET / HTTP/1.1\r\nHost : localhost\r\n\r\n");
+        final var tooLarge = new StubSocket("POST /login HTTP/1.1\r\nHost: localhost\r\nContent-Length: 1025\r\n\r\n");
+
+        // when
+        new Http11Processor(malformed, protocol).process(malformed);
+        new Http11Processor(tooLarge, protocol).process(tooLarge);
+
+        // then
+        assertThat(logged).containsExactly("- 400", "POST 413");
+    }
+
+    @Test
+    void rejectedRequestMetrics() {
+        // given
+        final var socket = new StubSocket("GET / HTTP/1.1\r\nHost : localhost\r\n\r\n");
+        final var protocol = new Http11Protocol();
+        final var processor = new Http11Processor(socket, protocol);
+
+        // when
+        processor.process(socket);
+
+        // then
+        final var rejected = protocol.getMetrics().getRoute("rejected");
+        assertThat(rejected.getCount(HttpStatus.BAD_REQUEST)).isEqualTo(1L);
+        assertThat(rejected.getBytesWritten()).isEqualTo((long) socket.output().length());
+        assertThat(protocol.getMetrics().getRoute("static")).isNull();
+    }
+
+    @Test
+    void failedHandler() {
+        // given
+        final List<String> logged = new ArrayList<>();
+        final AccessLog accessLog = (request, response, time) -> logged.add(
+                request.getMethod() + " " + response.getStatus().getCode());
+        final var failing = new HandlerMethod("GET", "/fail", (request, response) -> {
+            throw new IllegalArgumentException("failed");
+        });
+        final var protocol = new Http11Protocol();
+        protocol.setMapper(new Mapper(List.of(failing)));
+        protocol.setAccessLog(accessLog);
+        final var socket = new StubSocket("GET /fail HTTP/1.1\r\nHost: localhost\r\n\r\nGET / HTTP/1.1\r\n\r\n");
+
+        // when
+        new Http11Processor(socket, protocol).process(socket);
+
+        // then
+        var expected = String.join("\r\n",
+                "HTTP/1.1 500 Internal Server Error",
+                "Content-Type: text/html;charset=utf-8",
+                "Content-Length: 25",
+                "Connection: close",
+                "",
+                "500 Internal Server Error");
+
+        assertThat(outputWithoutDate(socket)).isEqualTo(expected);
+        assertThat(logged).containsExactly("GET 500");
+        assertThat(protocol.getMetrics().getRoute(failing.toString()).getCount(HttpStatus.INTERNAL_SERVER_ERROR))
+                .isEqualTo(1L);
+    }
+
+    @Test
+    void measureLatencyFromFirstByte() {
+        // given
+        final String head = "GET / HTTP/1.1\r\nHost: localhost:8080\r\nConnection: close\r\n\r\n";
+        final var socket = new StubSocket(head) {
+            @Override
+            public InputStream getInputStream() {
+                // 요청 줄을 먼저 보내고 나머지 헤드는 50ms 뒤에 보낸다.
+                return new InputStream() {
+                    private final byte[] bytes = head.getBytes(StandardCharsets.US_ASCII);
+                    private int position;
+
+                    @Override
+                    public int read() {
+                        throw new UnsupportedOperationException();
+                    }
+
+                    @Override
+                    public int read(final byte[] b, final int off, final int len) {
+                        if (position == bytes.length) {
+                            return -1;
+                        }
+                        if (position > 0) {
+                            sleep(50);
+                        }
+                        final int end = position == 0 ? head.indexOf('\n') + 1 : bytes.length;
+                        final int read = Math.min(len, end - position);
+                        System.arraycopy(bytes, position, b, off, read);
+                        position += read;
+                        return read;
+                    }
+                };
+            }
+        };
+        final var protocol = new Http11Protocol();
+        final var processor = new Http11Processor(socket, protocol);
+
+        // when
+        processor.process(socket);
+
+        // then
+        assertThat(socket.output()).startsWith("HTTP/1.1 200 OK\r\n");
+        assertThat(protocol.getMetrics().getRoute("GET /").getLatency().getMax()).isGreaterThanOrEqualTo(50_000L);
+    }
+
+    private String lastModifiedOf(final String path) {
+        return new StaticResourceCache().getResource(path).orElseThrow().getLastModifiedHttpDate();
+    }
+
+    private String eTagOf(final String path) {
+        return new StaticResourceCache().getResource(path).orElseThrow().getETag();
+    }
+
+    private static void sleep(final long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Date 헤더는 응답할 때마다 달라지므로 지우고 비교한다.
+     */
+    private String outputWithoutDate(final StubSocket socket) {
+        return socket.output().replaceAll("Date: [^\r\n]+\r\n", "");
     }
 }
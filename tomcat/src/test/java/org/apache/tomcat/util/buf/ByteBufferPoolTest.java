@@ -0,0 +1,120 @@
+package org.apache.tomcat.util.buf;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ByteBufferPoolTest {
+
+    @Test
+    void acquireRoundsUpToSizeClass() {
+        // given
+        final var pool = new ByteBufferPool();
+
+        // when
+        final ByteBuffer small = pool.acquire(10);
+        final ByteBuffer header = pool.acquire(5000);
+        final ByteBuffer exact = pool.acquire(8 * 1024);
+
+        // then
+        assertThat(small.capacity()).isEqualTo(1024);
+        assertThat(header.capacity()).isEqualTo(8 * 1024);
+        assertThat(exact.capacity()).isEqualTo(8 * 1024);
+        assertThat(pool.getAllocateCount()).isEqualTo(3L);
+        assertThat(pool.getBorrowedCount()).isEqualTo(3L);
+    }
+
+    @Test
+    void releasedBufferIsReusedCleared() {
+        // given
+        final var pool = new ByteBufferPool();
+        final ByteBuffer buffer = pool.acquire(8 * 1024);
+        buffer.put((byte) 1).flip();
+
+        // when
+        pool.release(buffer);
+        final ByteBuffer reused = pool.acquire(8 * 1024);
+
+        // then
+        assertThat(reused).isSameAs(buffer);
+        assertThat(reused.position()).isEqualTo(0);
+        assertThat(reused.limit()).isEqualTo(8 * 1024);
+        assertThat(pool.getAllocateCount()).isEqualTo(1L);
+        assertThat(pool.getThreadCacheHitCount()).isEqualTo(1L);
+        assertThat(pool.getBorrowedCount()).isEqualTo(1L);
+    }
+
+    @Test
+    void sharedStackServesOtherThreads() throws Exception {
+        // given
+        final var pool = new ByteBufferPool();
+        final ByteBuffer first = pool.acquire(4096);
+        final ByteBuffer second = pool.acquire(4096);
+        pool.release(first);
+        // 스레드 캐시 칸이 이미 찼으므로 공유 스택으로 간다.
+        pool.release(second);
+
+        // when
+        final var acquired = new AtomicReference<ByteBuffer>();
+        try (final var executor = Executors.newSingleThreadExecutor()) {
+            executor.submit(() -> acquired.set(pool.acquire(4096))).get();
+        }
+
+        // then
+        assertThat(acquired.get()).isSameAs(second);
+        assertThat(pool.getAllocateCount()).isEqualTo(2L);
+        assertThat(pool.getPooledBytes()).isEqualTo(0L);
+    }
+
+    @Test
+    void oversizedBufferIsNotPooled() {
+        // given
+        final var pool = new ByteBufferPool();
+        final ByteBuffer buffer = pool.acquire(ByteBufferPool.MAX_BUFFER_SIZE + 1);
+
+        // when
+        pool.release(buffer);
+
+        // then
+        assertThat(buffer.capacity()).isEqualTo(ByteBufferPool.MAX_BUFFER_SIZE + 1);
+        assertThat(pool.getDiscardCount()).isEqualTo(1L);
+        assertThat(pool.acquire(ByteBufferPool.MAX_BUFFER_SIZE + 1)).isNotSameAs(buffer);
+    }
+
+    @Test
+    void releaseBeyondLimitIsDiscarded() {
+        // given
+        final var pool = new ByteBufferPool(1024);
+        final ByteBuffer cached = pool.acquire(1024);
+        final ByteBuffer pooled = pool.acquire(1024);
+        final ByteBuffer excess = pool.acquire(1024);
+
+        // when
+        pool.release(cached);
+        pool.release(pooled);
+        pool.release(excess);
+
+        // then
+        assertThat(pool.getPooledBytes()).isEqualTo(1024L);
+        assertThat(pool.getDiscardCount()).isEqualTo(1L);
+        assertThat(pool.getBorrowedCount()).isEqualTo(0L);
+    }
+
+    @Test
+    void foreignBufferIsNotPooled() {
+        // given
+        final var pool = new ByteBufferPool();
+        final ByteBuffer slice = ByteBuffer.allocate(2048).slice(1024, 1024);
+
+        // when
+        pool.release(slice);
+
+        // then
+        assertThat(pool.getDiscardCount()).isEqualTo(1L);
+        assertThat(pool.acquire(1024)).isNotSameAs(slice);
+    }
+}
@@ -0,0 +1,74 @@
+package org.apache.tomcat.util.http;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ParametersTest {
+
+    @Test
+    void decode() {
+        // given
+        final var parameters = new Parameters();
+        final byte[] content = "account=gugu&password=p%40ss+word&&empty=&flag".getBytes(StandardCharsets.US_ASCII);
+
+        // when
+        parameters.decode(content, 0, content.length);
+        parameters.finish();
+
+        // then
+        assertThat(parameters.size()).isEqualTo(4);
+        assertThat(parameters.getParameter("account")).isEqualTo("gugu");
+        assertThat(parameters.getParameter("password")).isEqualTo("p@ss word");
+        assertThat(parameters.getParameter("empty")).isEqualTo("");
+        assertThat(parameters.getParameter("flag")).isEqualTo("");
+    }
+
+    @Test
+    void decodeSplitContent() {
+        // given
+        final var parameters = new Parameters();
+        final byte[] content = "name=%ED%99%8D%EA%B8%B8%EB%8F%99&a=1".getBytes(StandardCharsets.US_ASCII);
+
+        // when
+        for (int i = 0; i < content.length; i++) {
+            parameters.decode(content, i, 1);
+        }
+        parameters.finish();
+
+        // then
+        assertThat(parameters.getParameter("name")).isEqualTo("홍길동");
+        assertThat(parameters.getParameter("a")).isEqualTo("1");
+    }
+
+    @Test
+    void keepFirstValue() {
+        // given
+        final var parameters = new Parameters();
+        final byte[] content = "a=1&a=2".getBytes(StandardCharsets.US_ASCII);
+
+        // when
+        parameters.decode(content, 0, content.length);
+        parameters.finish();
+
+        // then
+        assertThat(parameters.getParameter("a")).isEqualTo("1");
+    }
+
+    @Test
+    void invalidPercentEncoding() {
+        final var parameters = new Parameters();
+        final byte[] invalid = "a=%zz".getBytes(StandardCharsets.US_ASCII);
+        final byte[] incomplete = "a=%4".getBytes(StandardCharsets.US_ASCII);
+
+        assertThatThrownBy(() -> parameters.decode(invalid, 0, invalid.length))
+                .isInstanceOf(IllegalArgumentException.class);
+        parameters.recycle();
+        parameters.decode(incomplete, 0, incomplete.length);
+        assertThatThrownBy(parameters::finish)
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
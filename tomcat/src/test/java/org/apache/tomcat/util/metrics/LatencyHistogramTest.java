@@ -0,0 +1,69 @@
+package org.apache.tomcat.util.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyHistogramTest {
+
+    @Test
+    void bucketsCoverEveryValue() {
+        // given
+        long previousIndex = -1;
+
+        // when & then
+        for (long value = 0; value < 100_000; value++) {
+            final int index = LatencyHistogram.indexOf(value);
+            assertThat((long) index).isBetween(previousIndex, previousIndex + 1);
+            assertThat(LatencyHistogram.highestValueOf(index)).isGreaterThanOrEqualTo(value);
+            previousIndex = index;
+        }
+    }
+
+    @Test
+    void percentileWithinBucketPrecision() {
+        // given
+        final var histogram = new LatencyHistogram();
+
+        // when
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 10L);
+        }
+
+        // then
+        assertThat(histogram.getCount()).isEqualTo(1000L);
+        assertThat(histogram.getSum()).isEqualTo(5_005_000L);
+        assertThat(histogram.getMax()).isEqualTo(10_000L);
+        assertThat(histogram.getValueAtPercentile(50)).isBetween(5_000L, 5_625L);
+        assertThat(histogram.getValueAtPercentile(99)).isBetween(9_900L, 10_000L);
+        assertThat(histogram.getValueAtPercentile(100)).isEqualTo(10_000L);
+    }
+
+    @Test
+    void recordNanosAndClampOutliers() {
+        // given
+        final var histogram = new LatencyHistogram();
+
+        // when
+        histogram.recordNanos(TimeUnit.MILLISECONDS.toNanos(3));
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+
+        // then
+        assertThat(histogram.getCount()).isEqualTo(3L);
+        assertThat(histogram.getValueAtPercentile(0)).isEqualTo(0L);
+        assertThat(histogram.getValueAtPercentile(50)).isBetween(3_000L, 3_375L);
+        assertThat(histogram.getMax()).isEqualTo((1L << 36) - 1);
+    }
+
+    @Test
+    void emptyHistogram() {
+        // given
+        final var histogram = new LatencyHistogram();
+
+        // when & then
+        assertThat(histogram.getValueAtPercentile(99)).isEqualTo(0L);
+    }
+}
@@ -0,0 +1,58 @@
+package org.apache.tomcat.util.metrics;
+
+import org.apache.coyote.HttpStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ServerMetricsTest {
+
+    @Test
+    void recordPerRouteAndStatus() {
+        // given
+        final var metrics = new ServerMetrics();
+
+        // when
+        metrics.record("GET /login", HttpStatus.OK, 100, TimeUnit.MILLISECONDS.toNanos(2));
+        metrics.record("GET /login", HttpStatus.FOUND, 50, TimeUnit.MILLISECONDS.toNanos(4));
+        metrics.record("static", HttpStatus.NOT_FOUND, 10, 0);
+
+        // then
+        final RouteMetrics login = metrics.getRoute("GET /login");
+        assertThat(login.getCount(HttpStatus.OK)).isEqualTo(1L);
+        assertThat(login.getCount(HttpStatus.FOUND)).isEqualTo(1L);
+        assertThat(login.getBytesWritten()).isEqualTo(150L);
+        assertThat(login.getLatency().getCount()).isEqualTo(2L);
+        assertThat(metrics.getRoute("static").getCount(HttpStatus.NOT_FOUND)).isEqualTo(1L);
+        assertThat(metrics.getRoute("GET /")).isNull();
+    }
+
+    @Test
+    void writePrometheusText() {
+        // given
+        final var metrics = new ServerMetrics();
+        metrics.connectionOpened();
+        metrics.connectionOpened();
+        metrics.connectionClosed();
+        metrics.registerGauge("connector_queued_sockets", "Connections waiting for a worker", () -> 3);
+        metrics.registerGauge("connector_queued_sockets", "Connections waiting for a worker", () -> 4);
+        metrics.record("GET /login", HttpStatus.OK, 100, TimeUnit.MILLISECONDS.toNanos(2));
+
+        // when
+        final var out = new StringBuilder();
+        metrics.writeTo(out);
+
+        // then
+        final String text = out.toString();
+        assertThat(text).contains("# TYPE connector_active_connections gauge\nconnector_active_connections 1\n");
+        assertThat(text).contains("\nconnector_queued_sockets 4\n");
+        assertThat(text).doesNotContain("connector_queued_sockets 3");
+        assertThat(text).contains("\nhttp_requests_total{route=\"GET /login\",status=\"200\"} 1\n");
+        assertThat(text).contains("\nhttp_response_bytes_total{route=\"GET /login\"} 100\n");
+        assertThat(text).contains("\nhttp_request_duration_seconds_sum{route=\"GET /login\"} 0.002\n");
+        assertThat(text).containsPattern("\nhttp_request_duration_seconds\\{route=\"GET /login\",quantile=\"0.99\"} "
+                + "0\\.002\\d*\n");
+    }
+}
@@ -0,0 +1,63 @@
+package org.apache.tomcat.util.threads;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ThreadPoolExecutorTest {
+
+    @Test
+    void startThreadsBeforeQueueing() throws InterruptedException {
+        // given
+        final var queue = new TaskQueue(10);
+        final var executor = new ThreadPoolExecutor(1, 4, 60, TimeUnit.SECONDS, queue,
+                new TaskThreadFactory("test-exec-", true), new java.util.concurrent.ThreadPoolExecutor.AbortPolicy());
+        executor.prestartAllCoreThreads();
+        final var release = new CountDownLatch(1);
+
+        // when
+        for (int i = 0; i < 5; i++) {
+            executor.execute(() -> await(release));
+        }
+
+        // then
+        // 실행 중인 작업을 세므로 방금 넘긴 작업이 아직 시작되지 않았어도 새 스레드를 만든다.
+        assertThat(executor.getPoolSize()).isEqualTo(4);
+        assertThat(queue.size()).isEqualTo(1);
+        assertThat(executor.getSubmittedCount()).isEqualTo(5);
+        release.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(executor.getSubmittedCount()).isEqualTo(0);
+    }
+
+    @Test
+    void doNotCountRejectedTasks() {
+        // given
+        final var executor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, new TaskQueue(1),
+                new TaskThreadFactory("test-exec-", true), new java.util.concurrent.ThreadPoolExecutor.AbortPolicy());
+        final var release = new CountDownLatch(1);
+        executor.execute(() -> await(release));
+        executor.execute(() -> await(release));
+
+        // when & then
+        assertThatThrownBy(() -> executor.execute(() -> await(release)))
+                .isInstanceOf(RejectedExecutionException.class);
+        assertThat(executor.getSubmittedCount()).isEqualTo(2);
+        release.countDown();
+        executor.shutdown();
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -13,6 +13,8 @@ public class StubSocket extends Socket {
 
     private final String request;
     private final ByteArrayOutputStream outputStream;
+    private int writeCount;
+    private int flushCount;
 
     public StubSocket(final String request) {
         this.request = request;
@@ -43,12 +45,35 @@ public class StubSocket extends Socket {
         return new OutputStream() {
             @Override
             public void write(int b) {
+                writeCount++;
                 outputStream.write(b);
             }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                writeCount++;
+                outputStream.write(b, off, len);
+            }
+
+            @Override
+            public void flush() {
+                flushCount++;
+            }
         };
     }
 
     public String output() {
         return outputStream.toString(StandardCharsets.UTF_8);
     }
+
+    /**
+     * @return number of write calls on the socket's output stream
+     */
+    public int writeCount() {
+        return writeCount;
+    }
+
+    public int flushCount() {
+        return flushCount;
+    }
 }